@@ -0,0 +1,87 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import online.fantao.tools.printservice.PrintServiceApplication;
+
+/**
+ * 基准测试使用的应用上下文
+ * 数据库和上传目录都放在临时目录中，关闭后台轮询和预热，避免干扰测量
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final Path workDir;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(Path workDir, ConfigurableApplicationContext context) {
+        this.workDir = workDir;
+        this.context = context;
+    }
+
+    /**
+     * 启动应用上下文
+     *
+     * @param properties 额外的配置项，格式为 key=value
+     */
+    static BenchmarkContext start(String... properties) throws IOException {
+        Path workDir = Files.createTempDirectory("printservice-bench-");
+        Path database = workDir.resolve("printservice.db");
+        // 数据库文件已存在时表结构由 schema.sql 创建
+        Files.createFile(database);
+
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:sqlite:" + database,
+                "file.upload.upload-dir=" + workDir.resolve("uploads"),
+                "logging.file.name=" + workDir.resolve("print-service.log"),
+                "logging.level.root=WARN",
+                "logging.level.online.fantao.tools.printservice=WARN",
+                "access-log.enabled=false",
+                "printer.snmp.enabled=false",
+                "printer.inventory.warm-up=false"));
+        args.addAll(Arrays.asList(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PrintServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(args.toArray(new String[0]))
+                .run();
+        return new BenchmarkContext(workDir, context);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    Path getWorkDir() {
+        return workDir;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        Files.walkFileTree(workDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
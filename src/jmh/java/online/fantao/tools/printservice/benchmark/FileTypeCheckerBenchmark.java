@@ -0,0 +1,133 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import online.fantao.tools.printservice.service.FileTypeChecker;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+/**
+ * 文件类型校验基准测试
+ * 对比原有逐个魔数比较的检查方式与预编译魔数匹配器
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FileTypeCheckerBenchmark {
+
+    private static final List<byte[]> LEGACY_DOCUMENT_MAGIC_NUMBERS = Arrays.asList(
+            new byte[]{'%', 'P', 'D', 'F', '-'},
+            new byte[]{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1},
+            new byte[]{'P', 'K', 0x03, 0x04},
+            new byte[]{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1},
+            new byte[]{'P', 'K', 0x03, 0x04},
+            new byte[]{'T', 'e', 'x', 't'});
+    private static final List<byte[]> LEGACY_IMAGE_MAGIC_NUMBERS = Arrays.asList(
+            new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+            new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47},
+            new byte[]{'G', 'I', 'F'},
+            new byte[]{'B', 'M'});
+    private static final String[] LEGACY_DOCUMENT_EXTENSIONS = {"pdf", "doc", "docx", "xls", "xlsx", "txt"};
+    private static final String[] LEGACY_IMAGE_EXTENSIONS = {"jpg", "jpeg", "png", "gif", "bmp"};
+
+    @Param({"pdf", "docx", "xls", "png", "bmp"})
+    private String extension;
+
+    private FileTypeCheckerFactory factory;
+    private byte[] content;
+    private byte[] header;
+    private int headerLength;
+
+    @Setup
+    public void setup() {
+        factory = new FileTypeCheckerFactory();
+        byte[] magic;
+        switch (extension) {
+            case "pdf":
+                magic = LEGACY_DOCUMENT_MAGIC_NUMBERS.get(0);
+                break;
+            case "docx":
+                magic = LEGACY_DOCUMENT_MAGIC_NUMBERS.get(2);
+                break;
+            case "xls":
+                magic = LEGACY_DOCUMENT_MAGIC_NUMBERS.get(1);
+                break;
+            case "png":
+                magic = LEGACY_IMAGE_MAGIC_NUMBERS.get(1);
+                break;
+            default:
+                magic = LEGACY_IMAGE_MAGIC_NUMBERS.get(3);
+                break;
+        }
+        content = Arrays.copyOf(magic, 4096);
+        header = new byte[64 * 1024];
+        headerLength = factory.getHeaderLength();
+        System.arraycopy(content, 0, header, 0, headerLength);
+    }
+
+    /**
+     * 原有实现：每次调用重新计算文件头长度、分配数组并逐个复制比较
+     */
+    @Benchmark
+    public boolean legacyCheck() throws IOException {
+        boolean document = Arrays.asList(LEGACY_DOCUMENT_EXTENSIONS).contains(extension.toLowerCase());
+        if (!document && !Arrays.asList(LEGACY_IMAGE_EXTENSIONS).contains(extension.toLowerCase())) {
+            return false;
+        }
+        return legacyCheckMagicNumbers(new ByteArrayInputStream(content),
+                document ? LEGACY_DOCUMENT_MAGIC_NUMBERS : LEGACY_IMAGE_MAGIC_NUMBERS);
+    }
+
+    /**
+     * 检查器流式接口：读取一次文件头后使用检查器自身的匹配器
+     */
+    @Benchmark
+    public boolean checkerCheck() throws IOException {
+        FileTypeChecker checker = factory.getChecker(extension);
+        return checker.check(new ByteArrayInputStream(content), extension);
+    }
+
+    /**
+     * 上传路径：文件头已读入复用的缓冲区，直接由工厂的匹配器校验
+     */
+    @Benchmark
+    public boolean compiledMatch() {
+        return factory.matches(header, headerLength, extension);
+    }
+
+    private static boolean legacyCheckMagicNumbers(InputStream inputStream, List<byte[]> magicNumbersList)
+            throws IOException {
+        int maxLength = magicNumbersList.stream()
+                .mapToInt(arr -> arr.length)
+                .max()
+                .orElse(0);
+
+        byte[] header = new byte[maxLength];
+        int bytesRead = inputStream.read(header);
+
+        if (bytesRead < maxLength) {
+            return false;
+        }
+
+        for (byte[] magicNumbers : magicNumbersList) {
+            if (Arrays.equals(Arrays.copyOf(header, magicNumbers.length), magicNumbers)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import online.fantao.tools.printservice.service.impl.FileStorageServiceImpl;
+
+/**
+ * 文件上传基准测试
+ * 经过类型校验、内容校验、写入临时目录和入库的完整保存流程；
+ * 每次调用的内容都不同，content 模式下不会命中去重
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileUploadBenchmark {
+
+    @Param({"4096", "1048576"})
+    private int size;
+
+    @Param({"uuid", "content"})
+    private String storageMode;
+
+    private BenchmarkContext context;
+    private FileStorageServiceImpl fileStorageService;
+    private byte[] content;
+    private long counter;
+    private final List<String> fileIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = BenchmarkContext.start(
+                "file.upload.storage-mode=" + storageMode,
+                "file.upload.gc-grace-period=0");
+        fileStorageService = context.getBean(FileStorageServiceImpl.class);
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+        byte[] header = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, content, 0, header.length);
+    }
+
+    /**
+     * 释放本轮上传的文件，避免临时目录不断增长
+     */
+    @TearDown(Level.Iteration)
+    public void release() throws IOException {
+        for (String fileId : fileIds) {
+            fileStorageService.release(fileId);
+        }
+        fileIds.clear();
+        fileStorageService.collectGarbage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public String store() throws IOException {
+        // 修改文件头之后的 8 个字节，保证每次的内容哈希不同
+        long value = ++counter;
+        for (int i = 0; i < 8; i++) {
+            content[16 + i] = (byte) (value >>> (i * 8));
+        }
+        String fileId = fileStorageService.store(new ByteArrayInputStream(content), "bench.pdf");
+        fileIds.add(fileId);
+        return fileId;
+    }
+}
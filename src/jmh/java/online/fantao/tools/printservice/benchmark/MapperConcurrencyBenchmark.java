@@ -0,0 +1,96 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.service.PrinterService;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * SQLite Mapper 并发基准测试
+ * readOnly 组只有读线程；mixed 组中读线程和一个写线程同时运行，用于观察写事务对读取的影响
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MapperConcurrencyBenchmark {
+
+    private static final int PRINTER_COUNT = 1000;
+
+    private BenchmarkContext context;
+    private PrinterService printerService;
+    private PrinterMapper printerMapper;
+    private TransactionTemplate transactionTemplate;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = BenchmarkContext.start();
+        printerService = context.getBean(PrinterService.class);
+        printerMapper = context.getBean(PrinterMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < PRINTER_COUNT; i++) {
+                Printer printer = new Printer();
+                printer.setName("printer-" + i);
+                printer.setModel("model-" + (i % 16));
+                printer.setIpAddress("10.0." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+                printer.setPort(9100);
+                printer.setStatus("OFFLINE");
+                printerMapper.insert(printer);
+                if (i == 0) {
+                    firstId = printer.getId();
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public PrinterVO readOnlyDetail() {
+        return printerService.getPrinterDetail(randomId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public PrinterVO mixedDetail() {
+        return printerService.getPrinterDetail(randomId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int mixedUpdate() {
+        Printer printer = new Printer();
+        printer.setId(randomId());
+        printer.setModel("model-" + ThreadLocalRandom.current().nextInt(16));
+        return transactionTemplate.execute(status -> printerMapper.updateById(printer));
+    }
+
+    private long randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(PRINTER_COUNT);
+    }
+}
@@ -0,0 +1,108 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+import online.fantao.tools.printservice.convert.PrinterConverter;
+import online.fantao.tools.printservice.convert.PrinterConverterImpl;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 打印机列表转换基准测试
+ * 对比原有基于 BeanUtils.copyProperties 的反射转换与 MapStruct 生成的转换器，不包含数据库查询；
+ * 打印机按状态批量写入，同一批的最后在线时间相同
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrinterConvertBenchmark {
+
+    private static final String[] STATUSES = {"ONLINE", "OFFLINE", "ERROR", "UNKNOWN"};
+
+    private static final DateTimeFormatter LEGACY_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 同一最后在线时间的打印机数量
+     */
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private PrinterConverter printerConverter;
+    private List<Printer> printers;
+
+    @Setup
+    public void setup() {
+        printerConverter = new PrinterConverterImpl();
+        printers = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Printer printer = new Printer();
+            printer.setId((long) i);
+            printer.setName("printer-" + i);
+            printer.setModel("model-" + (i % 16));
+            printer.setIpAddress("10.0." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+            printer.setPort(9100);
+            printer.setStatus(STATUSES[i % STATUSES.length]);
+            printer.setLastOnlineTime(i % 2 == 0 ? now.minusSeconds(i / BATCH_SIZE) : null);
+            printer.setCreateTime(now);
+            printer.setUpdateTime(now);
+            printer.setDeleted(false);
+            printers.add(printer);
+        }
+    }
+
+    /**
+     * 原有实现：BeanUtils.copyProperties 复制属性，每行都重新格式化时间
+     */
+    @Benchmark
+    public List<PrinterVO> legacyConvert() {
+        List<PrinterVO> result = new ArrayList<>(printers.size());
+        for (Printer printer : printers) {
+            PrinterVO vo = new PrinterVO();
+            BeanUtils.copyProperties(printer, vo);
+            vo.setStatusText(legacyStatusText(printer.getStatus()));
+            if (printer.getLastOnlineTime() != null) {
+                vo.setLastOnlineTimeText(printer.getLastOnlineTime().format(LEGACY_DATE_TIME_FORMATTER));
+            }
+            result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * MapStruct 生成的转换器
+     */
+    @Benchmark
+    public List<PrinterVO> generatedConvert() {
+        return printerConverter.toVOList(printers);
+    }
+
+    private static String legacyStatusText(String status) {
+        switch (status) {
+            case "ONLINE":
+                return "在线";
+            case "OFFLINE":
+                return "离线";
+            case "ERROR":
+                return "错误";
+            default:
+                return "未知";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package online.fantao.tools.printservice.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * 线程占用基准测试
+ * 同时启动大量阻塞中的任务（模拟慢速上传和探测），对比平台线程与虚拟线程的启动耗时、
+ * 峰值平台线程数和内存占用；virtual 模式需要在 Java 21 上运行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ThreadFootprintBenchmark {
+
+    @Param({"1000", "4000"})
+    private int tasks;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    private ThreadFactory threadFactory;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("virtual".equals(mode)) {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("virtual 模式需要 Java 21，当前版本: " + Runtime.version());
+            }
+            threadFactory = new VirtualThreadTaskExecutor("bench-").getVirtualThreadFactory();
+        } else {
+            CustomizableThreadFactory platform = new CustomizableThreadFactory("bench-");
+            platform.setDaemon(true);
+            threadFactory = platform;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void gc() {
+        System.gc();
+    }
+
+    /**
+     * 启动全部任务，所有任务同时阻塞时记录占用，然后释放并等待全部结束
+     */
+    @Benchmark
+    public void blockingTasks(Footprint footprint, BenchmarkParams params) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long nonHeapBefore = memory.getNonHeapMemoryUsage().getUsed();
+
+        CountDownLatch started = new CountDownLatch(tasks);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            threadFactory.newThread(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.countDown();
+            }).start();
+        }
+        started.await();
+
+        // EVENTS 计数器在各次测量之间累加，按测量次数折算为平均值
+        int iterations = params.getMeasurement().getCount();
+        footprint.platformThreads += (double) ManagementFactory.getThreadMXBean().getThreadCount() / iterations;
+        footprint.heapMb += (memory.getHeapMemoryUsage().getUsed() - heapBefore) / (1024.0 * 1024.0) / iterations;
+        footprint.nonHeapMb += (memory.getNonHeapMemoryUsage().getUsed() - nonHeapBefore) / (1024.0 * 1024.0) / iterations;
+
+        release.countDown();
+        finished.await();
+    }
+
+    /**
+     * 所有任务进入阻塞时的占用
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        /**
+         * 存活的平台线程数
+         */
+        public double platformThreads;
+        /**
+         * 堆内存增量（MB）
+         */
+        public double heapMb;
+        /**
+         * 非堆内存增量（MB），平台线程的栈不计入，实际占用以进程 RSS 为准
+         */
+        public double nonHeapMb;
+    }
+}
@@ -3,11 +3,13 @@ package online.fantao.tools.printservice;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 打印服务启动类
  */
 @SpringBootApplication
+@EnableScheduling
 @MapperScan("online.fantao.tools.printservice.mapper")
 public class PrintServiceApplication {
     public static void main(String[] args) {
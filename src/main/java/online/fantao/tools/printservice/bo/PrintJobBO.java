@@ -0,0 +1,76 @@
+package online.fantao.tools.printservice.bo;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 打印任务业务对象
+ * 用于接收前端提交的打印请求
+ */
+@Data
+public class PrintJobBO {
+    /**
+     * 文件ID，即上传接口返回的文件名
+     */
+    @NotBlank(message = "文件ID不能为空")
+    private String fileId;
+
+    /**
+     * 打印机ID，与打印机池ID必须指定其中一个
+     */
+    private Long printerId;
+
+    /**
+     * 打印机池ID，由调度器选择预计最早完成的成员打印机，成员离线或出错时转移到其他成员
+     */
+    private Long poolId;
+
+    /**
+     * 提交者（用户或租户），同一优先级内按提交者加权公平调度，为空时使用客户端地址
+     */
+    @Pattern(regexp = "^.{1,64}$", message = "提交者长度不能超过64个字符")
+    private String owner;
+
+    /**
+     * 优先级：HIGH、NORMAL、LOW，高优先级的任务先打印
+     */
+    @Pattern(regexp = "^(HIGH|NORMAL|LOW)$", message = "优先级只能是HIGH、NORMAL或LOW")
+    private String priority = "NORMAL";
+
+    /**
+     * 打印份数
+     */
+    @Positive(message = "打印份数必须大于0")
+    @Max(value = 99, message = "打印份数不能超过99")
+    private Integer copies = 1;
+
+    /**
+     * 渲染的目标格式：pwg（PWG 光栅）、ps（PostScript）或外部转换命令配置的格式，
+     * 为空时直接发送原文件，以下渲染参数不生效
+     */
+    @Pattern(regexp = "^[a-z0-9]{1,10}$", message = "目标格式不正确")
+    private String format;
+
+    /**
+     * 分辨率，为空时使用默认分辨率
+     */
+    @Min(value = 72, message = "分辨率不能小于72")
+    @Max(value = 1200, message = "分辨率不能超过1200")
+    private Integer dpi;
+
+    /**
+     * 是否双面打印
+     */
+    private Boolean duplex = false;
+
+    /**
+     * 每张纸打印的页数：1、2 或 4
+     */
+    @Min(value = 1, message = "每张纸打印的页数只能是1、2或4")
+    @Max(value = 4, message = "每张纸打印的页数只能是1、2或4")
+    private Integer numberUp = 1;
+}
@@ -0,0 +1,41 @@
+package online.fantao.tools.printservice.bo;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 打印机池业务对象
+ * 打印机池是一组可以互相替代的打印机，提交到打印机池的任务由调度器选择成员打印机
+ */
+@Data
+public class PrinterPoolBO {
+    /**
+     * 打印机池ID，更新时必填
+     */
+    private Long id;
+
+    /**
+     * 打印机池名称
+     */
+    @NotBlank(message = "打印机池名称不能为空")
+    @Pattern(regexp = "^.{2,50}$", message = "打印机池名称长度必须在2-50个字符之间")
+    private String name;
+
+    /**
+     * 描述
+     */
+    @Size(max = 200, message = "描述不能超过200个字符")
+    private String description;
+
+    /**
+     * 成员打印机ID列表
+     */
+    @NotEmpty(message = "打印机池至少需要一台打印机")
+    @Size(max = 100, message = "打印机池最多包含100台打印机")
+    private List<Long> printerIds;
+}
@@ -0,0 +1,51 @@
+package online.fantao.tools.printservice.bo;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * 打印机分页查询条件
+ * 按打印机ID升序返回，翻页时传入上一页返回的游标
+ */
+@Data
+public class PrinterQueryBO {
+    /**
+     * 状态，为空时不过滤
+     */
+    @Pattern(regexp = "^(ONLINE|OFFLINE|ERROR)$", message = "状态值不正确")
+    private String status;
+
+    /**
+     * 型号，精确匹配
+     */
+    private String model;
+
+    /**
+     * IP地址前缀，例如 192.168.1.
+     */
+    @Pattern(regexp = "^[0-9.]{1,15}$", message = "IP地址前缀格式不正确")
+    private String ipPrefix;
+
+    /**
+     * 游标，上一页最后一台打印机的ID，为空时从第一页开始
+     */
+    private Long cursor;
+
+    /**
+     * 每页数量
+     */
+    @NotNull(message = "每页数量不能为空")
+    @Min(value = 1, message = "每页数量必须大于0")
+    @Max(value = 500, message = "每页数量不能超过500")
+    private Integer size = 50;
+
+    /**
+     * 返回的字段，为空时返回全部字段
+     */
+    private List<String> fields;
+}
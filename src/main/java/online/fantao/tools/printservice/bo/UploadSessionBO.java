@@ -0,0 +1,25 @@
+package online.fantao.tools.printservice.bo;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 分片上传会话业务对象
+ */
+@Data
+public class UploadSessionBO {
+    /**
+     * 原始文件名，用于确定文件类型
+     */
+    @NotBlank(message = "文件名不能为空")
+    private String filename;
+
+    /**
+     * 文件总大小（字节）
+     */
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long totalSize;
+}
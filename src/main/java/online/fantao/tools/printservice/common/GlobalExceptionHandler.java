@@ -91,6 +91,16 @@ public class GlobalExceptionHandler {
         return Result.error(ex.getMessage());
     }
 
+    /**
+     * 处理请求过多异常
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Result<String> handleTooManyRequestsException(TooManyRequestsException ex) {
+        logger.warn("请求过多: {}", ex.getMessage());
+        return Result.error(429, ex.getMessage());
+    }
+
     /**
      * 处理其他未知异常
      */
@@ -0,0 +1,14 @@
+package online.fantao.tools.printservice.common;
+
+/**
+ * 请求过多异常
+ * 用于队列已满等需要客户端稍后重试的场景
+ */
+public class TooManyRequestsException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
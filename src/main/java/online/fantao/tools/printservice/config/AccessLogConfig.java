@@ -0,0 +1,45 @@
+package online.fantao.tools.printservice.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "access-log")
+public class AccessLogConfig {
+    /**
+     * 是否记录访问日志
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 记录请求头和请求体的采样比例（0-1），出错的请求总是记录
+     */
+    private Double sampleRate = 0.01;
+
+    /**
+     * 日志缓冲区大小，写满时丢弃新的日志
+     */
+    private Integer bufferSize = 8192;
+
+    /**
+     * 记录的请求体最大字节数，超过的部分截断
+     */
+    private Integer maxBodyLength = 4096;
+
+    /**
+     * 需要脱敏的请求头（不区分大小写）
+     */
+    private List<String> redactedHeaders = new ArrayList<>(List.of(
+            "authorization", "proxy-authorization", "cookie", "x-api-key"));
+
+    /**
+     * 不记录访问日志的路径
+     */
+    private List<String> excludePaths = new ArrayList<>(List.of(
+            "/error", "/swagger-ui/**", "/api-docs/**", "/favicon.ico"));
+}
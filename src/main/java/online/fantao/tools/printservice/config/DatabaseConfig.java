@@ -10,36 +10,78 @@ import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 
+/**
+ * 数据源配置
+ * SQLite 同一时刻只允许一个写事务，因此写连接池固定为 1 个连接；
+ * 只读事务（@Transactional(readOnly = true)）路由到独立的只读连接池，WAL 模式下读写互不阻塞
+ */
 @Configuration
 @EnableTransactionManagement
+@RequiredArgsConstructor
 public class DatabaseConfig {
 
-    @Value("${spring.datasource.driver-class-name}")
-    private String driverClassName;
+    private final DatabasePoolConfig poolConfig;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.datasource.url}")
     private String url;
 
-    @Value("${spring.datasource.username}")
-    private String username;
+    /**
+     * 写连接池
+     */
+    @Bean
+    public HikariDataSource writerDataSource() {
+        SQLiteConfig sqliteConfig = createSqliteConfig();
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.valueOf(poolConfig.getJournalMode().toUpperCase()));
 
-    @Value("${spring.datasource.password}")
-    private String password;
+        HikariConfig hikariConfig = createHikariConfig("sqlite-writer", sqliteConfig);
+        hikariConfig.setMaximumPoolSize(1);
+        hikariConfig.setMinimumIdle(1);
+        return new HikariDataSource(hikariConfig);
+    }
 
+    /**
+     * 只读连接池
+     */
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
+    public HikariDataSource readerDataSource() {
+        // 打开时不能以 SQLITE_OPEN_READONLY 方式，否则 Spring 在事务结束后重置只读标记会失败，
+        // 改为通过 query_only 在连接级别禁止写入
+        SQLiteConfig sqliteConfig = createSqliteConfig();
+        sqliteConfig.setExplicitReadOnly(true);
+
+        HikariConfig hikariConfig = createHikariConfig("sqlite-reader", sqliteConfig);
+        hikariConfig.setMaximumPoolSize(Math.max(1, poolConfig.getReaderPoolSize()));
+        hikariConfig.setReadOnly(true);
+        return new HikariDataSource(hikariConfig);
+    }
+
+    /**
+     * 对外使用的数据源
+     * 延迟到第一条语句执行时才获取物理连接，此时已知事务是否只读
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writerDataSource, HikariDataSource readerDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writerDataSource);
+        dataSource.setReadOnlyDataSource(readerDataSource);
         return dataSource;
     }
 
@@ -55,10 +97,35 @@ public class DatabaseConfig {
                 Files.createFile(dbFile);
                 ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
                 populator.addScript(new ClassPathResource("db/init.sql"));
-                populator.execute(dataSource());
+                populator.execute(writerDataSource());
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
-} 
\ No newline at end of file
+
+    private SQLiteConfig createSqliteConfig() {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(poolConfig.getSynchronous().toUpperCase()));
+        sqliteConfig.setBusyTimeout(poolConfig.getBusyTimeout());
+        sqliteConfig.setCacheSize(poolConfig.getCacheSize());
+        sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(poolConfig.getMmapSize()));
+        return sqliteConfig;
+    }
+
+    private HikariConfig createHikariConfig(String poolName, SQLiteConfig sqliteConfig) {
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(sqliteConfig);
+        sqliteDataSource.setUrl(url);
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(poolName);
+        hikariConfig.setDataSource(sqliteDataSource);
+        hikariConfig.setConnectionTimeout(poolConfig.getConnectionTimeout());
+        // SQLite 连接不会被服务端断开，无需定期回收
+        hikariConfig.setMaxLifetime(0);
+        hikariConfig.setIdleTimeout(0);
+        // 连接池在构造时即启动，需在此之前设置指标采集，获取连接的等待时间记录为 hikaricp.connections.acquire
+        hikariConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return hikariConfig;
+    }
+}
@@ -0,0 +1,45 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "database.pool")
+public class DatabasePoolConfig {
+    /**
+     * 只读连接池大小，写连接固定为 1 个
+     */
+    private Integer readerPoolSize = 4;
+
+    /**
+     * 从连接池获取连接的超时时间（毫秒）
+     */
+    private Long connectionTimeout = 30000L;
+
+    /**
+     * 数据库被锁定时的等待时间（毫秒）
+     */
+    private Integer busyTimeout = 5000;
+
+    /**
+     * 日志模式，WAL 模式下读连接不会被写事务阻塞
+     */
+    private String journalMode = "WAL";
+
+    /**
+     * 同步模式，WAL 模式下 NORMAL 只在检查点时同步磁盘
+     */
+    private String synchronous = "NORMAL";
+
+    /**
+     * 每个连接的页缓存大小，负数表示 KiB
+     */
+    private Integer cacheSize = -8192;
+
+    /**
+     * 内存映射读取的最大字节数，0 表示关闭
+     */
+    private Long mmapSize = 268435456L;
+}
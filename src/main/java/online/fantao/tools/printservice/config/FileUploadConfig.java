@@ -22,4 +22,24 @@ public class FileUploadConfig {
      * 最大文件大小（MB）
      */
     private Long maxFileSize;
-} 
\ No newline at end of file
+    
+    /**
+     * 存储模式：uuid 每次上传保存为新文件；content 按内容哈希去重存储
+     */
+    private String storageMode = "uuid";
+    
+    /**
+     * 引用计数归零的文件保留时间（毫秒），超过后由垃圾回收删除
+     */
+    private Long gcGracePeriod = 3600000L;
+    
+    /**
+     * 分片上传会话的空闲超时时间（毫秒），超时后会话和已上传的数据被删除
+     */
+    private Long sessionTimeout = 86400000L;
+    
+    /**
+     * 纯文本文件校验编码时读取的最大字节数
+     */
+    private Integer textSniffLength = 8192;
+}
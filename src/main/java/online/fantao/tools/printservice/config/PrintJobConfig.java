@@ -0,0 +1,38 @@
+package online.fantao.tools.printservice.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "print.job")
+public class PrintJobConfig {
+    /**
+     * 每台打印机的最大排队任务数，超过后拒绝提交
+     */
+    private Integer queueCapacity = 32;
+
+    /**
+     * 内存中保留的已结束任务数
+     */
+    private Integer retention = 1000;
+
+    /**
+     * 小任务的最大字节数（文件大小乘以份数），小任务进入快速通道
+     */
+    private Long smallJobSize = 1048576L;
+
+    /**
+     * 普通通道有任务排队时，快速通道最多连续调度的任务数
+     */
+    private Integer fastLaneBurst = 4;
+
+    /**
+     * 提交者的调度权重，未配置的提交者权重为 1，权重为 2 的提交者获得两倍的打印带宽
+     */
+    private Map<String, Double> weights = new HashMap<>();
+}
@@ -0,0 +1,30 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "print.journal")
+public class PrintJournalConfig {
+    /**
+     * 是否启用任务日志，关闭后排队中的任务在重启后丢失
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 任务日志目录
+     */
+    private String dir = "./journal";
+
+    /**
+     * 单个日志段文件的大小（字节）
+     */
+    private Integer segmentSize = 67108864;
+
+    /**
+     * 压缩间隔（毫秒），把仍未结束的任务写入快照并删除旧的日志段
+     */
+    private Long compactInterval = 600000L;
+}
@@ -0,0 +1,25 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "print.pool")
+public class PrintPoolConfig {
+    /**
+     * 尚无测量数据时假定的发送速率（字节/秒）
+     */
+    private Long defaultThroughput = 1048576L;
+
+    /**
+     * 每个任务除发送数据外的固定耗时（毫秒），包括建立连接和打印机处理任务的时间
+     */
+    private Long jobOverhead = 3000L;
+
+    /**
+     * 发送速率指数加权平均中新测量值的权重（0-1）
+     */
+    private Double throughputWeight = 0.3;
+}
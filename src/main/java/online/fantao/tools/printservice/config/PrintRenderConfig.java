@@ -0,0 +1,56 @@
+package online.fantao.tools.printservice.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "print.render")
+public class PrintRenderConfig {
+    /**
+     * 渲染结果缓存目录
+     */
+    private String cacheDir = "./render-cache";
+
+    /**
+     * 缓存目录的最大字节数，超过后按最近最少使用淘汰
+     */
+    private Long maxCacheSize = 1073741824L;
+
+    /**
+     * 未指定分辨率时使用的分辨率
+     */
+    private Integer defaultDpi = 300;
+
+    /**
+     * 外部转换命令的超时时间（毫秒）
+     */
+    private Long commandTimeout = 300000L;
+
+    /**
+     * 外部转换命令，按配置顺序优先于内置转换器
+     */
+    private List<Command> commands = new ArrayList<>();
+
+    @Data
+    public static class Command {
+        /**
+         * 支持的源文件扩展名
+         */
+        private List<String> sourceTypes = new ArrayList<>();
+
+        /**
+         * 目标格式
+         */
+        private String format;
+
+        /**
+         * 命令及参数，支持占位符 {input}、{output}、{format}、{dpi}、{duplex}、{nup}
+         */
+        private List<String> command = new ArrayList<>();
+    }
+}
@@ -0,0 +1,30 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "print.transport")
+public class PrintTransportConfig {
+    /**
+     * 连接打印机的超时时间（毫秒）
+     */
+    private Long connectTimeout = 5000L;
+
+    /**
+     * 单次写入等待的超时时间（毫秒）
+     */
+    private Long writeTimeout = 60000L;
+
+    /**
+     * Socket 发送缓冲区大小（字节），0 表示使用系统默认值
+     */
+    private Integer sendBufferSize = 0;
+
+    /**
+     * 单次 transferTo 调用的最大字节数
+     */
+    private Long transferChunkSize = 8L * 1024 * 1024;
+}
@@ -0,0 +1,25 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "printer.events")
+public class PrinterEventConfig {
+    /**
+     * 保留的最近状态事件数，断线重连时可以从中补发
+     */
+    private Integer bufferSize = 1024;
+
+    /**
+     * 事件订阅的超时时间（毫秒），超时后客户端携带最后的事件序号重新连接
+     */
+    private Long timeout = 1800000L;
+
+    /**
+     * 心跳间隔（毫秒），用于及时发现已断开的连接
+     */
+    private Long heartbeatInterval = 30000L;
+}
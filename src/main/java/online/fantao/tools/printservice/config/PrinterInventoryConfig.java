@@ -0,0 +1,25 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "printer.inventory")
+public class PrinterInventoryConfig {
+    /**
+     * 扫描结果的有效期（毫秒），过期后在后台刷新
+     */
+    private Long ttl = 60000L;
+
+    /**
+     * 过期后仍可直接返回旧结果的时长（毫秒），超过后请求需等待刷新完成
+     */
+    private Long maxStale = 600000L;
+
+    /**
+     * 启动时是否在后台预热扫描结果
+     */
+    private Boolean warmUp = true;
+}
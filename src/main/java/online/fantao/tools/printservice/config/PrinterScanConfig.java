@@ -0,0 +1,59 @@
+package online.fantao.tools.printservice.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "printer.scan")
+public class PrinterScanConfig {
+    /**
+     * 探测的打印端口（RAW/JetDirect）
+     */
+    private Integer port = 9100;
+
+    /**
+     * 同时进行中的最大探测连接数
+     */
+    private Integer concurrency = 256;
+
+    /**
+     * 单个主机的探测超时时间（毫秒）
+     */
+    private Long probeTimeout = 1000L;
+
+    /**
+     * 需要扫描的子网列表（CIDR格式，如 192.168.1.0/24）
+     * 为空时根据本机网卡地址自动推导
+     */
+    private List<String> subnets = new ArrayList<>();
+
+    /**
+     * 自动推导子网时允许的最小前缀长度，避免误扫描过大的网段
+     */
+    private Integer minPrefixLength = 24;
+
+    /**
+     * 同时执行的异步扫描任务数
+     */
+    private Integer maxConcurrentJobs = 2;
+
+    /**
+     * 已结束的扫描任务保留时间（毫秒）
+     */
+    private Long jobRetention = 600000L;
+
+    /**
+     * 扫描事件订阅的超时时间（毫秒）
+     */
+    private Long eventTimeout = 600000L;
+
+    /**
+     * 进度事件的最小推送间隔（毫秒）
+     */
+    private Long progressInterval = 200L;
+}
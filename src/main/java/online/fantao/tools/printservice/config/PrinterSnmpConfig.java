@@ -0,0 +1,55 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "printer.snmp")
+public class PrinterSnmpConfig {
+    /**
+     * 是否启用 SNMP 状态轮询
+     */
+    private Boolean enabled = true;
+
+    /**
+     * SNMP 端口
+     */
+    private Integer port = 161;
+
+    /**
+     * SNMP v2c 团体名
+     */
+    private String community = "public";
+
+    /**
+     * 单次请求的超时时间（毫秒）
+     */
+    private Long timeout = 1500L;
+
+    /**
+     * 超时后的重试次数
+     */
+    private Integer retries = 1;
+
+    /**
+     * 最短轮询间隔（毫秒），状态变化或异常的设备按该间隔轮询
+     */
+    private Long minInterval = 10000L;
+
+    /**
+     * 最长轮询间隔（毫秒），状态稳定的设备逐步放宽到该间隔
+     */
+    private Long maxInterval = 120000L;
+
+    /**
+     * GETBULK 每列最多返回的行数（耗材、纸盒数量）
+     */
+    private Integer maxRepetitions = 8;
+
+    /**
+     * 在线设备刷新最后在线时间的间隔（毫秒），只写入数据库，不发布状态事件
+     */
+    private Long onlineRefreshInterval = 300000L;
+}
@@ -0,0 +1,20 @@
+package online.fantao.tools.printservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "printer.status")
+public class PrinterStatusConfig {
+    /**
+     * 状态更新批量写入数据库的间隔（毫秒）
+     */
+    private Long flushInterval = 200L;
+
+    /**
+     * 待写入的打印机数量达到该值时立即写入
+     */
+    private Integer batchSize = 500;
+}
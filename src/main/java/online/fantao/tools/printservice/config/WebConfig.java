@@ -1,34 +1,39 @@
 package online.fantao.tools.printservice.config;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import lombok.RequiredArgsConstructor;
-import online.fantao.tools.printservice.interceptor.RequestLogInterceptor;
+import online.fantao.tools.printservice.interceptor.AccessLogAppender;
+import online.fantao.tools.printservice.interceptor.AccessLogFilter;
 
 /**
  * Web配置类
- * 配置拦截器等Web相关组件
+ * 配置过滤器等Web相关组件
  */
 @Configuration
 @RequiredArgsConstructor
 @SuppressWarnings("null")
 public class WebConfig implements WebMvcConfigurer {
 
-    private final RequestLogInterceptor requestLogInterceptor;
+    private final AccessLogConfig accessLogConfig;
+    private final AccessLogAppender accessLogAppender;
 
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(requestLogInterceptor)
-                .addPathPatterns("/**")  // 拦截所有请求
-                .excludePathPatterns(     // 排除不需要拦截的路径
-                    "/error",            // 错误页面
-                    "/swagger-ui/**",    // Swagger UI
-                    "/api-docs/**",      // OpenAPI 文档
-                    "/favicon.ico"       // 网站图标
-                );
+    /**
+     * 访问日志过滤器
+     * 需要在读取请求体之前包装请求，因此使用过滤器而不是拦截器；排除的路径由 access-log.exclude-paths 配置
+     */
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter() {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(
+                new AccessLogFilter(accessLogConfig, accessLogAppender));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
     }
 
     @Override
@@ -0,0 +1,80 @@
+package online.fantao.tools.printservice.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.bo.UploadSessionBO;
+import online.fantao.tools.printservice.common.Result;
+import online.fantao.tools.printservice.service.ChunkedUploadService;
+import online.fantao.tools.printservice.vo.UploadSessionVO;
+
+/**
+ * 分片上传控制器
+ * 流程：创建会话 -> 按偏移量上传分片 -> 查询已接收区间（断点续传）-> 完成上传
+ */
+@Tag(name = "分片上传", description = "大文件断点续传相关接口")
+@RestController
+@RequestMapping("/api/file/uploads")
+@Validated
+@RequiredArgsConstructor
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @Operation(summary = "创建上传会话", description = "声明文件名和文件大小，返回会话ID")
+    @PostMapping
+    public Result<UploadSessionVO> initiate(@Validated @RequestBody UploadSessionBO uploadSession) {
+        return Result.success(chunkedUploadService.initiate(uploadSession));
+    }
+
+    @Operation(summary = "上传分片", description = "请求体即分片内容，写入到文件的 offset 位置")
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Result<UploadSessionVO> writeChunk(
+            @Parameter(description = "会话ID", required = true)
+            @PathVariable String uploadId,
+            @Parameter(description = "分片在文件中的偏移量", required = true)
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        return Result.success(chunkedUploadService.writeChunk(uploadId, offset, request.getInputStream()));
+    }
+
+    @Operation(summary = "查询上传会话", description = "返回已接收的字节区间，用于断点续传")
+    @GetMapping("/{uploadId}")
+    public Result<UploadSessionVO> getSession(
+            @Parameter(description = "会话ID", required = true)
+            @PathVariable String uploadId) {
+        return Result.success(chunkedUploadService.getSession(uploadId));
+    }
+
+    @Operation(summary = "完成上传", description = "所有分片接收完成后保存文件，返回文件ID")
+    @PostMapping("/{uploadId}/complete")
+    public Result<UploadSessionVO> complete(
+            @Parameter(description = "会话ID", required = true)
+            @PathVariable String uploadId) throws IOException {
+        return Result.success(chunkedUploadService.complete(uploadId));
+    }
+
+    @Operation(summary = "放弃上传", description = "删除会话和已接收的数据")
+    @DeleteMapping("/{uploadId}")
+    public Result<Boolean> abort(
+            @Parameter(description = "会话ID", required = true)
+            @PathVariable String uploadId) throws IOException {
+        return Result.success(chunkedUploadService.abort(uploadId));
+    }
+}
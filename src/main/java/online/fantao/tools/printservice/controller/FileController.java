@@ -1,12 +1,10 @@
 package online.fantao.tools.printservice.controller;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
 
 import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -16,12 +14,13 @@ import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.common.BusinessException;
 import online.fantao.tools.printservice.common.Result;
 import online.fantao.tools.printservice.config.FileUploadConfig;
-import online.fantao.tools.printservice.service.FileTypeChecker;
-import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+import online.fantao.tools.printservice.service.FileStorageService;
 
 @Slf4j
 @RestController
@@ -31,13 +30,15 @@ import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
 public class FileController {
 
     private final FileUploadConfig fileUploadConfig;
-    private final FileTypeCheckerFactory fileTypeCheckerFactory;
+    private final FileStorageService fileStorageService;
 
     @Operation(summary = "上传文件", description = "上传文件到指定目录")
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public Result<String> uploadFile(
             @Parameter(description = "要上传的文件", required = true)
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "文件的 SHA-256（十六进制），用于查找已存在的相同文件")
+            @RequestParam(value = "sha256", required = false) String sha256) {
         try {
             // 检查文件是否为空
             if (file.isEmpty()) {
@@ -49,46 +50,54 @@ public class FileController {
                 return Result.error("文件大小超过限制");
             }
 
-            // 获取文件扩展名
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null || originalFilename.isEmpty()) {
-                return Result.error("文件名不能为空");
-            }
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase();
-
-            // 检查文件类型
-            if (!fileTypeCheckerFactory.isSupported(fileExtension)) {
-                return Result.error("不支持的文件类型");
-            }
-
-            // 获取对应的文件类型检查器
-            FileTypeChecker checker = fileTypeCheckerFactory.getChecker(fileExtension);
-            if (!checker.check(file.getInputStream(), fileExtension)) {
-                return Result.error("文件类型与扩展名不匹配");
-            }
-
-            // 确保上传目录存在
-            Path uploadPath = Paths.get(fileUploadConfig.getUploadDir());
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+            // 校验并保存文件
+            return Result.success(fileStorageService.store(file.getInputStream(), file.getOriginalFilename(),
+                    file.getSize(), sha256));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (IOException e) {
+            log.error("文件上传失败", e);
+            return Result.error("文件上传失败：" + e.getMessage());
+        }
+    }
 
-            // 检查目录权限
-            if (!Files.isWritable(uploadPath)) {
-                return Result.error("上传目录没有写入权限");
+    @Operation(summary = "流式上传文件", description = "请求体即文件内容，边接收边校验并写入上传目录，不经过 multipart 临时文件")
+    @PostMapping(value = "/upload/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Result<String> uploadFileStream(
+            @Parameter(description = "原始文件名，用于确定文件类型", required = true)
+            @RequestParam("filename") String filename,
+            @Parameter(description = "文件的 SHA-256（十六进制），用于查找已存在的相同文件")
+            @RequestParam(value = "sha256", required = false) String sha256,
+            HttpServletRequest request) {
+        try {
+            // 请求声明了长度时提前检查文件大小
+            if (request.getContentLengthLong() > fileUploadConfig.getMaxFileSize() * 1024 * 1024) {
+                return Result.error("文件大小超过限制");
             }
 
-            // 生成唯一文件名
-            String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
-            Path filePath = uploadPath.resolve(uniqueFilename);
-
-            // 保存文件
-            Files.copy(file.getInputStream(), filePath);
-
-            return Result.success(uniqueFilename);
+            // 校验并保存文件
+            return Result.success(fileStorageService.store(request.getInputStream(), filename,
+                    request.getContentLengthLong(), sha256));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
         } catch (IOException e) {
             log.error("文件上传失败", e);
             return Result.error("文件上传失败：" + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "删除文件", description = "释放已上传的文件，相同内容的文件在所有上传都释放后才会被删除，打印任务使用中的文件不会被删除")
+    @DeleteMapping("/{fileId}")
+    public Result<Boolean> deleteFile(
+            @Parameter(description = "文件ID", required = true)
+            @PathVariable String fileId) {
+        try {
+            return Result.success(fileStorageService.release(fileId));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (IOException e) {
+            log.error("文件删除失败", e);
+            return Result.error("文件删除失败：" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package online.fantao.tools.printservice.controller;
+
+import java.util.List;
+
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.bo.PrintJobBO;
+import online.fantao.tools.printservice.common.Result;
+import online.fantao.tools.printservice.service.PrintJobService;
+import online.fantao.tools.printservice.vo.PrintJobVO;
+import online.fantao.tools.printservice.vo.PrintQueueStatsVO;
+
+/**
+ * 打印任务控制器
+ * 提供打印任务提交和状态查询接口
+ */
+@Tag(name = "打印任务", description = "打印任务相关的接口")
+@RestController
+@RequestMapping("/api/print/jobs")
+@Validated
+@RequiredArgsConstructor
+public class PrintJobController {
+
+    private final PrintJobService printJobService;
+
+    /**
+     * 提交打印任务
+     * @param printJob 打印任务信息
+     * @param request 请求，未指定提交者时使用客户端地址
+     * @return 打印任务
+     */
+    @Operation(summary = "提交打印任务", description = "将已上传的文件提交到指定打印机或打印机池，打印机队列已满时返回429；"
+            + "同一打印机的任务按优先级调度，同一优先级内小任务优先，并按提交者公平排队")
+    @PostMapping
+    public Result<PrintJobVO> submitJob(@Validated @RequestBody PrintJobBO printJob, HttpServletRequest request) {
+        if (!StringUtils.hasText(printJob.getOwner())) {
+            printJob.setOwner(request.getRemoteAddr());
+        }
+        return Result.success(printJobService.submitJob(printJob));
+    }
+
+    /**
+     * 获取打印队列统计
+     * @param printerId 打印机ID
+     * @return 队列统计
+     */
+    @Operation(summary = "获取打印队列统计", description = "按打印机、优先级和通道（fast 小任务快速通道、normal 普通通道）统计排队任务数和排队时间")
+    @GetMapping("/stats")
+    public Result<List<PrintQueueStatsVO>> getQueueStats(
+            @Parameter(description = "打印机ID")
+            @RequestParam(required = false) Long printerId) {
+        return Result.success(printJobService.getQueueStats(printerId));
+    }
+
+    /**
+     * 获取打印任务
+     * @param jobId 任务ID
+     * @return 打印任务
+     */
+    @Operation(summary = "获取打印任务", description = "获取打印任务的状态和进度")
+    @GetMapping("/{jobId}")
+    public Result<PrintJobVO> getJob(
+            @Parameter(description = "任务ID", required = true)
+            @PathVariable String jobId) {
+        return Result.success(printJobService.getJob(jobId));
+    }
+
+    /**
+     * 获取打印任务列表
+     * @param printerId 打印机ID
+     * @return 打印任务列表
+     */
+    @Operation(summary = "获取打印任务列表", description = "获取打印任务列表，可按打印机过滤")
+    @GetMapping
+    public Result<List<PrintJobVO>> listJobs(
+            @Parameter(description = "打印机ID")
+            @RequestParam(required = false) Long printerId) {
+        return Result.success(printJobService.listJobs(printerId));
+    }
+
+    /**
+     * 取消打印任务
+     * @param jobId 任务ID
+     * @return 取消结果
+     */
+    @Operation(summary = "取消打印任务", description = "取消排队中的打印任务")
+    @DeleteMapping("/{jobId}")
+    public Result<Boolean> cancelJob(
+            @Parameter(description = "任务ID", required = true)
+            @PathVariable String jobId) {
+        return Result.success(printJobService.cancelJob(jobId));
+    }
+}
@@ -2,6 +2,7 @@ package online.fantao.tools.printservice.controller;
 
 import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,18 +10,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import online.fantao.tools.printservice.bo.PrinterBO;
+import online.fantao.tools.printservice.bo.PrinterQueryBO;
 import online.fantao.tools.printservice.common.Result;
+import online.fantao.tools.printservice.service.PrinterEventService;
+import online.fantao.tools.printservice.service.PrinterScanJobService;
 import online.fantao.tools.printservice.service.PrinterService;
+import online.fantao.tools.printservice.service.PrinterSnmpService;
+import online.fantao.tools.printservice.vo.PrinterPageVO;
+import online.fantao.tools.printservice.vo.PrinterSnmpVO;
 import online.fantao.tools.printservice.vo.PrinterVO;
+import online.fantao.tools.printservice.vo.ScanJobVO;
 
 /**
  * 打印机管理控制器
@@ -34,6 +45,9 @@ import online.fantao.tools.printservice.vo.PrinterVO;
 public class PrinterController {
 
     private final PrinterService printerService;
+    private final PrinterScanJobService printerScanJobService;
+    private final PrinterSnmpService printerSnmpService;
+    private final PrinterEventService printerEventService;
 
     /**
      * 添加打印机
@@ -79,7 +93,11 @@ public class PrinterController {
     @GetMapping("/{id}")
     public Result<PrinterVO> getPrinterDetail(
             @Parameter(description = "打印机ID", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
+        if (request.checkNotModified(versionTag())) {
+            return null;
+        }
         return Result.success(printerService.getPrinterDetail(id));
     }
 
@@ -89,10 +107,45 @@ public class PrinterController {
      */
     @Operation(summary = "获取打印机列表", description = "获取所有打印机列表")
     @GetMapping("/list")
-    public Result<List<PrinterVO>> getPrinterList() {
+    public Result<List<PrinterVO>> getPrinterList(WebRequest request) {
+        if (request.checkNotModified(versionTag())) {
+            return null;
+        }
         return Result.success(printerService.getPrinterList());
     }
 
+    /**
+     * 分页查询打印机
+     * @param query 查询条件
+     * @return 打印机分页结果
+     */
+    @Operation(summary = "分页查询打印机", description = "按ID游标分页查询打印机，支持按状态、型号、IP前缀过滤，"
+            + "fields 指定返回的字段（逗号分隔），翻页时将 nextCursor 作为 cursor 传入")
+    @GetMapping("/page")
+    public Result<PrinterPageVO> getPrinterPage(@Validated PrinterQueryBO query, WebRequest request) {
+        if (request.checkNotModified(versionTag())) {
+            return null;
+        }
+        return Result.success(printerService.getPrinterPage(query));
+    }
+
+    /**
+     * 订阅打印机状态变更
+     * @param since 最后收到的事件序号
+     * @param lastEventId 浏览器重连时自动携带的最后事件序号
+     * @return SSE 发送器
+     */
+    @Operation(summary = "订阅打印机状态", description = "通过 SSE 推送打印机状态：先推送全部打印机（snapshot），之后推送新增或修改（upsert）、状态变化（status）和删除（removed）事件，"
+            + "断线后携带最后的事件序号可继续接收")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeStatus(
+            @Parameter(description = "最后收到的事件序号")
+            @RequestParam(required = false) Long since,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return printerEventService.subscribe(since != null ? since : lastEventId);
+    }
+
     /**
      * 更新打印机状态
      * @param id 打印机ID
@@ -109,9 +162,65 @@ public class PrinterController {
         return Result.success(printerService.updatePrinterStatus(id, status));
     }
 
-    @Operation(summary = "扫描在线设备", description = "扫描在线设备")
+    /**
+     * 获取打印机 SNMP 状态
+     * @param id 打印机ID
+     * @return 最近一次轮询结果
+     */
+    @Operation(summary = "获取打印机SNMP状态", description = "获取最近一次 SNMP 轮询得到的设备状态、耗材、纸盒和计数器")
+    @GetMapping("/{id}/snmp")
+    public Result<PrinterSnmpVO> getSnmpStatus(
+            @Parameter(description = "打印机ID", required = true)
+            @PathVariable Long id) {
+        return Result.success(printerSnmpService.getSnapshot(id));
+    }
+
+    /**
+     * 获取所有打印机 SNMP 状态
+     * @return 最近一次轮询结果列表
+     */
+    @Operation(summary = "获取所有打印机SNMP状态", description = "获取所有已登记打印机最近一次 SNMP 轮询结果")
+    @GetMapping("/snmp")
+    public Result<List<PrinterSnmpVO>> listSnmpStatus() {
+        return Result.success(printerSnmpService.listSnapshots());
+    }
+
+    @Operation(summary = "扫描在线设备", description = "扫描在线设备，默认返回缓存的扫描结果")
     @GetMapping("/scan")
-    public Result<List<PrinterVO>> getSystemPrinters() {
-        return Result.success(printerService.getSystemPrinters());
+    public Result<List<PrinterVO>> getSystemPrinters(
+            @Parameter(description = "是否强制重新扫描")
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return Result.success(printerService.getSystemPrinters(refresh));
+    }
+
+    @Operation(summary = "创建扫描任务", description = "在后台扫描在线设备，立即返回任务ID")
+    @PostMapping("/scan/jobs")
+    public Result<ScanJobVO> createScanJob() {
+        return Result.success(printerScanJobService.createJob());
+    }
+
+    @Operation(summary = "获取扫描任务", description = "获取扫描任务的状态和进度")
+    @GetMapping("/scan/jobs/{jobId}")
+    public Result<ScanJobVO> getScanJob(
+            @Parameter(description = "任务ID", required = true)
+            @PathVariable String jobId) {
+        return Result.success(printerScanJobService.getJob(jobId));
+    }
+
+    @Operation(summary = "订阅扫描事件", description = "通过 SSE 实时推送发现的打印机（printer）、探测进度（progress）和任务结束（complete）事件")
+    @GetMapping(value = "/scan/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeScanJob(
+            @Parameter(description = "任务ID", required = true)
+            @PathVariable String jobId) {
+        return printerScanJobService.subscribe(jobId);
+    }
+
+    /**
+     * 根据打印机数据版本生成 ETag
+     * 必须在查询数据之前读取版本，查询期间发生的变化会使下一次请求的版本不同；
+     * 使用弱 ETag，启用压缩后不同编码的响应仍可以互相匹配
+     */
+    private String versionTag() {
+        return "W/\"" + printerService.getPrinterVersion() + "\"";
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package online.fantao.tools.printservice.controller;
+
+import java.util.List;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.bo.PrinterPoolBO;
+import online.fantao.tools.printservice.common.Result;
+import online.fantao.tools.printservice.service.PrintJobService;
+import online.fantao.tools.printservice.service.PrinterPoolService;
+import online.fantao.tools.printservice.vo.PrinterLoadVO;
+import online.fantao.tools.printservice.vo.PrinterPoolVO;
+
+/**
+ * 打印机池控制器
+ * 提供打印机池管理和负载查询接口
+ */
+@Tag(name = "打印机池", description = "打印机池相关的接口")
+@RestController
+@RequestMapping("/api/printer/pools")
+@Validated
+@RequiredArgsConstructor
+public class PrinterPoolController {
+
+    private final PrinterPoolService printerPoolService;
+    private final PrintJobService printJobService;
+
+    /**
+     * 创建打印机池
+     * @param pool 打印机池信息
+     * @return 打印机池
+     */
+    @Operation(summary = "创建打印机池", description = "创建一组可以互相替代的打印机，打印任务可以提交到打印机池")
+    @PostMapping
+    public Result<PrinterPoolVO> addPool(@Validated @RequestBody PrinterPoolBO pool) {
+        return Result.success(printerPoolService.addPool(pool));
+    }
+
+    /**
+     * 更新打印机池
+     * @param pool 打印机池信息
+     * @return 打印机池
+     */
+    @Operation(summary = "更新打印机池", description = "更新打印机池名称、描述和成员，成员列表整体替换")
+    @PutMapping
+    public Result<PrinterPoolVO> updatePool(@Validated @RequestBody PrinterPoolBO pool) {
+        return Result.success(printerPoolService.updatePool(pool));
+    }
+
+    /**
+     * 删除打印机池
+     * @param id 打印机池ID
+     * @return 删除结果
+     */
+    @Operation(summary = "删除打印机池", description = "删除打印机池，已分配的任务继续在原打印机上打印")
+    @DeleteMapping("/{id}")
+    public Result<Boolean> deletePool(
+            @Parameter(description = "打印机池ID", required = true)
+            @PathVariable Long id) {
+        return Result.success(printerPoolService.deletePool(id));
+    }
+
+    /**
+     * 获取打印机池详情
+     * @param id 打印机池ID
+     * @return 打印机池详情
+     */
+    @Operation(summary = "获取打印机池详情", description = "获取打印机池及成员打印机的当前状态")
+    @GetMapping("/{id}")
+    public Result<PrinterPoolVO> getPool(
+            @Parameter(description = "打印机池ID", required = true)
+            @PathVariable Long id) {
+        return Result.success(printerPoolService.getPool(id));
+    }
+
+    /**
+     * 获取打印机池列表
+     * @return 打印机池列表
+     */
+    @Operation(summary = "获取打印机池列表", description = "获取所有打印机池")
+    @GetMapping
+    public Result<List<PrinterPoolVO>> listPools() {
+        return Result.success(printerPoolService.listPools());
+    }
+
+    /**
+     * 获取打印机池负载
+     * @param id 打印机池ID
+     * @return 成员打印机的负载
+     */
+    @Operation(summary = "获取打印机池负载", description = "获取成员打印机的排队任务数、待发送字节数、实测发送速率和预计完成时间")
+    @GetMapping("/{id}/load")
+    public Result<List<PrinterLoadVO>> getPoolLoad(
+            @Parameter(description = "打印机池ID", required = true)
+            @PathVariable Long id) {
+        return Result.success(printJobService.getPoolLoad(id));
+    }
+}
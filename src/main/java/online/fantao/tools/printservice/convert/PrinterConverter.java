@@ -0,0 +1,122 @@
+package online.fantao.tools.printservice.convert;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.mapstruct.IterableMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+
+import online.fantao.tools.printservice.bo.PrinterBO;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.vo.PrinterPageRecordVO;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 打印机对象转换器
+ * 转换代码由 MapStruct 在编译期生成，直接调用 getter/setter，不经过反射
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public abstract class PrinterConverter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 最近一次格式化的时间文本
+     * 状态批量写入时同一批打印机的最后在线时间相同，列表中相邻的行大多可以直接复用
+     */
+    private static volatile FormattedTime lastFormatted;
+
+    /**
+     * 将BO对象转换为实体对象
+     */
+    public abstract Printer toEntity(PrinterBO bo);
+
+    /**
+     * 将实体对象转换为VO对象
+     */
+    @Mapping(target = "statusText", source = "status", qualifiedByName = "statusText")
+    @Mapping(target = "lastOnlineTimeText", source = "lastOnlineTime", qualifiedByName = "dateTimeText")
+    @Mapping(target = "isDefault", ignore = true)
+    @Mapping(target = "attributes", ignore = true)
+    public abstract PrinterVO toVO(Printer entity);
+
+    /**
+     * 将实体列表转换为VO列表
+     */
+    public abstract List<PrinterVO> toVOList(List<Printer> entities);
+
+    /**
+     * 将实体对象转换为分页查询返回的VO对象
+     */
+    @Mapping(target = "statusText", source = "status", qualifiedByName = "statusText")
+    @Mapping(target = "lastOnlineTimeText", source = "lastOnlineTime", qualifiedByName = "dateTimeText")
+    @Mapping(target = "isDefault", ignore = true)
+    @Mapping(target = "attributes", ignore = true)
+    @Named("pageRecord")
+    public abstract PrinterPageRecordVO toPageRecord(Printer entity);
+
+    /**
+     * 将实体列表转换为分页查询返回的VO列表
+     */
+    @IterableMapping(qualifiedByName = "pageRecord")
+    public abstract List<PrinterPageRecordVO> toPageRecordList(List<Printer> entities);
+
+    /**
+     * 转换状态文本
+     *
+     * @param status 状态代码
+     * @return 状态文本
+     */
+    @Named("statusText")
+    public static String statusText(String status) {
+        if (status == null) {
+            return "未知";
+        }
+        switch (status) {
+            case "ONLINE":
+                return "在线";
+            case "OFFLINE":
+                return "离线";
+            case "ERROR":
+                return "错误";
+            default:
+                return "未知";
+        }
+    }
+
+    /**
+     * 格式化时间，精确到秒
+     *
+     * @param time 时间
+     * @return 时间文本，时间为空时返回 null
+     */
+    @Named("dateTimeText")
+    public static String dateTimeText(LocalDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        FormattedTime formatted = lastFormatted;
+        if (formatted != null && formatted.epochSecond == epochSecond) {
+            return formatted.text;
+        }
+        String text = time.format(DATE_TIME_FORMATTER);
+        lastFormatted = new FormattedTime(epochSecond, text);
+        return text;
+    }
+
+    private static final class FormattedTime {
+        private final long epochSecond;
+        private final String text;
+
+        private FormattedTime(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
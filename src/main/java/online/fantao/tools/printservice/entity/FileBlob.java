@@ -0,0 +1,30 @@
+package online.fantao.tools.printservice.entity;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+@Data
+@TableName("file_blob")
+public class FileBlob {
+    @TableId("id")
+    private Long id;
+    @TableField("file_id")
+    private String fileId;
+    @TableField("hash")
+    private String hash;
+    @TableField("extension")
+    private String extension;
+    @TableField("size")
+    private Long size;
+    @TableField("ref_count")
+    private Integer refCount;
+    @TableField("create_time")
+    private LocalDateTime createTime;
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
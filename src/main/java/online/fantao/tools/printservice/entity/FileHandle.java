@@ -0,0 +1,24 @@
+package online.fantao.tools.printservice.entity;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+@Data
+@TableName("file_handle")
+public class FileHandle {
+    @TableId("id")
+    private Long id;
+    @TableField("handle")
+    private String handle;
+    @TableField("file_id")
+    private String fileId;
+    @TableField("create_time")
+    private LocalDateTime createTime;
+    @TableField("deleted")
+    private Boolean deleted;
+}
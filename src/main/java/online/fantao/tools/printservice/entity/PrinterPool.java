@@ -0,0 +1,24 @@
+package online.fantao.tools.printservice.entity;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+@Data
+@TableName("printer_pool")
+public class PrinterPool {
+    @TableId("id")
+    private Long id;
+    @TableField("name")
+    private String name;
+    @TableField("description")
+    private String description;
+    @TableField("create_time")
+    private LocalDateTime createTime;
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
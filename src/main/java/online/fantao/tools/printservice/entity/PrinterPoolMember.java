@@ -0,0 +1,22 @@
+package online.fantao.tools.printservice.entity;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.Data;
+
+@Data
+@TableName("printer_pool_member")
+public class PrinterPoolMember {
+    @TableId("id")
+    private Long id;
+    @TableField("pool_id")
+    private Long poolId;
+    @TableField("printer_id")
+    private Long printerId;
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,17 @@
+package online.fantao.tools.printservice.event;
+
+import lombok.Getter;
+
+/**
+ * 打印机变更事件
+ * 新增、修改或删除打印机时在事务内发布，需要在提交后处理的订阅方使用 TransactionalEventListener
+ */
+@Getter
+public class PrinterChangedEvent {
+
+    private final Long printerId;
+
+    public PrinterChangedEvent(Long printerId) {
+        this.printerId = printerId;
+    }
+}
@@ -0,0 +1,45 @@
+package online.fantao.tools.printservice.event;
+
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+
+/**
+ * 打印机状态变更事件
+ * 状态更新或删除打印机时发布，订阅方自行判断是否与上一次的状态相同
+ */
+@Getter
+public class PrinterStatusChangedEvent {
+
+    private final Long printerId;
+    private final String status;
+    private final LocalDateTime lastOnlineTime;
+    private final boolean removed;
+
+    private PrinterStatusChangedEvent(Long printerId, String status, LocalDateTime lastOnlineTime, boolean removed) {
+        this.printerId = printerId;
+        this.status = status;
+        this.lastOnlineTime = lastOnlineTime;
+        this.removed = removed;
+    }
+
+    /**
+     * 状态更新事件
+     * @param printerId 打印机ID
+     * @param status 状态
+     * @param lastOnlineTime 最后在线时间，未变化时为 null
+     * @return 事件
+     */
+    public static PrinterStatusChangedEvent updated(Long printerId, String status, LocalDateTime lastOnlineTime) {
+        return new PrinterStatusChangedEvent(printerId, status, lastOnlineTime, false);
+    }
+
+    /**
+     * 打印机删除事件
+     * @param printerId 打印机ID
+     * @return 事件
+     */
+    public static PrinterStatusChangedEvent removed(Long printerId) {
+        return new PrinterStatusChangedEvent(printerId, null, null, true);
+    }
+}
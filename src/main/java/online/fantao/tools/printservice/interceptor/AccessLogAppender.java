@@ -0,0 +1,143 @@
+package online.fantao.tools.printservice.interceptor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.config.AccessLogConfig;
+
+/**
+ * 访问日志写入器
+ * 请求线程只把事件放入有界缓冲区，由后台线程批量格式化并输出；缓冲区满时丢弃事件并计数，不阻塞请求
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessLogAppender {
+
+    private static final Logger logger = LoggerFactory.getLogger("ACCESS_LOG");
+
+    /**
+     * 每批最多处理的事件数
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    private final AccessLogConfig accessLogConfig;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private BlockingQueue<AccessLogEvent> buffer;
+    private Thread thread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(Math.max(1, accessLogConfig.getBufferSize()));
+        running = true;
+        thread = new Thread(this::run, "access-log-appender");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 提交访问日志事件
+     *
+     * @param event 事件
+     */
+    void append(AccessLogEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        List<AccessLogEvent> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AccessLogEvent first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    buffer.drainTo(batch);
+                }
+            }
+            for (AccessLogEvent event : batch) {
+                line.setLength(0);
+                write(format(line, event), event);
+            }
+            batch.clear();
+
+            long droppedCount = dropped.getAndSet(0);
+            if (droppedCount > 0) {
+                logger.warn("访问日志缓冲区已满，丢弃 {} 条", droppedCount);
+            }
+        }
+    }
+
+    private void write(StringBuilder line, AccessLogEvent event) {
+        if (event.status >= 500) {
+            logger.error(line.toString());
+        } else if (event.status >= 400) {
+            logger.warn(line.toString());
+        } else {
+            logger.info(line.toString());
+        }
+    }
+
+    /**
+     * 格式化为 key=value 形式的单行日志
+     */
+    private StringBuilder format(StringBuilder line, AccessLogEvent event) {
+        line.append("time=").append(Instant.ofEpochMilli(event.timestamp))
+                .append(" method=").append(event.method)
+                .append(" uri=").append(event.uri);
+        if (event.query != null) {
+            line.append(" query=").append(event.query);
+        }
+        line.append(" status=").append(event.async ? "async" : String.valueOf(event.status))
+                .append(" durationMs=").append(event.durationNanos / 1000 / 1000.0)
+                .append(" remote=").append(event.remoteAddress);
+        if (event.error != null) {
+            line.append(" error=\"").append(event.error).append('"');
+        }
+        if (event.headers != null) {
+            line.append(" headers={");
+            boolean first = true;
+            for (Map.Entry<String, String> header : event.headers.entrySet()) {
+                if (!first) {
+                    line.append(", ");
+                }
+                line.append(header.getKey()).append(": ").append(header.getValue());
+                first = false;
+            }
+            line.append('}');
+        }
+        if (event.requestBody != null) {
+            line.append(" body=").append(event.requestBody);
+        }
+        return line;
+    }
+}
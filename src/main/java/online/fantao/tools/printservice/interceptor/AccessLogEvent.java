@@ -0,0 +1,21 @@
+package online.fantao.tools.printservice.interceptor;
+
+import java.util.Map;
+
+/**
+ * 访问日志事件
+ * 在请求线程中只记录原始数据，格式化由后台线程完成
+ */
+final class AccessLogEvent {
+    long timestamp;
+    String method;
+    String uri;
+    String query;
+    int status;
+    long durationNanos;
+    String remoteAddress;
+    boolean async;
+    Map<String, String> headers;
+    String requestBody;
+    String error;
+}
@@ -0,0 +1,152 @@
+package online.fantao.tools.printservice.interceptor;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import online.fantao.tools.printservice.config.AccessLogConfig;
+
+/**
+ * 访问日志过滤器
+ * 每个请求只记录方法、路径、状态和耗时；请求头和请求体只在被采样或请求出错时记录，
+ * 请求体只缓存文本类型且不超过长度上限，上传文件（multipart、二进制流）从不缓存
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final String REDACTED = "***";
+
+    private final AccessLogConfig accessLogConfig;
+    private final AccessLogAppender accessLogAppender;
+    private final Set<String> redactedHeaders;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public AccessLogFilter(AccessLogConfig accessLogConfig, AccessLogAppender accessLogAppender) {
+        this.accessLogConfig = accessLogConfig;
+        this.accessLogAppender = accessLogAppender;
+        this.redactedHeaders = accessLogConfig.getRedactedHeaders().stream()
+                .map(header -> header.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(accessLogConfig.getEnabled())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        for (String pattern : accessLogConfig.getExcludePaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long timestamp = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < accessLogConfig.getSampleRate();
+        HttpServletRequest requestToUse = isTextBody(request)
+                ? new ContentCachingRequestWrapper(request, accessLogConfig.getMaxBodyLength())
+                : request;
+
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(requestToUse, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (failure == null && request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE) instanceof Throwable handled) {
+                failure = handled;
+            }
+            AccessLogEvent event = new AccessLogEvent();
+            event.timestamp = timestamp;
+            event.method = request.getMethod();
+            event.uri = request.getRequestURI();
+            event.query = request.getQueryString();
+            event.remoteAddress = request.getRemoteAddr();
+            event.async = isAsyncStarted(requestToUse);
+            event.status = failure != null && response.getStatus() < 400
+                    ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            event.durationNanos = System.nanoTime() - startTime;
+            if (failure != null) {
+                event.error = String.valueOf(failure.getMessage());
+            }
+            if (sampled || failure != null || event.status >= 400) {
+                event.headers = captureHeaders(request);
+                event.requestBody = captureBody(requestToUse);
+            }
+            accessLogAppender.append(event);
+        }
+    }
+
+    /**
+     * 只缓存 JSON、XML、文本和表单请求体
+     */
+    private boolean isTextBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return "text".equals(mediaType.getType())
+                    || mediaType.isCompatibleWith(MediaType.APPLICATION_FORM_URLENCODED)
+                    || mediaType.getSubtype().endsWith("json")
+                    || mediaType.getSubtype().endsWith("xml");
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Map<String, String> captureHeaders(HttpServletRequest request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            headers.put(name, redactedHeaders.contains(name.toLowerCase(Locale.ROOT)) ? REDACTED : request.getHeader(name));
+        }
+        return headers;
+    }
+
+    private String captureBody(HttpServletRequest request) {
+        if (!(request instanceof ContentCachingRequestWrapper wrapper)) {
+            return null;
+        }
+        byte[] content = wrapper.getContentAsByteArray();
+        if (content.length == 0) {
+            return null;
+        }
+        Charset charset = StandardCharsets.UTF_8;
+        if (request.getCharacterEncoding() != null) {
+            try {
+                charset = Charset.forName(request.getCharacterEncoding());
+            } catch (RuntimeException ignored) {
+                // 使用默认编码
+            }
+        }
+        String body = new String(content, charset);
+        return request.getContentLengthLong() > content.length ? body + "...(truncated)" : body;
+    }
+}
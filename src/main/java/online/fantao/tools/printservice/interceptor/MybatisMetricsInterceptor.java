@@ -0,0 +1,49 @@
+package online.fantao.tools.printservice.interceptor;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mapper 执行耗时统计
+ * 按 Mapper 方法记录 db.query 计时器，标签为语句 ID 和操作类型，语句数量固定，不会产生过多标签
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class MybatisMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return invocation.proceed();
+        } finally {
+            sample.stop(meterRegistry.timer("db.query",
+                    "statement", statement.getId(),
+                    "command", statement.getSqlCommandType().name().toLowerCase()));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package online.fantao.tools.printservice.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import online.fantao.tools.printservice.entity.FileBlob;
+
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 调整文件引用计数，引用计数不会小于0
+     * @param fileId 文件ID
+     * @param delta 变化量
+     * @return 影响行数
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count + #{delta}, update_time = CURRENT_TIMESTAMP WHERE file_id = #{fileId} AND ref_count + #{delta} >= 0")
+    int addRefCount(@Param("fileId") String fileId, @Param("delta") int delta);
+
+    /**
+     * 查询引用计数已归零且超过保留时间的文件
+     * @param graceSeconds 保留时间（秒）
+     * @return 可回收的文件列表
+     */
+    @Select("SELECT * FROM file_blob WHERE ref_count <= 0 AND update_time < datetime('now', '-' || #{graceSeconds} || ' seconds')")
+    List<FileBlob> selectCollectable(@Param("graceSeconds") long graceSeconds);
+
+    /**
+     * 删除引用计数已归零的文件记录
+     * @param fileId 文件ID
+     * @return 影响行数
+     */
+    @Delete("DELETE FROM file_blob WHERE file_id = #{fileId} AND ref_count <= 0")
+    int deleteUnreferenced(@Param("fileId") String fileId);
+}
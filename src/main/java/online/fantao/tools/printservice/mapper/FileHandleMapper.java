@@ -0,0 +1,18 @@
+package online.fantao.tools.printservice.mapper;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import online.fantao.tools.printservice.entity.FileHandle;
+
+public interface FileHandleMapper extends BaseMapper<FileHandle> {
+
+    /**
+     * 标记句柄已释放，同一句柄只会成功一次
+     * @param handle 句柄
+     * @return 影响行数
+     */
+    @Update("UPDATE file_handle SET deleted = 1 WHERE handle = #{handle} AND deleted = 0")
+    int release(@Param("handle") String handle);
+}
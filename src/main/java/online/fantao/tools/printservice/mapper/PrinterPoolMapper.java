@@ -0,0 +1,8 @@
+package online.fantao.tools.printservice.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import online.fantao.tools.printservice.entity.PrinterPool;
+
+public interface PrinterPoolMapper extends BaseMapper<PrinterPool> {
+
+}
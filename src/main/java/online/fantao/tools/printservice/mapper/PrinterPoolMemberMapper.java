@@ -0,0 +1,28 @@
+package online.fantao.tools.printservice.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import online.fantao.tools.printservice.entity.PrinterPoolMember;
+
+public interface PrinterPoolMemberMapper extends BaseMapper<PrinterPoolMember> {
+
+    /**
+     * 查询打印机池的成员打印机ID，按加入顺序排列
+     * @param poolId 打印机池ID
+     * @return 打印机ID列表
+     */
+    @Select("SELECT printer_id FROM printer_pool_member WHERE pool_id = #{poolId} ORDER BY id")
+    List<Long> selectPrinterIds(@Param("poolId") Long poolId);
+
+    /**
+     * 查询打印机所属的打印机池ID
+     * @param printerId 打印机ID
+     * @return 打印机池ID列表
+     */
+    @Select("SELECT pool_id FROM printer_pool_member WHERE printer_id = #{printerId}")
+    List<Long> selectPoolIds(@Param("printerId") Long printerId);
+}
@@ -0,0 +1,53 @@
+package online.fantao.tools.printservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import online.fantao.tools.printservice.bo.UploadSessionBO;
+import online.fantao.tools.printservice.vo.UploadSessionVO;
+
+/**
+ * 分片上传服务接口
+ * 支持断点续传：分片可以乱序、重复上传，客户端可查询已接收的区间后只补传缺失部分
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * 创建上传会话
+     * @param uploadSessionBO 会话信息
+     * @return 上传会话
+     */
+    UploadSessionVO initiate(UploadSessionBO uploadSessionBO);
+
+    /**
+     * 写入分片
+     * 包含文件起始位置的分片会校验文件头
+     * @param uploadId 会话ID
+     * @param offset 分片在文件中的偏移量
+     * @param inputStream 分片内容
+     * @return 上传会话
+     */
+    UploadSessionVO writeChunk(String uploadId, long offset, InputStream inputStream) throws IOException;
+
+    /**
+     * 获取上传会话
+     * @param uploadId 会话ID
+     * @return 上传会话，包含已接收的区间
+     */
+    UploadSessionVO getSession(String uploadId);
+
+    /**
+     * 完成上传
+     * 所有区间都已接收时保存文件并返回文件ID
+     * @param uploadId 会话ID
+     * @return 上传会话
+     */
+    UploadSessionVO complete(String uploadId) throws IOException;
+
+    /**
+     * 放弃上传，删除已接收的数据
+     * @param uploadId 会话ID
+     * @return 是否删除成功
+     */
+    boolean abort(String uploadId) throws IOException;
+}
@@ -0,0 +1,30 @@
+package online.fantao.tools.printservice.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 文档转换器
+ * 将上传的文件渲染为打印机可以直接接收的格式；注册为 Spring Bean 的实现会自动加入渲染流程
+ */
+public interface DocumentConverter {
+
+    /**
+     * 检查是否支持转换
+     * @param sourceType 源文件扩展名（小写）
+     * @param format 目标格式
+     * @return 是否支持
+     */
+    boolean supports(String sourceType, String format);
+
+    /**
+     * 转换文件
+     * 实现只需写入目标文件，失败时调用方负责删除不完整的输出
+     * @param source 源文件
+     * @param sourceType 源文件扩展名（小写）
+     * @param options 渲染参数
+     * @param target 目标文件
+     * @throws IOException 读写或转换失败
+     */
+    void convert(Path source, String sourceType, RenderOptions options, Path target) throws IOException;
+}
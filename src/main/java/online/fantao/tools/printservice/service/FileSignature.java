@@ -0,0 +1,64 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 文件签名
+ * 描述一种文件格式的魔数以及使用该格式的扩展名
+ */
+public final class FileSignature {
+
+    private final String type;
+    private final byte[] magic;
+    private final Set<String> extensions;
+
+    public FileSignature(String type, byte[] magic, String... extensions) {
+        this.type = type;
+        this.magic = magic.clone();
+        this.extensions = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(extensions)));
+    }
+
+    /**
+     * 获取格式名称
+     * @return 格式名称，如 pdf、zip、ole2
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * 获取魔数
+     * @return 魔数副本
+     */
+    public byte[] getMagic() {
+        return magic.clone();
+    }
+
+    int length() {
+        return magic.length;
+    }
+
+    byte byteAt(int index) {
+        return magic[index];
+    }
+
+    /**
+     * 获取使用该格式的扩展名
+     * @return 扩展名集合（小写）
+     */
+    public Set<String> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * 检查扩展名是否使用该格式
+     * @param extension 小写扩展名
+     * @return 是否匹配
+     */
+    public boolean accepts(String extension) {
+        return extensions.contains(extension);
+    }
+}
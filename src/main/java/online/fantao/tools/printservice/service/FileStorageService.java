@@ -0,0 +1,71 @@
+package online.fantao.tools.printservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * 文件存储服务接口
+ * 负责上传文件的校验和落盘
+ */
+public interface FileStorageService {
+
+    /**
+     * 保存上传文件
+     * 输入流只读取一次：先校验文件头，再边读取边写入上传目录，超过大小限制时立即中止
+     * @param inputStream 文件内容
+     * @param originalFilename 原始文件名
+     * @return 文件ID
+     */
+    String store(InputStream inputStream, String originalFilename) throws IOException;
+
+    /**
+     * 保存上传文件
+     * content 模式下，如果已有大小相同（或哈希与 sha256 相同）的文件，先与其逐块比较，内容完全相同时直接复用，不写入磁盘；
+     * 每次上传都返回新的句柄作为文件ID，内容相同的上传共用同一个文件
+     * @param inputStream 文件内容
+     * @param originalFilename 原始文件名
+     * @param size 客户端声明的文件大小，未知时传 -1
+     * @param sha256 客户端声明的 SHA-256（十六进制），未知时传 null，只用于查找候选文件，不作为比较结果
+     * @return 文件ID
+     */
+    String store(InputStream inputStream, String originalFilename, long size, String sha256) throws IOException;
+
+    /**
+     * 保存已完整写入并校验过的文件
+     * 文件需与上传目录位于同一文件系统，调用后原文件会被移动或删除
+     * @param file 文件路径
+     * @param fileExtension 文件扩展名
+     * @return 文件ID
+     */
+    String storeFile(Path file, String fileExtension) throws IOException;
+
+    /**
+     * 根据文件ID获取上传目录中的文件
+     * @param fileId 文件ID
+     * @return 文件路径
+     */
+    Path resolve(String fileId);
+
+    /**
+     * 释放文件
+     * 按内容去重存储的文件按句柄减少一次引用，同一句柄重复释放时返回 false，引用归零后由垃圾回收删除；
+     * 其他文件直接删除，打印任务仍持有时拒绝删除
+     * @param fileId 文件ID
+     * @return 是否释放成功
+     */
+    boolean release(String fileId) throws IOException;
+
+    /**
+     * 为打印任务持有文件，任务结束前文件不会被删除或垃圾回收
+     * 引用只保存在内存中，重启后恢复的任务需要重新持有
+     * @param fileId 文件ID
+     */
+    void addReference(String fileId);
+
+    /**
+     * 释放打印任务持有的文件引用，与 addReference 成对调用
+     * @param fileId 文件ID
+     */
+    void removeReference(String fileId);
+}
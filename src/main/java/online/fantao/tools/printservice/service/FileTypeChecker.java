@@ -2,6 +2,7 @@ package online.fantao.tools.printservice.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 /**
  * 文件类型检查器接口
@@ -15,6 +16,28 @@ public interface FileTypeChecker {
      */
     boolean check(InputStream inputStream, String extension) throws IOException;
 
+    /**
+     * 检查已读取的文件头是否匹配
+     * 用于边读边写的上传方式，不需要重新读取输入流
+     * @param header 文件头数据
+     * @param length 文件头有效长度
+     * @param extension 文件扩展名
+     * @return 是否匹配
+     */
+    boolean checkHeader(byte[] header, int length, String extension);
+
+    /**
+     * 获取检查文件头需要读取的字节数
+     * @return 文件头长度
+     */
+    int getHeaderLength();
+
+    /**
+     * 获取该类型文件的签名列表
+     * @return 签名列表
+     */
+    List<FileSignature> getSignatures();
+
     /**
      * 获取支持的文件扩展名
      * @return 支持的文件扩展名列表
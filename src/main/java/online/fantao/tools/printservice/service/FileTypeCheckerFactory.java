@@ -1,6 +1,9 @@
 package online.fantao.tools.printservice.service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.springframework.stereotype.Component;
@@ -10,16 +13,20 @@ import online.fantao.tools.printservice.service.impl.ImageFileTypeChecker;
 
 /**
  * 文件类型检查器工厂类
+ * 启动时将所有检查器的签名编译为一个魔数匹配器，上传校验只需读取一次文件头
  */
 @Component
 public class FileTypeCheckerFactory {
     
     private final Map<String, FileTypeChecker> checkers = new HashMap<>();
+    private final List<FileSignature> signatures = new ArrayList<>();
+    private final MagicNumberMatcher matcher;
     
     public FileTypeCheckerFactory() {
         // 注册所有检查器
         registerChecker(new ImageFileTypeChecker());
         registerChecker(new DocumentFileTypeChecker());
+        this.matcher = new MagicNumberMatcher(signatures);
     }
     
     /**
@@ -30,6 +37,7 @@ public class FileTypeCheckerFactory {
         for (String extension : checker.getSupportedExtensions()) {
             checkers.put(extension.toLowerCase(), checker);
         }
+        signatures.addAll(checker.getSignatures());
     }
     
     /**
@@ -49,4 +57,33 @@ public class FileTypeCheckerFactory {
     public boolean isSupported(String extension) {
         return checkers.containsKey(extension.toLowerCase());
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取校验文件头需要读取的字节数
+     * @return 所有签名中最长的魔数长度
+     */
+    public int getHeaderLength() {
+        return matcher.getHeaderLength();
+    }
+
+    /**
+     * 根据文件头识别实际的文件格式
+     * @param header 文件头数据
+     * @param length 文件头有效长度
+     * @return 匹配的签名，无法识别时返回 null
+     */
+    public FileSignature detect(byte[] header, int length) {
+        return matcher.detect(header, length);
+    }
+
+    /**
+     * 检查文件头是否与扩展名对应的格式一致
+     * @param header 文件头数据
+     * @param length 文件头有效长度
+     * @param extension 文件扩展名
+     * @return 是否匹配
+     */
+    public boolean matches(byte[] header, int length, String extension) {
+        return matcher.matches(header, length, extension.toLowerCase(Locale.ROOT));
+    }
+}
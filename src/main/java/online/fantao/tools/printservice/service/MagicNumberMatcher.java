@@ -0,0 +1,129 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 预编译的魔数匹配器
+ * 所有签名在构建时编译为字节前缀树，匹配时只需按文件头逐字节向下查找一次，不分配对象
+ * 魔数为空的签名（如纯文本）挂在根节点上，文件头匹配时总是通过，由内容嗅探进一步确认
+ */
+public final class MagicNumberMatcher {
+
+    private final Node root = new Node();
+    private final int headerLength;
+
+    public MagicNumberMatcher(Collection<FileSignature> signatures) {
+        int maxLength = 0;
+        for (FileSignature signature : signatures) {
+            Node node = root;
+            for (int i = 0; i < signature.length(); i++) {
+                node = node.child(signature.byteAt(i) & 0xFF, true);
+            }
+            node.signatures.add(signature);
+            maxLength = Math.max(maxLength, signature.length());
+        }
+        root.freeze();
+        this.headerLength = maxLength;
+    }
+
+    /**
+     * 获取匹配所需读取的文件头长度
+     * @return 最长签名的长度
+     */
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    /**
+     * 识别文件的实际格式
+     * @param header 文件头数据
+     * @param length 文件头有效长度
+     * @return 匹配的最长签名，无匹配时返回 null（不会返回魔数为空的签名）
+     */
+    public FileSignature detect(byte[] header, int length) {
+        FileSignature matched = null;
+        Node node = root;
+        int limit = Math.min(length, headerLength);
+        for (int i = 0; i < limit; i++) {
+            node = node.child(header[i] & 0xFF, false);
+            if (node == null) {
+                break;
+            }
+            if (node.signatureArray.length > 0) {
+                matched = node.signatureArray[0];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 检查文件头是否属于扩展名对应的格式
+     * @param header 文件头数据
+     * @param length 文件头有效长度
+     * @param extension 小写扩展名
+     * @return 是否匹配
+     */
+    public boolean matches(byte[] header, int length, String extension) {
+        for (FileSignature signature : root.signatureArray) {
+            if (signature.accepts(extension)) {
+                return true;
+            }
+        }
+        Node node = root;
+        int limit = Math.min(length, headerLength);
+        for (int i = 0; i < limit; i++) {
+            node = node.child(header[i] & 0xFF, false);
+            if (node == null) {
+                return false;
+            }
+            for (FileSignature signature : node.signatureArray) {
+                if (signature.accepts(extension)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node {
+        private static final FileSignature[] EMPTY = new FileSignature[0];
+
+        private Node[] children;
+        private final List<FileSignature> signatures = new ArrayList<>(1);
+        private FileSignature[] signatureArray = EMPTY;
+
+        private Node child(int value, boolean create) {
+            if (children == null) {
+                if (!create) {
+                    return null;
+                }
+                children = new Node[256];
+            }
+            Node child = children[value];
+            if (child == null && create) {
+                child = new Node();
+                children[value] = child;
+            }
+            return child;
+        }
+
+        /**
+         * 构建完成后将签名列表转换为数组，匹配时遍历数组不产生迭代器
+         */
+        private void freeze() {
+            signatureArray = signatures.toArray(EMPTY);
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null) {
+                        child.freeze();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.List;
+
+import online.fantao.tools.printservice.bo.PrintJobBO;
+import online.fantao.tools.printservice.vo.PrintJobVO;
+import online.fantao.tools.printservice.vo.PrintQueueStatsVO;
+import online.fantao.tools.printservice.vo.PrinterLoadVO;
+
+/**
+ * 打印任务服务接口
+ * 每台打印机由独立的工作线程按顺序处理任务，多台打印机之间并行；
+ * 提交到打印机池的任务由调度器选择预计最早完成的成员打印机；
+ * 同一打印机的任务按优先级调度，同一优先级内小任务优先，并按提交者加权公平排队
+ */
+public interface PrintJobService {
+
+    /**
+     * 提交打印任务
+     * 任务进入打印机队列后立即返回，队列已满时抛出 TooManyRequestsException；
+     * 指定打印机池时，所有可用成员的队列都已满才会拒绝
+     * @param printJobBO 打印任务信息
+     * @return 打印任务
+     */
+    PrintJobVO submitJob(PrintJobBO printJobBO);
+
+    /**
+     * 获取打印任务
+     * @param jobId 任务ID
+     * @return 打印任务
+     */
+    PrintJobVO getJob(String jobId);
+
+    /**
+     * 获取打印任务列表
+     * @param printerId 打印机ID，为空时返回全部任务
+     * @return 打印任务列表
+     */
+    List<PrintJobVO> listJobs(Long printerId);
+
+    /**
+     * 取消排队中的打印任务
+     * @param jobId 任务ID
+     * @return 是否取消成功
+     */
+    boolean cancelJob(String jobId);
+
+    /**
+     * 获取打印队列统计
+     * @param printerId 打印机ID，为空时返回所有打印机
+     * @return 按打印机、优先级和通道统计的排队任务数和排队时间
+     */
+    List<PrintQueueStatsVO> getQueueStats(Long printerId);
+
+    /**
+     * 获取打印机池成员的负载
+     * @param poolId 打印机池ID
+     * @return 成员打印机的排队情况和预计完成时间，按加入顺序排列
+     */
+    List<PrinterLoadVO> getPoolLoad(Long poolId);
+}
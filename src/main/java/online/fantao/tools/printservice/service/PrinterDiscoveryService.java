@@ -0,0 +1,51 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.List;
+
+/**
+ * 网络打印机发现服务接口
+ * 对配置的子网进行并发端口探测
+ */
+public interface PrinterDiscoveryService {
+
+    /**
+     * 探测回调
+     * 回调在扫描线程中执行，实现方不应在其中执行耗时操作
+     */
+    interface ProbeListener {
+
+        /**
+         * 发现可达主机
+         * @param host 主机IP地址
+         */
+        default void onReachable(String host) {
+        }
+
+        /**
+         * 探测进度
+         * @param probed 已探测主机数
+         * @param total 主机总数
+         */
+        default void onProgress(int probed, int total) {
+        }
+    }
+
+    /**
+     * 获取本次需要扫描的主机列表
+     * @return 主机IP地址列表
+     */
+    List<String> resolveTargets();
+
+    /**
+     * 扫描所有目标主机的打印端口
+     * @return 可达主机IP地址列表，按地址顺序排列
+     */
+    List<String> discover();
+
+    /**
+     * 扫描所有目标主机的打印端口
+     * @param listener 探测回调
+     * @return 可达主机IP地址列表，按地址顺序排列
+     */
+    List<String> discover(ProbeListener listener);
+}
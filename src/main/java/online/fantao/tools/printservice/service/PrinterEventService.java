@@ -0,0 +1,18 @@
+package online.fantao.tools.printservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 打印机状态推送服务接口
+ */
+public interface PrinterEventService {
+
+    /**
+     * 订阅打印机状态变更
+     * 未指定序号或序号已不在缓冲区中时先推送 snapshot 事件（全部打印机），之后推送 upsert、status 和 removed 事件，
+     * 每个事件的 id 为其序号，断线后携带最后收到的序号即可继续接收
+     * @param since 最后收到的事件序号，可为空
+     * @return SSE 发送器
+     */
+    SseEmitter subscribe(Long since);
+}
@@ -0,0 +1,48 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.List;
+
+import online.fantao.tools.printservice.bo.PrinterPoolBO;
+import online.fantao.tools.printservice.vo.PrinterPoolVO;
+
+/**
+ * 打印机池服务接口
+ * 打印机池是一组可以互相替代的打印机，打印任务可以提交到打印机池而不指定具体的打印机
+ */
+public interface PrinterPoolService {
+
+    /**
+     * 创建打印机池
+     * @param poolBO 打印机池信息
+     * @return 打印机池
+     */
+    PrinterPoolVO addPool(PrinterPoolBO poolBO);
+
+    /**
+     * 更新打印机池，成员列表整体替换
+     * @param poolBO 打印机池信息
+     * @return 打印机池
+     */
+    PrinterPoolVO updatePool(PrinterPoolBO poolBO);
+
+    /**
+     * 删除打印机池
+     * 已提交到打印机池的任务继续在当前分配的打印机上打印
+     * @param id 打印机池ID
+     * @return 是否删除成功
+     */
+    boolean deletePool(Long id);
+
+    /**
+     * 获取打印机池详情
+     * @param id 打印机池ID
+     * @return 打印机池详情，包含成员打印机的当前状态
+     */
+    PrinterPoolVO getPool(Long id);
+
+    /**
+     * 获取打印机池列表
+     * @return 打印机池列表
+     */
+    List<PrinterPoolVO> listPools();
+}
@@ -0,0 +1,32 @@
+package online.fantao.tools.printservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import online.fantao.tools.printservice.vo.ScanJobVO;
+
+/**
+ * 打印机异步扫描任务服务接口
+ */
+public interface PrinterScanJobService {
+
+    /**
+     * 创建扫描任务，任务在后台执行
+     * @return 扫描任务信息
+     */
+    ScanJobVO createJob();
+
+    /**
+     * 获取扫描任务信息
+     * @param jobId 任务ID
+     * @return 扫描任务信息
+     */
+    ScanJobVO getJob(String jobId);
+
+    /**
+     * 订阅扫描任务事件
+     * 事件包括 printer（发现打印机）、progress（探测进度）、complete（任务结束），任务不存在时推送 error 事件
+     * @param jobId 任务ID
+     * @return SSE 发送器
+     */
+    SseEmitter subscribe(String jobId);
+}
@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Map;
 
 import online.fantao.tools.printservice.bo.PrinterBO;
+import online.fantao.tools.printservice.bo.PrinterQueryBO;
+import online.fantao.tools.printservice.vo.PrinterPageVO;
 import online.fantao.tools.printservice.vo.PrinterVO;
 
 /**
@@ -45,18 +47,36 @@ public interface PrinterService {
      * @return 打印机列表
      */
     List<PrinterVO> getPrinterList();
+
+    /**
+     * 分页查询打印机
+     * 按ID游标翻页，支持按状态、型号、IP前缀过滤和只返回指定字段
+     * @param query 查询条件
+     * @return 打印机分页结果
+     */
+    PrinterPageVO getPrinterPage(PrinterQueryBO query);
     
+    /**
+     * 获取打印机数据版本
+     * 打印机增删改或状态变化后版本改变，重启后也不会与之前的版本相同，可用于生成 ETag
+     * @return 版本标识
+     */
+    String getPrinterVersion();
+
     /**
      * 更新打印机状态
+     * 状态延迟批量写入数据库，查询接口会立即返回新状态
      * @param id 打印机ID
      * @param status 状态
-     * @return 是否更新成功
+     * @return 是否已接受更新，打印机不存在时返回 false
      */
     boolean updatePrinterStatus(Long id, String status);
 
     /**
      * 获取系统中已安装的打印机列表
+     * 优先返回缓存的扫描结果
+     * @param refresh 是否强制重新扫描
      * @return 打印机列表
      */
-    List<PrinterVO> getSystemPrinters();
+    List<PrinterVO> getSystemPrinters(boolean refresh);
 } 
\ No newline at end of file
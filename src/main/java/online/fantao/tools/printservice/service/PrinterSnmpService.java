@@ -0,0 +1,25 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.List;
+
+import online.fantao.tools.printservice.vo.PrinterSnmpVO;
+
+/**
+ * 打印机 SNMP 状态服务接口
+ * 后台定期通过 SNMP 查询已登记打印机的状态，并写入打印机的 status 和 lastOnlineTime
+ */
+public interface PrinterSnmpService {
+
+    /**
+     * 获取打印机最近一次轮询结果
+     * @param printerId 打印机ID
+     * @return 轮询结果，尚未轮询时返回 null
+     */
+    PrinterSnmpVO getSnapshot(Long printerId);
+
+    /**
+     * 获取所有打印机最近一次轮询结果
+     * @return 轮询结果列表
+     */
+    List<PrinterSnmpVO> listSnapshots();
+}
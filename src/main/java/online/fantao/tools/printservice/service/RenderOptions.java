@@ -0,0 +1,84 @@
+package online.fantao.tools.printservice.service;
+
+import java.util.Objects;
+
+/**
+ * 渲染参数
+ * 目标格式和影响输出内容的打印选项，同一文件使用相同参数时可以复用渲染结果
+ */
+public final class RenderOptions {
+
+    private final String format;
+    private final int dpi;
+    private final boolean duplex;
+    private final int numberUp;
+
+    public RenderOptions(String format, int dpi, boolean duplex, int numberUp) {
+        this.format = format;
+        this.dpi = dpi;
+        this.duplex = duplex;
+        this.numberUp = numberUp;
+    }
+
+    /**
+     * 获取目标格式
+     * @return 目标格式，如 pwg、ps、pdf
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * 获取分辨率
+     * @return 每英寸点数
+     */
+    public int getDpi() {
+        return dpi;
+    }
+
+    /**
+     * 是否双面打印
+     */
+    public boolean isDuplex() {
+        return duplex;
+    }
+
+    /**
+     * 获取每张纸打印的页数
+     * @return 1、2 或 4
+     */
+    public int getNumberUp() {
+        return numberUp;
+    }
+
+    /**
+     * 生成缓存键中的参数部分
+     * @return 如 pwg-300dpi-duplex-2up
+     */
+    public String toKey() {
+        return format + "-" + dpi + "dpi-" + (duplex ? "duplex" : "simplex") + "-" + numberUp + "up";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RenderOptions)) {
+            return false;
+        }
+        RenderOptions that = (RenderOptions) o;
+        return dpi == that.dpi && duplex == that.duplex && numberUp == that.numberUp
+                && Objects.equals(format, that.format);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(format, dpi, duplex, numberUp);
+    }
+
+    @Override
+    public String toString() {
+        return toKey();
+    }
+}
@@ -2,61 +2,54 @@ package online.fantao.tools.printservice.service.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import online.fantao.tools.printservice.service.FileTypeChecker;
+import online.fantao.tools.printservice.service.MagicNumberMatcher;
 
 /**
  * 文件类型检查器抽象基类
+ * 签名与扩展名在构造时编译一次，检查时不再重复计算
  */
 public abstract class AbstractFileTypeChecker implements FileTypeChecker {
-    
-    /**
-     * 检查文件头是否匹配
-     * @param inputStream 文件输入流
-     * @param magicNumbers 魔数
-     * @return 是否匹配
-     */
-    protected boolean checkMagicNumbers(InputStream inputStream, byte[] magicNumbers) throws IOException {
-        byte[] header = new byte[magicNumbers.length];
-        int bytesRead = inputStream.read(header);
-        
-        if (bytesRead != magicNumbers.length) {
-            return false;
-        }
-        
-        return Arrays.equals(header, magicNumbers);
+
+    private final MagicNumberMatcher matcher;
+    private final Set<String> extensions;
+
+    protected AbstractFileTypeChecker() {
+        this.matcher = new MagicNumberMatcher(getSignatures());
+        this.extensions = Set.of(getSupportedExtensions());
     }
 
-    /**
-     * 检查文件头是否匹配（支持多个魔数）
-     * @param inputStream 文件输入流
-     * @param magicNumbersList 魔数列表
-     * @return 是否匹配
-     */
-    protected boolean checkMagicNumbers(InputStream inputStream, List<byte[]> magicNumbersList) throws IOException {
-        // 读取文件头
-        int maxLength = magicNumbersList.stream()
-                .mapToInt(arr -> arr.length)
-                .max()
-                .orElse(0);
-        
-        byte[] header = new byte[maxLength];
-        int bytesRead = inputStream.read(header);
-        
-        if (bytesRead < maxLength) {
+    @Override
+    public boolean check(InputStream inputStream, String extension) throws IOException {
+        // 首先检查扩展名
+        if (!checkExtension(extension)) {
             return false;
         }
-        
-        // 检查每个魔数
-        for (byte[] magicNumbers : magicNumbersList) {
-            if (Arrays.equals(Arrays.copyOf(header, magicNumbers.length), magicNumbers)) {
-                return true;
+
+        // 然后读取一次文件头进行匹配
+        byte[] header = new byte[matcher.getHeaderLength()];
+        int length = 0;
+        while (length < header.length) {
+            int read = inputStream.read(header, length, header.length - length);
+            if (read < 0) {
+                break;
             }
+            length += read;
         }
-        
-        return false;
+        return matcher.matches(header, length, extension.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean checkHeader(byte[] header, int length, String extension) {
+        return checkExtension(extension) && matcher.matches(header, length, extension.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public int getHeaderLength() {
+        return matcher.getHeaderLength();
     }
 
     /**
@@ -65,6 +58,6 @@ public abstract class AbstractFileTypeChecker implements FileTypeChecker {
      * @return 是否匹配
      */
     protected boolean checkExtension(String extension) {
-        return Arrays.asList(getSupportedExtensions()).contains(extension.toLowerCase());
+        return extensions.contains(extension.toLowerCase(Locale.ROOT));
     }
-} 
\ No newline at end of file
+}
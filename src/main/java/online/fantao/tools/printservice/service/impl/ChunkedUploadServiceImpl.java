@@ -0,0 +1,324 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.bo.UploadSessionBO;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.service.ChunkedUploadService;
+import online.fantao.tools.printservice.service.FileStorageService;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+import online.fantao.tools.printservice.vo.UploadSessionVO;
+
+/**
+ * 分片上传服务实现类
+ * 分片通过 FileChannel 按偏移量直接写入会话文件，完成后交给文件存储服务保存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    /**
+     * 写入缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 分片上传会话文件目录
+     */
+    private static final String SESSION_DIR = ".uploads";
+
+    /**
+     * 会话文件扩展名
+     */
+    private static final String SESSION_FILE_SUFFIX = ".part";
+
+    private final FileUploadConfig fileUploadConfig;
+    private final FileTypeCheckerFactory fileTypeCheckerFactory;
+    private final FileUploadMetrics fileUploadMetrics;
+    private final FileStorageService fileStorageService;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public UploadSessionVO initiate(UploadSessionBO uploadSessionBO) {
+        String filename = uploadSessionBO.getFilename();
+        String fileExtension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
+        if (!fileTypeCheckerFactory.isSupported(fileExtension)) {
+            fileUploadMetrics.recordRejection(fileExtension, FileUploadMetrics.REASON_UNSUPPORTED);
+            throw new BusinessException("不支持的文件类型");
+        }
+        if (uploadSessionBO.getTotalSize() > fileUploadConfig.getMaxFileSize() * 1024 * 1024) {
+            throw new BusinessException("文件大小超过限制");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Path file;
+        try {
+            Path sessionDir = Paths.get(fileUploadConfig.getUploadDir()).resolve(SESSION_DIR);
+            Files.createDirectories(sessionDir);
+            file = Files.createFile(sessionDir.resolve(uploadId + SESSION_FILE_SUFFIX));
+        } catch (IOException e) {
+            throw new BusinessException("创建上传会话失败", e);
+        }
+
+        UploadSession session = new UploadSession(uploadId, filename, fileExtension, uploadSessionBO.getTotalSize(), file);
+        sessions.put(uploadId, session);
+        return session.toVO();
+    }
+
+    @Override
+    public UploadSessionVO writeChunk(String uploadId, long offset, InputStream inputStream) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        if (offset < 0 || offset >= session.totalSize) {
+            throw new BusinessException("分片偏移量超出文件范围");
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        if (offset == 0) {
+            // 首个分片校验文件头，不匹配时不写入任何数据
+            int headerLength = (int) Math.min(Math.max(1, fileTypeCheckerFactory.getHeaderLength()), session.totalSize);
+            length = readFully(inputStream, buffer, headerLength);
+            if (length < headerLength) {
+                throw new BusinessException("首个分片长度不足，无法校验文件类型");
+            }
+            if (!fileTypeCheckerFactory.matches(buffer, length, session.extension)) {
+                fileUploadMetrics.recordRejection(session.extension, FileUploadMetrics.REASON_HEADER);
+                throw new BusinessException("文件类型与扩展名不匹配");
+            }
+        } else {
+            length = inputStream.read(buffer);
+        }
+
+        long position = offset;
+        try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+            while (length >= 0) {
+                if (position + length > session.totalSize) {
+                    throw new BusinessException("分片超出文件大小");
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                length = inputStream.read(buffer);
+            }
+        } finally {
+            // 连接中断时已写入的部分同样记录，客户端可以从断点继续
+            session.addRange(offset, position);
+        }
+        return session.toVO();
+    }
+
+    @Override
+    public UploadSessionVO getSession(String uploadId) {
+        return requireSession(uploadId).toVO();
+    }
+
+    @Override
+    public UploadSessionVO complete(String uploadId) throws IOException {
+        UploadSession session = requireSession(uploadId);
+        if (!session.isComplete()) {
+            throw new BusinessException("文件尚未上传完整");
+        }
+        if (!sessions.remove(uploadId, session)) {
+            throw new BusinessException("上传会话不存在");
+        }
+        // 后续分片可能覆盖首个分片中已校验的文件头，合并后重新校验
+        if (!headerMatches(session)) {
+            Files.deleteIfExists(session.file);
+            fileUploadMetrics.recordRejection(session.extension, FileUploadMetrics.REASON_HEADER);
+            throw new BusinessException("文件类型与扩展名不匹配");
+        }
+        String fileId = fileStorageService.storeFile(session.file, session.extension);
+        UploadSessionVO vo = session.toVO();
+        vo.setFileId(fileId);
+        log.debug("分片上传完成: {}, 文件ID: {}", uploadId, fileId);
+        return vo;
+    }
+
+    @Override
+    public boolean abort(String uploadId) throws IOException {
+        UploadSession session = sessions.remove(uploadId);
+        if (session == null) {
+            return false;
+        }
+        return Files.deleteIfExists(session.file);
+    }
+
+    /**
+     * 启动时清理重启前遗留的会话文件
+     * 会话只保存在内存中，重启后无法继续上传，超过会话超时时间的文件直接删除
+     */
+    @PostConstruct
+    public void init() {
+        deleteOrphanedFiles(System.currentTimeMillis() - fileUploadConfig.getSessionTimeout());
+    }
+
+    /**
+     * 清理超时的上传会话和没有对应会话的会话文件
+     */
+    @Scheduled(fixedDelayString = "${file.upload.gc-interval:600000}")
+    public void evictExpiredSessions() {
+        long expireTime = System.currentTimeMillis() - fileUploadConfig.getSessionTimeout();
+        for (UploadSession session : sessions.values()) {
+            if (session.lastAccessTime < expireTime) {
+                try {
+                    abort(session.uploadId);
+                    log.info("上传会话已超时: {}", session.uploadId);
+                } catch (IOException e) {
+                    log.warn("删除上传会话文件失败: {}", session.uploadId, e);
+                }
+            }
+        }
+        deleteOrphanedFiles(expireTime);
+    }
+
+    /**
+     * 删除没有对应会话且最后修改时间早于指定时间的会话文件
+     */
+    private void deleteOrphanedFiles(long expireTime) {
+        Path sessionDir = Paths.get(fileUploadConfig.getUploadDir()).resolve(SESSION_DIR);
+        if (!Files.isDirectory(sessionDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(sessionDir, "*" + SESSION_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                String filename = file.getFileName().toString();
+                String uploadId = filename.substring(0, filename.length() - SESSION_FILE_SUFFIX.length());
+                if (!sessions.containsKey(uploadId) && Files.getLastModifiedTime(file).toMillis() < expireTime) {
+                    Files.deleteIfExists(file);
+                    log.info("删除遗留的上传会话文件: {}", filename);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理上传会话文件失败", e);
+        }
+    }
+
+    /**
+     * 校验合并后文件的文件头
+     */
+    private boolean headerMatches(UploadSession session) throws IOException {
+        byte[] header = new byte[Math.max(1, fileTypeCheckerFactory.getHeaderLength())];
+        int length;
+        try (InputStream inputStream = Files.newInputStream(session.file)) {
+            length = readFully(inputStream, header, header.length);
+        }
+        return fileTypeCheckerFactory.matches(header, length, session.extension);
+    }
+
+    private UploadSession requireSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new BusinessException("上传会话不存在");
+        }
+        session.lastAccessTime = System.currentTimeMillis();
+        return session;
+    }
+
+    /**
+     * 从输入流读取指定长度的数据，流结束时返回实际读取的长度
+     */
+    private int readFully(InputStream inputStream, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = inputStream.read(buffer, total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * 上传会话
+     */
+    private static final class UploadSession {
+        private final String uploadId;
+        private final String filename;
+        private final String extension;
+        private final long totalSize;
+        private final Path file;
+        private final LocalDateTime createTime = LocalDateTime.now();
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        /**
+         * 已接收的区间，start -> end，区间互不重叠且不相邻
+         */
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+        private UploadSession(String uploadId, String filename, String extension, long totalSize, Path file) {
+            this.uploadId = uploadId;
+            this.filename = filename;
+            this.extension = extension;
+            this.totalSize = totalSize;
+            this.file = file;
+        }
+
+        /**
+         * 记录已接收的区间，并与重叠或相邻的区间合并
+         */
+        private synchronized void addRange(long start, long end) {
+            if (end <= start) {
+                return;
+            }
+            Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+            if (floor != null && floor.getValue() >= start) {
+                start = floor.getKey();
+                end = Math.max(end, floor.getValue());
+            }
+            Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+            while (next != null && next.getKey() <= end) {
+                end = Math.max(end, next.getValue());
+                ranges.remove(next.getKey());
+                next = ranges.ceilingEntry(start);
+            }
+            ranges.put(start, end);
+        }
+
+        private synchronized boolean isComplete() {
+            return ranges.size() == 1 && ranges.firstKey() == 0 && ranges.firstEntry().getValue() == totalSize;
+        }
+
+        private synchronized UploadSessionVO toVO() {
+            List<long[]> rangeList = new ArrayList<>(ranges.size());
+            long receivedBytes = 0;
+            for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+                rangeList.add(new long[]{range.getKey(), range.getValue()});
+                receivedBytes += range.getValue() - range.getKey();
+            }
+            UploadSessionVO vo = new UploadSessionVO();
+            vo.setUploadId(uploadId);
+            vo.setFilename(filename);
+            vo.setTotalSize(totalSize);
+            vo.setReceivedBytes(receivedBytes);
+            vo.setRanges(rangeList);
+            vo.setCreateTime(createTime);
+            return vo;
+        }
+    }
+}
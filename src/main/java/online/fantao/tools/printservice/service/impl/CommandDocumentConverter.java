@@ -0,0 +1,69 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrintRenderConfig;
+import online.fantao.tools.printservice.service.DocumentConverter;
+import online.fantao.tools.printservice.service.RenderOptions;
+
+/**
+ * 调用本地程序的文档转换器
+ * 由 print.render.commands 配置，例如通过 LibreOffice 或 Ghostscript 的包装脚本转换 Office 文档
+ */
+@Slf4j
+final class CommandDocumentConverter implements DocumentConverter {
+
+    private final PrintRenderConfig.Command command;
+    private final long timeout;
+
+    CommandDocumentConverter(PrintRenderConfig.Command command, long timeout) {
+        this.command = command;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean supports(String sourceType, String format) {
+        return format.equals(command.getFormat()) && command.getSourceTypes().contains(sourceType);
+    }
+
+    @Override
+    public void convert(Path source, String sourceType, RenderOptions options, Path target) throws IOException {
+        List<String> args = new ArrayList<>(command.getCommand().size());
+        for (String arg : command.getCommand()) {
+            args.add(arg.replace("{input}", source.toAbsolutePath().toString())
+                    .replace("{output}", target.toAbsolutePath().toString())
+                    .replace("{format}", options.getFormat())
+                    .replace("{dpi}", String.valueOf(options.getDpi()))
+                    .replace("{duplex}", String.valueOf(options.isDuplex()))
+                    .replace("{nup}", String.valueOf(options.getNumberUp())));
+        }
+
+        Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("转换命令执行超时: " + args.get(0));
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("转换被中断", e);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("转换命令执行失败: " + args.get(0) + "，退出码: " + process.exitValue());
+        }
+        if (!Files.isRegularFile(target) || Files.size(target) == 0) {
+            throw new IOException("转换命令没有生成输出文件: " + args.get(0));
+        }
+        log.debug("外部转换完成: {} -> {}", source.getFileName(), target.getFileName());
+    }
+}
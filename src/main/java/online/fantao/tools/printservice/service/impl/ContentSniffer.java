@@ -0,0 +1,344 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.service.FileSignature;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+/**
+ * 文件内容嗅探
+ * 在文件头匹配的基础上识别容器格式的具体类型，只读取必要的片段，不做完整解析：
+ * ZIP 只读取文件末尾的中央目录，OLE2 只读取目录扇区，纯文本只校验前若干字节的编码
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentSniffer {
+
+    private static final FileSignature DOCX = new FileSignature("docx", new byte[0], "docx");
+    private static final FileSignature XLSX = new FileSignature("xlsx", new byte[0], "xlsx");
+    private static final FileSignature PPTX = new FileSignature("pptx", new byte[0], "pptx");
+    private static final FileSignature DOC = new FileSignature("doc", new byte[0], "doc");
+    private static final FileSignature XLS = new FileSignature("xls", new byte[0], "xls");
+    private static final FileSignature PPT = new FileSignature("ppt", new byte[0], "ppt");
+    private static final FileSignature TEXT = new FileSignature("txt", new byte[0], "txt");
+
+    /**
+     * ZIP 中央目录结束记录
+     */
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    /**
+     * ZIP 中央目录记录
+     */
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_LENGTH = 46;
+
+    /**
+     * 允许读取的最大中央目录大小，超过时视为无法识别
+     */
+    private static final int MAX_DIRECTORY_SIZE = 4 * 1024 * 1024;
+
+    private static final byte[] WORD_PREFIX = {'w', 'o', 'r', 'd', '/'};
+    private static final byte[] EXCEL_PREFIX = {'x', 'l', '/'};
+    private static final byte[] POWERPOINT_PREFIX = {'p', 'p', 't', '/'};
+
+    /**
+     * OLE2 文件头和目录项
+     */
+    private static final int OLE2_HEADER_LENGTH = 512;
+    private static final int OLE2_DIRECTORY_ENTRY_LENGTH = 128;
+    private static final int OLE2_HEADER_FAT_ENTRIES = 109;
+    private static final int OLE2_STREAM = 2;
+
+    /**
+     * 最多跟随的目录扇区数
+     */
+    private static final int MAX_DIRECTORY_SECTORS = 64;
+
+    private static final Charset GB18030 = Charset.forName("GB18030");
+
+    private final FileTypeCheckerFactory fileTypeCheckerFactory;
+    private final FileUploadConfig fileUploadConfig;
+
+    /**
+     * 识别文件的实际类型
+     *
+     * @param file 文件路径
+     * @return 识别出的签名，无法识别时返回 null
+     */
+    public FileSignature sniff(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return sniff(channel);
+        }
+    }
+
+    /**
+     * 检查文件内容是否与扩展名一致
+     * 以 BM、GIF、%PDF-、PK 等字节开头的纯文本会先匹配到二进制签名，扩展名为文本类型时再按文本校验
+     *
+     * @param file      文件路径
+     * @param extension 小写扩展名
+     * @return 是否一致
+     */
+    public boolean matches(Path file, String extension) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FileSignature signature = sniff(channel);
+            if (signature != null && signature.accepts(extension)) {
+                return true;
+            }
+            return signature != TEXT && TEXT.accepts(extension) && isText(channel);
+        }
+    }
+
+    /**
+     * 按文件头识别格式，容器格式再进一步识别具体类型，无法确认时按纯文本校验
+     */
+    private FileSignature sniff(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(fileTypeCheckerFactory.getHeaderLength());
+        read(channel, header, 0);
+        FileSignature signature = fileTypeCheckerFactory.detect(header.array(), header.position());
+        if (signature == null) {
+            return isText(channel) ? TEXT : null;
+        }
+        switch (signature.getType()) {
+            case DocumentFileTypeChecker.ZIP_TYPE:
+                signature = sniffZip(channel);
+                break;
+            case DocumentFileTypeChecker.OLE2_TYPE:
+                signature = sniffOle2(channel);
+                break;
+            default:
+                return signature;
+        }
+        if (signature == null && isText(channel)) {
+            return TEXT;
+        }
+        return signature;
+    }
+
+    /**
+     * 从中央目录的条目名称识别 OOXML 文档类型
+     */
+    private FileSignature sniffZip(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < EOCD_LENGTH) {
+            return null;
+        }
+
+        // 中央目录结束记录位于文件末尾，之后最多跟随 65535 字节的注释
+        int tailLength = (int) Math.min(size, EOCD_LENGTH + MAX_COMMENT_LENGTH);
+        long tailStart = size - tailLength;
+        ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+        read(channel, tail, tailStart);
+        int eocd = -1;
+        for (int i = tail.position() - EOCD_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return null;
+        }
+
+        long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        // ZIP64 的偏移量字段为 0xFFFFFFFF，同样会在这里被排除
+        if (directorySize > MAX_DIRECTORY_SIZE || directoryOffset + directorySize > tailStart + eocd) {
+            return null;
+        }
+
+        ByteBuffer directory;
+        if (directoryOffset >= tailStart) {
+            // 中央目录已在读取的末尾数据中
+            directory = tail.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            directory.position((int) (directoryOffset - tailStart)).limit((int) (directoryOffset - tailStart + directorySize));
+            directory = directory.slice().order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+            read(channel, directory, directoryOffset);
+            directory.flip();
+        }
+
+        int position = 0;
+        int limit = directory.limit();
+        while (position + CEN_LENGTH <= limit && directory.getInt(position) == CEN_SIGNATURE) {
+            int nameLength = directory.getShort(position + 28) & 0xFFFF;
+            int extraLength = directory.getShort(position + 30) & 0xFFFF;
+            int commentLength = directory.getShort(position + 32) & 0xFFFF;
+            int nameStart = position + CEN_LENGTH;
+            if (nameStart + nameLength > limit) {
+                break;
+            }
+            if (startsWith(directory, nameStart, nameLength, WORD_PREFIX)) {
+                return DOCX;
+            }
+            if (startsWith(directory, nameStart, nameLength, EXCEL_PREFIX)) {
+                return XLSX;
+            }
+            if (startsWith(directory, nameStart, nameLength, POWERPOINT_PREFIX)) {
+                return PPTX;
+            }
+            position = nameStart + nameLength + extraLength + commentLength;
+        }
+        return null;
+    }
+
+    /**
+     * 从目录扇区中的流名称识别 Office 97-2003 文档类型
+     */
+    private FileSignature sniffOle2(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(OLE2_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        if (read(channel, header, 0) < OLE2_HEADER_LENGTH) {
+            return null;
+        }
+        int sectorShift = header.getShort(0x1E) & 0xFFFF;
+        if (sectorShift != 9 && sectorShift != 12) {
+            return null;
+        }
+        int sectorSize = 1 << sectorShift;
+        ByteBuffer sector = ByteBuffer.allocate(sectorSize).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer fatEntry = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+
+        int sectorId = header.getInt(0x30);
+        for (int count = 0; sectorId >= 0 && count < MAX_DIRECTORY_SECTORS; count++) {
+            sector.clear();
+            if (read(channel, sector, (long) (sectorId + 1) << sectorShift) < sectorSize) {
+                return null;
+            }
+            for (int entry = 0; entry < sectorSize; entry += OLE2_DIRECTORY_ENTRY_LENGTH) {
+                int nameLength = sector.getShort(entry + 0x40) & 0xFFFF;
+                if (sector.get(entry + 0x42) != OLE2_STREAM || nameLength < 2 || nameLength > 64) {
+                    continue;
+                }
+                String name = new String(sector.array(), entry, nameLength - 2, StandardCharsets.UTF_16LE);
+                switch (name) {
+                    case "WordDocument":
+                        return DOC;
+                    case "Workbook":
+                    case "Book":
+                        return XLS;
+                    case "PowerPoint Document":
+                        return PPT;
+                    default:
+                        break;
+                }
+            }
+
+            // 通过文件头中的 FAT 扇区表找到下一个目录扇区，不跟随扩展的 DIFAT
+            int entriesPerSector = sectorSize / 4;
+            int fatIndex = sectorId / entriesPerSector;
+            if (fatIndex >= OLE2_HEADER_FAT_ENTRIES) {
+                return null;
+            }
+            int fatSector = header.getInt(0x4C + fatIndex * 4);
+            if (fatSector < 0) {
+                return null;
+            }
+            fatEntry.clear();
+            long fatPosition = ((long) (fatSector + 1) << sectorShift) + (long) (sectorId % entriesPerSector) * 4;
+            if (read(channel, fatEntry, fatPosition) < 4) {
+                return null;
+            }
+            sectorId = fatEntry.getInt(0);
+        }
+        return null;
+    }
+
+    /**
+     * 根据 BOM 或前若干字节的编码合法性判断是否为纯文本
+     */
+    private boolean isText(FileChannel channel) throws IOException {
+        int length = (int) Math.min(channel.size(), Math.max(4, fileUploadConfig.getTextSniffLength()));
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        read(channel, buffer, 0);
+        buffer.flip();
+        boolean endOfInput = buffer.limit() >= channel.size();
+
+        if (hasBom(buffer)) {
+            return true;
+        }
+        for (int i = 0; i < buffer.limit(); i++) {
+            int b = buffer.get(i) & 0xFF;
+            // 除常见的空白和转义字符外，控制字符说明是二进制数据
+            if ((b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) || b == 0x7F) {
+                return false;
+            }
+        }
+        return isDecodable(buffer, StandardCharsets.UTF_8, endOfInput) || isDecodable(buffer, GB18030, endOfInput);
+    }
+
+    private boolean hasBom(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        if (limit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            return true;
+        }
+        return limit >= 2 && (((buffer.get(0) & 0xFF) == 0xFF && (buffer.get(1) & 0xFF) == 0xFE)
+                || ((buffer.get(0) & 0xFF) == 0xFE && (buffer.get(1) & 0xFF) == 0xFF));
+    }
+
+    /**
+     * 严格解码，未读完整个文件时允许末尾被截断的多字节字符
+     */
+    private boolean isDecodable(ByteBuffer buffer, Charset charset, boolean endOfInput) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer input = buffer.duplicate();
+        CharBuffer output = CharBuffer.allocate(input.remaining());
+        CoderResult result = decoder.decode(input, output, endOfInput);
+        if (result.isError()) {
+            return false;
+        }
+        if (endOfInput) {
+            return !decoder.flush(output).isError() && !input.hasRemaining();
+        }
+        return input.remaining() < 4;
+    }
+
+    private boolean startsWith(ByteBuffer buffer, int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(offset + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从指定位置读取数据直到缓冲区写满或文件结束
+     *
+     * @return 读取的字节数
+     */
+    private int read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
@@ -1,39 +1,44 @@
 package online.fantao.tools.printservice.service.impl;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Arrays;
 import java.util.List;
 
+import online.fantao.tools.printservice.service.FileSignature;
+
 /**
  * 文档文件类型检查器
  */
 public class DocumentFileTypeChecker extends AbstractFileTypeChecker {
     
+    /**
+     * ZIP 容器格式，具体类型由内容嗅探确定
+     */
+    static final String ZIP_TYPE = "zip";
+    
+    /**
+     * OLE2 复合文档格式，具体类型由内容嗅探确定
+     */
+    static final String OLE2_TYPE = "ole2";
+    
     private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
-    private static final byte[] DOC_MAGIC = {(byte)0xD0, (byte)0xCF, 0x11, (byte)0xE0, (byte)0xA1, (byte)0xB1, 0x1A, (byte)0xE1};
-    private static final byte[] DOCX_MAGIC = {'P', 'K', 0x03, 0x04};
-    private static final byte[] XLS_MAGIC = {(byte)0xD0, (byte)0xCF, 0x11, (byte)0xE0, (byte)0xA1, (byte)0xB1, 0x1A, (byte)0xE1};
-    private static final byte[] XLSX_MAGIC = {'P', 'K', 0x03, 0x04};
-    private static final byte[] TXT_MAGIC = {'T', 'e', 'x', 't'};
+    private static final byte[] OLE2_MAGIC = {(byte)0xD0, (byte)0xCF, 0x11, (byte)0xE0, (byte)0xA1, (byte)0xB1, 0x1A, (byte)0xE1};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 0x03, 0x04};
+    // 纯文本没有魔数，由内容嗅探校验编码
+    private static final byte[] TXT_MAGIC = {};
     
-    private static final List<byte[]> DOCUMENT_MAGIC_NUMBERS = Arrays.asList(
-        PDF_MAGIC, DOC_MAGIC, DOCX_MAGIC, XLS_MAGIC, XLSX_MAGIC, TXT_MAGIC
+    private static final List<FileSignature> DOCUMENT_SIGNATURES = List.of(
+        new FileSignature("pdf", PDF_MAGIC, "pdf"),
+        new FileSignature(OLE2_TYPE, OLE2_MAGIC, "doc", "xls"),
+        new FileSignature(ZIP_TYPE, ZIP_MAGIC, "docx", "xlsx"),
+        new FileSignature("txt", TXT_MAGIC, "txt")
     );
     
     @Override
-    public boolean check(InputStream inputStream, String extension) throws IOException {
-        // 首先检查扩展名
-        if (!checkExtension(extension)) {
-            return false;
-        }
-        
-        // 然后检查文件头
-        return checkMagicNumbers(inputStream, DOCUMENT_MAGIC_NUMBERS);
+    public List<FileSignature> getSignatures() {
+        return DOCUMENT_SIGNATURES;
     }
     
     @Override
     public String[] getSupportedExtensions() {
         return new String[]{"pdf", "doc", "docx", "xls", "xlsx", "txt"};
     }
-} 
\ No newline at end of file
+}
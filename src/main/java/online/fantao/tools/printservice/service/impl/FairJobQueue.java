@@ -0,0 +1,344 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import online.fantao.tools.printservice.vo.PrintQueueStatsVO;
+
+/**
+ * 打印机任务调度队列
+ * 优先级之间严格按 HIGH、NORMAL、LOW 的顺序调度；同一优先级内分为小任务快速通道和普通通道，
+ * 两个通道内部都按提交者做加权公平排队（自计时公平排队，完成标签 = max(虚拟时间, 该提交者上一个任务的完成标签) + 字节数 / 权重），
+ * 快速通道连续调度若干个任务后让出一次，普通通道不会饿死。
+ * 提交方只把任务追加到无锁的收件队列并唤醒工作线程，排序结构只由工作线程访问，不需要加锁。
+ * 等待时间记录在 print.job.wait 指标中（printer、priority、lane 标签）
+ */
+final class FairJobQueue {
+
+    static final String PRIORITY_HIGH = "HIGH";
+    static final String PRIORITY_NORMAL = "NORMAL";
+    static final String PRIORITY_LOW = "LOW";
+
+    static final String LANE_FAST = "fast";
+    static final String LANE_NORMAL = "normal";
+
+    private static final String[] PRIORITIES = {PRIORITY_HIGH, PRIORITY_NORMAL, PRIORITY_LOW};
+    private static final String[] LANES = {LANE_FAST, LANE_NORMAL};
+    private static final int FAST = 0;
+    private static final int NORMAL = 1;
+
+    /**
+     * 提交者数量超过该值时清理已经落后于虚拟时间的完成标签
+     */
+    private static final int OWNER_PRUNE_THRESHOLD = 1024;
+
+    private final int capacity;
+    private final long smallJobSize;
+    private final int fastLaneBurst;
+    private final ToDoubleFunction<String> weights;
+
+    /**
+     * 收件队列，提交方无锁追加，工作线程取出后放入对应通道
+     */
+    private final ConcurrentLinkedQueue<Entry> inbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 仍在队列中的任务，取出和移除都通过从该表中删除来认领，先删除的一方生效
+     */
+    private final Map<PrintJob, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 按优先级和通道统计，下标为 优先级 * 2 + 通道
+     */
+    private final AtomicIntegerArray queued = new AtomicIntegerArray(PRIORITIES.length * LANES.length);
+    private final AtomicLongArray dispatched = new AtomicLongArray(PRIORITIES.length * LANES.length);
+    private final AtomicLongArray totalWaitNanos = new AtomicLongArray(PRIORITIES.length * LANES.length);
+    private final AtomicLongArray maxWaitNanos = new AtomicLongArray(PRIORITIES.length * LANES.length);
+    private final Timer[] waitTimers = new Timer[PRIORITIES.length * LANES.length];
+
+    /**
+     * 以下字段只由工作线程访问
+     */
+    private final PriorityClass[] classes = new PriorityClass[PRIORITIES.length];
+    private volatile Thread consumer;
+
+    FairJobQueue(Long printerId, int capacity, long smallJobSize, int fastLaneBurst, ToDoubleFunction<String> weights,
+            MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.smallJobSize = smallJobSize;
+        this.fastLaneBurst = Math.max(1, fastLaneBurst);
+        this.weights = weights;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            classes[i] = new PriorityClass();
+            for (int lane = 0; lane < LANES.length; lane++) {
+                waitTimers[slot(i, lane)] = Timer.builder("print.job.wait")
+                        .tag("printer", String.valueOf(printerId))
+                        .tag("priority", PRIORITIES[i])
+                        .tag("lane", LANES[lane])
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * 优先级名称对应的下标，未知的优先级按 NORMAL 处理
+     */
+    static int priorityIndex(String priority) {
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (PRIORITIES[i].equals(priority)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 任务入队
+     * @return 队列已满时返回 false
+     */
+    boolean offer(PrintJob job) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        Entry entry = new Entry(job, priorityIndex(job.getPriority()), job.getSize() <= smallJobSize ? FAST : NORMAL,
+                sequence.incrementAndGet());
+        entries.put(job, entry);
+        queuedBytes.addAndGet(job.getSize());
+        queued.incrementAndGet(entry.slot());
+        inbox.add(entry);
+        Thread waiting = consumer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+        return true;
+    }
+
+    /**
+     * 移除排队中的任务
+     * @return 任务已被取出或不在队列中时返回 false
+     */
+    boolean remove(PrintJob job) {
+        Entry entry = entries.get(job);
+        if (entry == null || !entries.remove(job, entry)) {
+            return false;
+        }
+        release(entry);
+        return true;
+    }
+
+    /**
+     * 取出下一个任务，队列为空时阻塞，只能由工作线程调用
+     */
+    PrintJob take() throws InterruptedException {
+        consumer = Thread.currentThread();
+        while (true) {
+            drainInbox();
+            Entry entry = next();
+            if (entry != null) {
+                return entry.job;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            // 入队时会唤醒，在检查之后、阻塞之前入队的任务留下的许可会使这里立即返回
+            LockSupport.park(this);
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * 队列中任务的快照
+     */
+    List<PrintJob> jobs() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * 按优先级和通道统计的排队和等待情况
+     */
+    List<PrintQueueStatsVO> stats(Long printerId) {
+        List<PrintQueueStatsVO> stats = new ArrayList<>();
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            for (int lane = 0; lane < LANES.length; lane++) {
+                int slot = slot(i, lane);
+                long count = dispatched.get(slot);
+                PrintQueueStatsVO vo = new PrintQueueStatsVO();
+                vo.setPrinterId(printerId);
+                vo.setPriority(PRIORITIES[i]);
+                vo.setLane(LANES[lane]);
+                vo.setQueued(queued.get(slot));
+                vo.setDispatched(count);
+                vo.setAverageWait(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get(slot) / count));
+                vo.setMaxWait(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get(slot)));
+                stats.add(vo);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 把收件队列中的任务放入对应通道，分配完成标签
+     */
+    private void drainInbox() {
+        Entry entry;
+        while ((entry = inbox.poll()) != null) {
+            if (entries.get(entry.job) != entry) {
+                continue;
+            }
+            classes[entry.priority].lanes[entry.lane].add(entry, weights.applyAsDouble(entry.job.getOwner()));
+        }
+    }
+
+    /**
+     * 按优先级选出下一个任务并认领
+     */
+    private Entry next() {
+        for (int i = 0; i < classes.length; i++) {
+            PriorityClass priorityClass = classes[i];
+            Entry entry;
+            while ((entry = priorityClass.poll(fastLaneBurst)) != null) {
+                if (entries.remove(entry.job, entry)) {
+                    release(entry);
+                    long waitNanos = System.nanoTime() - entry.enqueueNanos;
+                    int slot = entry.slot();
+                    dispatched.incrementAndGet(slot);
+                    totalWaitNanos.addAndGet(slot, waitNanos);
+                    maxWaitNanos.accumulateAndGet(slot, waitNanos, Math::max);
+                    waitTimers[slot].record(waitNanos, TimeUnit.NANOSECONDS);
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void release(Entry entry) {
+        size.decrementAndGet();
+        queuedBytes.addAndGet(-entry.job.getSize());
+        queued.decrementAndGet(entry.slot());
+    }
+
+    private static int slot(int priority, int lane) {
+        return priority * LANES.length + lane;
+    }
+
+    /**
+     * 一个优先级，包含快速通道和普通通道
+     */
+    private static final class PriorityClass {
+        private final FairLane[] lanes = {new FairLane(), new FairLane()};
+
+        /**
+         * 快速通道连续调度的任务数
+         */
+        private int fastStreak;
+
+        /**
+         * 取出下一个排队项，可能已被移除，由调用方认领
+         */
+        private Entry poll(int fastLaneBurst) {
+            FairLane fast = lanes[FAST];
+            FairLane normal = lanes[NORMAL];
+            if (!fast.isEmpty() && (normal.isEmpty() || fastStreak < fastLaneBurst)) {
+                fastStreak++;
+                return fast.poll();
+            }
+            fastStreak = 0;
+            return normal.isEmpty() ? null : normal.poll();
+        }
+    }
+
+    /**
+     * 加权公平排队的通道
+     */
+    private static final class FairLane {
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>(
+                Comparator.comparingDouble((Entry entry) -> entry.finish).thenComparingLong(entry -> entry.sequence));
+
+        /**
+         * 每个提交者最后一个任务的完成标签
+         */
+        private final Map<String, Double> lastFinish = new HashMap<>();
+
+        /**
+         * 虚拟时间，等于最近一个取出任务的完成标签
+         */
+        private double virtualTime;
+
+        private void add(Entry entry, double weight) {
+            String owner = entry.job.getOwner();
+            double start = Math.max(virtualTime, lastFinish.getOrDefault(owner, 0.0));
+            entry.finish = start + Math.max(1, entry.job.getSize()) / Math.max(weight, 0.001);
+            lastFinish.put(owner, entry.finish);
+            heap.add(entry);
+        }
+
+        private boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        private Entry poll() {
+            Entry entry = heap.poll();
+            virtualTime = Math.max(virtualTime, entry.finish);
+            if (lastFinish.size() > OWNER_PRUNE_THRESHOLD) {
+                // 完成标签不晚于虚拟时间的提交者，下一个任务的开始标签就是虚拟时间，记录可以删除
+                lastFinish.values().removeIf(finish -> finish <= virtualTime);
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * 排队项
+     */
+    private static final class Entry {
+        private final PrintJob job;
+        private final int priority;
+        private final int lane;
+        private final long sequence;
+        private final long enqueueNanos = System.nanoTime();
+        private double finish;
+
+        private Entry(PrintJob job, int priority, int lane, long sequence) {
+            this.job = job;
+            this.priority = priority;
+            this.lane = lane;
+            this.sequence = sequence;
+        }
+
+        private int slot() {
+            return FairJobQueue.slot(priority, lane);
+        }
+    }
+}
@@ -0,0 +1,701 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Timer;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.entity.FileBlob;
+import online.fantao.tools.printservice.entity.FileHandle;
+import online.fantao.tools.printservice.mapper.FileBlobMapper;
+import online.fantao.tools.printservice.mapper.FileHandleMapper;
+import online.fantao.tools.printservice.service.FileStorageService;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+/**
+ * 文件存储服务实现类
+ * content 模式下文件以 SHA-256 命名，相同内容只保存一份，每次上传分配一个句柄，按句柄的引用计数回收；
+ * 排队中的打印任务在内存中持有文件，任务结束前文件不会被删除或回收
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileStorageServiceImpl implements FileStorageService {
+
+    /**
+     * 写入缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 按内容去重的存储模式
+     */
+    private static final String STORAGE_MODE_CONTENT = "content";
+
+    /**
+     * 上传过程中的临时文件目录
+     */
+    private static final String TEMP_DIR = ".tmp";
+
+    /**
+     * 按大小查找重复文件时最多比较的候选文件数
+     */
+    private static final int MAX_CANDIDATES = 4;
+
+    private final FileUploadConfig fileUploadConfig;
+    private final FileTypeCheckerFactory fileTypeCheckerFactory;
+    private final ContentSniffer contentSniffer;
+    private final FileBlobMapper fileBlobMapper;
+    private final FileHandleMapper fileHandleMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final FileUploadMetrics fileUploadMetrics;
+
+    /**
+     * 保护文件落盘和引用计数的一致性
+     */
+    private final ReentrantLock blobLock = new ReentrantLock();
+
+    /**
+     * 打印任务持有的文件及持有次数，键为上传目录中的文件名，由 blobLock 保护
+     */
+    private final Map<String, Integer> pins = new HashMap<>();
+
+    @Override
+    public String store(InputStream inputStream, String originalFilename) throws IOException {
+        return store(inputStream, originalFilename, -1, null);
+    }
+
+    @Override
+    public String store(InputStream inputStream, String originalFilename, long size, String sha256) throws IOException {
+        // 获取文件扩展名
+        if (originalFilename == null || originalFilename.isEmpty()) {
+            throw new BusinessException("文件名不能为空");
+        }
+        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase();
+
+        // 检查文件类型
+        if (!fileTypeCheckerFactory.isSupported(fileExtension)) {
+            fileUploadMetrics.recordRejection(fileExtension, FileUploadMetrics.REASON_UNSUPPORTED);
+            throw new BusinessException("不支持的文件类型");
+        }
+
+        Timer.Sample sample = fileUploadMetrics.start();
+        String outcome = FileUploadMetrics.OUTCOME_FAILURE;
+        try {
+            String fileId = storeChecked(inputStream, fileExtension, size, sha256);
+            outcome = FileUploadMetrics.OUTCOME_SUCCESS;
+            return fileId;
+        } catch (BusinessException e) {
+            outcome = FileUploadMetrics.OUTCOME_REJECTED;
+            throw e;
+        } finally {
+            fileUploadMetrics.recordUpload(sample, fileExtension, outcome);
+        }
+    }
+
+    /**
+     * 保存扩展名已检查过的文件
+     *
+     * @return 文件ID
+     */
+    private String storeChecked(InputStream inputStream, String fileExtension, long size, String sha256)
+            throws IOException {
+        // 读取并检查文件头，不匹配时不会写入任何数据
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int headerLength = readFully(inputStream, buffer, Math.max(1, fileTypeCheckerFactory.getHeaderLength()));
+        if (headerLength == 0) {
+            throw new BusinessException("文件不能为空");
+        }
+        if (!fileTypeCheckerFactory.matches(buffer, headerLength, fileExtension)) {
+            fileUploadMetrics.recordRejection(fileExtension, FileUploadMetrics.REASON_HEADER);
+            throw new BusinessException("文件类型与扩展名不匹配");
+        }
+
+        Path uploadPath = getUploadPath();
+        if (STORAGE_MODE_CONTENT.equalsIgnoreCase(fileUploadConfig.getStorageMode())) {
+            return storeByContent(inputStream, buffer, headerLength, fileExtension, uploadPath, size, sha256);
+        }
+
+        String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
+        Path filePath = uploadPath.resolve(uniqueFilename);
+        long written = write(inputStream, buffer, headerLength, filePath, null);
+        try {
+            verifyContent(filePath, fileExtension);
+        } catch (BusinessException e) {
+            Files.deleteIfExists(filePath);
+            throw e;
+        }
+        fileUploadMetrics.recordSize(fileExtension, written);
+        log.debug("文件保存成功: {}, 大小: {} 字节", uniqueFilename, written);
+        return uniqueFilename;
+    }
+
+    @Override
+    public String storeFile(Path file, String fileExtension) throws IOException {
+        Timer.Sample sample = fileUploadMetrics.start();
+        String outcome = FileUploadMetrics.OUTCOME_FAILURE;
+        try {
+            String fileId = storeFileChecked(file, fileExtension);
+            outcome = FileUploadMetrics.OUTCOME_SUCCESS;
+            return fileId;
+        } catch (BusinessException e) {
+            outcome = FileUploadMetrics.OUTCOME_REJECTED;
+            throw e;
+        } finally {
+            fileUploadMetrics.recordUpload(sample, fileExtension, outcome);
+        }
+    }
+
+    /**
+     * 校验并保存已在本地的文件
+     *
+     * @return 文件ID
+     */
+    private String storeFileChecked(Path file, String fileExtension) throws IOException {
+        Path uploadPath = getUploadPath();
+        try {
+            verifyContent(file, fileExtension);
+            fileUploadMetrics.recordSize(fileExtension, Files.size(file));
+            if (STORAGE_MODE_CONTENT.equalsIgnoreCase(fileUploadConfig.getStorageMode())) {
+                // 顺序读取一次文件计算哈希
+                MessageDigest digest = newDigest();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    int length;
+                    while ((length = inputStream.read(buffer)) >= 0) {
+                        digest.update(buffer, 0, length);
+                        size += length;
+                    }
+                }
+                return commitContent(file, HexFormat.of().formatHex(digest.digest()), size, fileExtension, uploadPath);
+            }
+
+            String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
+            Files.move(file, uploadPath.resolve(uniqueFilename), StandardCopyOption.ATOMIC_MOVE);
+            return uniqueFilename;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public Path resolve(String fileId) {
+        String name = storedName(fileId, false);
+        if (name == null) {
+            throw new BusinessException("文件不存在");
+        }
+        return resolveStored(name);
+    }
+
+    @Override
+    public boolean release(String fileId) throws IOException {
+        blobLock.lock();
+        try {
+            // 去重存储的文件按句柄减少引用计数，同一句柄只释放一次，引用归零后由垃圾回收删除
+            FileHandle handle = findHandle(fileId);
+            if (handle != null) {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> fileHandleMapper.release(fileId) > 0
+                        && fileBlobMapper.addRefCount(handle.getFileId(), -1) > 0));
+            }
+            if (isReferenceCounted(fileId)) {
+                throw new BusinessException("请使用上传时返回的文件ID删除文件");
+            }
+            Path file = resolveStored(fileId);
+            if (pins.containsKey(fileId)) {
+                throw new BusinessException("文件正在被打印任务使用，无法删除");
+            }
+            return Files.deleteIfExists(file);
+        } finally {
+            blobLock.unlock();
+        }
+    }
+
+    @Override
+    public void addReference(String fileId) {
+        // 已提交的任务持有的句柄被释放后仍可以重新持有（如重启后恢复任务）
+        String name = storedName(fileId, true);
+        blobLock.lock();
+        try {
+            // 与删除和垃圾回收互斥，文件仍存在时才能持有
+            resolveStored(name);
+            pins.merge(name, 1, Integer::sum);
+        } finally {
+            blobLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeReference(String fileId) {
+        String name = storedName(fileId, true);
+        blobLock.lock();
+        try {
+            pins.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+        } finally {
+            blobLock.unlock();
+        }
+    }
+
+    /**
+     * 获取文件ID对应的上传目录中的文件名，去重存储的文件ID是上传句柄，对应以内容哈希命名的文件
+     *
+     * @param includeReleased 是否包括已释放的句柄
+     * @return 文件名，句柄已释放时返回 null
+     */
+    private String storedName(String fileId, boolean includeReleased) {
+        FileHandle handle = findHandle(fileId);
+        if (handle == null) {
+            return fileId;
+        }
+        return includeReleased || !Boolean.TRUE.equals(handle.getDeleted()) ? handle.getFileId() : null;
+    }
+
+    private FileHandle findHandle(String fileId) {
+        return fileHandleMapper.selectOne(new LambdaQueryWrapper<FileHandle>().eq(FileHandle::getHandle, fileId));
+    }
+
+    /**
+     * 获取上传目录中的文件，文件名不能指向上传目录之外
+     */
+    private Path resolveStored(String name) {
+        Path uploadPath = Paths.get(fileUploadConfig.getUploadDir()).toAbsolutePath().normalize();
+        Path file = uploadPath.resolve(name).normalize();
+        if (!uploadPath.equals(file.getParent()) || !Files.isRegularFile(file)) {
+            throw new BusinessException("文件不存在");
+        }
+        return file;
+    }
+
+    /**
+     * 是否为按内容去重存储的文件，文件ID是 SHA-256 加扩展名
+     */
+    private boolean isReferenceCounted(String fileId) {
+        return fileBlobMapper.selectCount(new LambdaQueryWrapper<FileBlob>().eq(FileBlob::getFileId, fileId)) > 0;
+    }
+
+    /**
+     * 回收引用计数归零且没有打印任务持有的文件，以及遗留的临时文件
+     * 首次回收延后一个周期，等待重启后恢复的打印任务重新持有文件
+     */
+    @Scheduled(fixedDelayString = "${file.upload.gc-interval:600000}",
+            initialDelayString = "${file.upload.gc-interval:600000}")
+    public void collectGarbage() {
+        long graceSeconds = fileUploadConfig.getGcGracePeriod() / 1000;
+        List<FileBlob> blobs = fileBlobMapper.selectCollectable(graceSeconds);
+        Path uploadPath = Paths.get(fileUploadConfig.getUploadDir());
+        for (FileBlob blob : blobs) {
+            blobLock.lock();
+            try {
+                if (pins.containsKey(blob.getFileId())) {
+                    continue;
+                }
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteBlob(blob.getFileId())))) {
+                    Files.deleteIfExists(uploadPath.resolve(blob.getFileId()));
+                    log.info("回收未引用的文件: {}", blob.getFileId());
+                }
+            } catch (IOException e) {
+                log.warn("删除文件失败: {}", blob.getFileId(), e);
+            } finally {
+                blobLock.unlock();
+            }
+        }
+
+        // 清理中断上传遗留的临时文件
+        Path tempDir = uploadPath.resolve(TEMP_DIR);
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() - fileUploadConfig.getGcGracePeriod();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempDir)) {
+            for (Path file : stream) {
+                if (Files.getLastModifiedTime(file).toMillis() < expireTime) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理临时文件失败", e);
+        }
+    }
+
+    /**
+     * 删除引用计数已归零的文件记录及其已释放的句柄
+     *
+     * @return 是否已删除
+     */
+    private boolean deleteBlob(String fileId) {
+        if (fileBlobMapper.deleteUnreferenced(fileId) == 0) {
+            return false;
+        }
+        fileHandleMapper.delete(new LambdaQueryWrapper<FileHandle>().eq(FileHandle::getFileId, fileId));
+        return true;
+    }
+
+    /**
+     * 为一次上传分配句柄，同一句柄只能释放一次
+     *
+     * @return 句柄，作为返回给调用方的文件ID
+     */
+    private String createHandle(String fileId, String fileExtension) {
+        FileHandle handle = new FileHandle();
+        handle.setHandle(UUID.randomUUID().toString() + "." + fileExtension);
+        handle.setFileId(fileId);
+        handle.setDeleted(false);
+        fileHandleMapper.insert(handle);
+        return handle.getHandle();
+    }
+
+    /**
+     * 按内容哈希保存文件，已存在相同内容时只增加引用计数
+     * 有候选的已存在文件时边读取边比较，内容完全相同则不写入磁盘；出现不同时把已比较过的部分从候选文件复制到临时文件，再继续写入
+     */
+    private String storeByContent(InputStream inputStream, byte[] buffer, int headerLength, String fileExtension,
+            Path uploadPath, long expectedSize, String sha256) throws IOException {
+        Path tempFile = getTempDir().resolve(UUID.randomUUID().toString() + ".part");
+
+        MessageDigest digest = newDigest();
+        List<Candidate> candidates = openCandidates(uploadPath, fileExtension, expectedSize, sha256);
+        List<Candidate> opened = new ArrayList<>(candidates);
+        try {
+            long maxBytes = fileUploadConfig.getMaxFileSize() * 1024 * 1024;
+            byte[] compare = new byte[BUFFER_SIZE];
+            long compared = 0;
+            int length = headerLength;
+            Candidate prefix = null;
+            while (!candidates.isEmpty() && length >= 0) {
+                if (compared + length > maxBytes) {
+                    throw new BusinessException("文件大小超过限制");
+                }
+                Iterator<Candidate> iterator = candidates.iterator();
+                while (iterator.hasNext()) {
+                    Candidate candidate = iterator.next();
+                    if (!candidate.matches(compared, buffer, length, compare)) {
+                        // 已比较的部分与该候选相同，可以作为临时文件的前缀
+                        prefix = candidate;
+                        iterator.remove();
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                digest.update(buffer, 0, length);
+                compared += length;
+                length = inputStream.read(buffer);
+            }
+
+            if (length < 0) {
+                for (Candidate candidate : candidates) {
+                    if (candidate.size == compared) {
+                        fileUploadMetrics.recordSize(fileExtension, compared);
+                        return reuse(candidate, tempFile, fileExtension, uploadPath);
+                    }
+                    prefix = candidate;
+                }
+            }
+
+            long size = write(inputStream, buffer, length, tempFile, digest, prefix, compared);
+            verifyContent(tempFile, fileExtension);
+            fileUploadMetrics.recordSize(fileExtension, size);
+            return commitContent(tempFile, HexFormat.of().formatHex(digest.digest()), size, fileExtension, uploadPath);
+        } finally {
+            for (Candidate candidate : opened) {
+                candidate.close();
+            }
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 查找可能与本次上传内容相同的已存在文件
+     * 客户端声明了哈希时只比较该文件，否则比较大小和扩展名相同的文件
+     */
+    private List<Candidate> openCandidates(Path uploadPath, String fileExtension, long expectedSize, String sha256) {
+        List<FileBlob> blobs;
+        if (StringUtils.hasText(sha256)) {
+            blobs = fileBlobMapper.selectList(new LambdaQueryWrapper<FileBlob>()
+                    .eq(FileBlob::getFileId, sha256.toLowerCase() + "." + fileExtension));
+        } else if (expectedSize > 0) {
+            blobs = fileBlobMapper.selectList(new LambdaQueryWrapper<FileBlob>()
+                    .eq(FileBlob::getSize, expectedSize)
+                    .eq(FileBlob::getExtension, fileExtension)
+                    .last("LIMIT " + MAX_CANDIDATES));
+        } else {
+            return new ArrayList<>();
+        }
+
+        List<Candidate> candidates = new ArrayList<>(blobs.size());
+        for (FileBlob blob : blobs) {
+            if (expectedSize > 0 && blob.getSize() != expectedSize) {
+                continue;
+            }
+            try {
+                candidates.add(new Candidate(blob.getFileId(),
+                        FileChannel.open(uploadPath.resolve(blob.getFileId()), StandardOpenOption.READ)));
+            } catch (IOException e) {
+                // 文件已被回收，不作为候选
+                log.debug("候选文件无法打开: {}", blob.getFileId());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 复用内容相同的已存在文件，只增加引用计数
+     * 候选文件在比较期间被垃圾回收时，从仍打开的文件重新写入
+     */
+    private String reuse(Candidate candidate, Path tempFile, String fileExtension, Path uploadPath) throws IOException {
+        blobLock.lock();
+        try {
+            String handle = transactionTemplate.execute(status -> {
+                if (Files.exists(uploadPath.resolve(candidate.fileId)) && fileBlobMapper.addRefCount(candidate.fileId, 1) > 0) {
+                    return createHandle(candidate.fileId, fileExtension);
+                }
+                return null;
+            });
+            if (handle != null) {
+                log.debug("文件内容已存在，复用: {}", candidate.fileId);
+                return handle;
+            }
+        } finally {
+            blobLock.unlock();
+        }
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            transferFully(candidate.channel, candidate.size, channel);
+        }
+        String hash = candidate.fileId.substring(0, candidate.fileId.lastIndexOf('.'));
+        return commitContent(tempFile, hash, candidate.size, fileExtension, uploadPath);
+    }
+
+    /**
+     * 将已写好的临时文件按内容哈希保存，已存在相同内容时只增加引用计数
+     *
+     * @return 本次上传的句柄
+     */
+    private String commitContent(Path tempFile, String hash, long size, String fileExtension, Path uploadPath) {
+        String fileId = hash + "." + fileExtension;
+        Path target = uploadPath.resolve(fileId);
+
+        boolean[] created = new boolean[1];
+        blobLock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    if (fileBlobMapper.addRefCount(fileId, 1) > 0) {
+                        // 内容已存在，丢弃本次写入的数据
+                        if (!Files.exists(target)) {
+                            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                        }
+                        log.debug("文件内容已存在，复用: {}", fileId);
+                        return createHandle(fileId, fileExtension);
+                    }
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    created[0] = true;
+                    FileBlob blob = new FileBlob();
+                    blob.setFileId(fileId);
+                    blob.setHash(hash);
+                    blob.setExtension(fileExtension);
+                    blob.setSize(size);
+                    blob.setRefCount(1);
+                    fileBlobMapper.insert(blob);
+                    log.debug("文件保存成功: {}, 大小: {} 字节", fileId, size);
+                    return createHandle(fileId, fileExtension);
+                } catch (IOException e) {
+                    throw new BusinessException("文件保存失败", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 记录未写入时删除已移入上传目录的文件，避免留下没有记录的文件
+            if (created[0]) {
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException deleteError) {
+                    e.addSuppressed(deleteError);
+                }
+            }
+            throw e;
+        } finally {
+            blobLock.unlock();
+        }
+    }
+
+    /**
+     * 将已读取的文件头和剩余输入流写入文件，超过大小限制或写入失败时删除文件
+     *
+     * @return 写入的字节数
+     */
+    private long write(InputStream inputStream, byte[] buffer, int headerLength, Path filePath, MessageDigest digest)
+            throws IOException {
+        return write(inputStream, buffer, headerLength, filePath, digest, null, 0);
+    }
+
+    /**
+     * 先从前缀文件复制指定长度（已计入摘要），再写入缓冲区中已读取的数据和剩余输入流
+     *
+     * @param length 缓冲区中已读取的字节数，输入流已结束时为 -1
+     * @return 写入的字节数
+     */
+    private long write(InputStream inputStream, byte[] buffer, int length, Path filePath, MessageDigest digest,
+            Candidate prefix, long prefixLength) throws IOException {
+        long maxBytes = fileUploadConfig.getMaxFileSize() * 1024 * 1024;
+        boolean success = false;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long written = prefixLength;
+            if (prefixLength > 0) {
+                transferFully(prefix.channel, prefixLength, channel);
+            }
+            while (length >= 0) {
+                written += length;
+                if (written > maxBytes) {
+                    throw new BusinessException("文件大小超过限制");
+                }
+                if (digest != null) {
+                    digest.update(buffer, 0, length);
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                length = inputStream.read(buffer);
+            }
+            success = true;
+            return written;
+        } finally {
+            if (!success) {
+                Files.deleteIfExists(filePath);
+            }
+        }
+    }
+
+    private static void transferFully(FileChannel source, long length, FileChannel target) throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            long transferred = source.transferTo(copied, length - copied, target);
+            if (transferred <= 0) {
+                throw new IOException("候选文件长度不足");
+            }
+            copied += transferred;
+        }
+    }
+
+    /**
+     * 嗅探已写入文件的实际类型，区分同一文件头下的不同格式（如 docx 与 xlsx）
+     */
+    private void verifyContent(Path file, String fileExtension) throws IOException {
+        if (!contentSniffer.matches(file, fileExtension)) {
+            fileUploadMetrics.recordRejection(fileExtension, FileUploadMetrics.REASON_CONTENT);
+            throw new BusinessException("文件内容与扩展名不匹配");
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 获取上传临时目录，不存在时创建
+     */
+    private Path getTempDir() throws IOException {
+        Path tempDir = getUploadPath().resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        return tempDir;
+    }
+
+    /**
+     * 获取上传目录，不存在时创建
+     */
+    private Path getUploadPath() throws IOException {
+        Path uploadPath = Paths.get(fileUploadConfig.getUploadDir());
+        if (!Files.exists(uploadPath)) {
+            Files.createDirectories(uploadPath);
+        }
+        if (!Files.isWritable(uploadPath)) {
+            throw new BusinessException("上传目录没有写入权限");
+        }
+        return uploadPath;
+    }
+
+    /**
+     * 从输入流读取指定长度的数据，流结束时返回实际读取的长度
+     */
+    private int readFully(InputStream inputStream, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = inputStream.read(buffer, total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * 可能与本次上传内容相同的已存在文件
+     */
+    private static final class Candidate implements Closeable {
+        private final String fileId;
+        private final FileChannel channel;
+        private final long size;
+
+        private Candidate(String fileId, FileChannel channel) throws IOException {
+            this.fileId = fileId;
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * 比较指定位置的内容是否与缓冲区相同
+         */
+        private boolean matches(long position, byte[] buffer, int length, byte[] compare) throws IOException {
+            if (position + length > size) {
+                return false;
+            }
+            ByteBuffer target = ByteBuffer.wrap(compare, 0, length);
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position()) < 0) {
+                    return false;
+                }
+            }
+            return Arrays.equals(buffer, 0, length, compare, 0, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
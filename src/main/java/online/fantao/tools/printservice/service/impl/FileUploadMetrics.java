@@ -0,0 +1,59 @@
+package online.fantao.tools.printservice.service.impl;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+/**
+ * 文件上传指标
+ * file.upload：上传耗时（type、outcome 标签）；file.upload.size：上传大小；
+ * file.type.rejections：文件类型校验未通过的次数（type、reason 标签）
+ */
+@Component
+@RequiredArgsConstructor
+class FileUploadMetrics {
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_REJECTED = "rejected";
+    static final String OUTCOME_FAILURE = "failure";
+
+    static final String REASON_UNSUPPORTED = "unsupported";
+    static final String REASON_HEADER = "header";
+    static final String REASON_CONTENT = "content";
+
+    /**
+     * 不支持的扩展名统一使用该标签，避免标签数量无限增长
+     */
+    private static final String OTHER_TYPE = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final FileTypeCheckerFactory fileTypeCheckerFactory;
+
+    Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    void recordUpload(Timer.Sample sample, String fileExtension, String outcome) {
+        sample.stop(meterRegistry.timer("file.upload", "type", typeTag(fileExtension), "outcome", outcome));
+    }
+
+    void recordSize(String fileExtension, long size) {
+        DistributionSummary.builder("file.upload.size")
+                .baseUnit("bytes")
+                .tag("type", typeTag(fileExtension))
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    void recordRejection(String fileExtension, String reason) {
+        meterRegistry.counter("file.type.rejections", "type", typeTag(fileExtension), "reason", reason).increment();
+    }
+
+    private String typeTag(String fileExtension) {
+        return fileExtension != null && fileTypeCheckerFactory.isSupported(fileExtension) ? fileExtension : OTHER_TYPE;
+    }
+}
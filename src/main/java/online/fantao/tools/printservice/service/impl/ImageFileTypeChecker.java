@@ -1,10 +1,9 @@
 package online.fantao.tools.printservice.service.impl;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Arrays;
 import java.util.List;
 
+import online.fantao.tools.printservice.service.FileSignature;
+
 /**
  * 图片文件类型检查器
  */
@@ -15,23 +14,20 @@ public class ImageFileTypeChecker extends AbstractFileTypeChecker {
     private static final byte[] GIF_MAGIC = {'G', 'I', 'F'};
     private static final byte[] BMP_MAGIC = {'B', 'M'};
     
-    private static final List<byte[]> IMAGE_MAGIC_NUMBERS = Arrays.asList(
-        JPEG_MAGIC, PNG_MAGIC, GIF_MAGIC, BMP_MAGIC
+    private static final List<FileSignature> IMAGE_SIGNATURES = List.of(
+        new FileSignature("jpeg", JPEG_MAGIC, "jpg", "jpeg"),
+        new FileSignature("png", PNG_MAGIC, "png"),
+        new FileSignature("gif", GIF_MAGIC, "gif"),
+        new FileSignature("bmp", BMP_MAGIC, "bmp")
     );
     
     @Override
-    public boolean check(InputStream inputStream, String extension) throws IOException {
-        // 首先检查扩展名
-        if (!checkExtension(extension)) {
-            return false;
-        }
-        
-        // 然后检查文件头
-        return checkMagicNumbers(inputStream, IMAGE_MAGIC_NUMBERS);
+    public List<FileSignature> getSignatures() {
+        return IMAGE_SIGNATURES;
     }
     
     @Override
     public String[] getSupportedExtensions() {
         return new String[]{"jpg", "jpeg", "png", "gif", "bmp"};
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,382 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.print.Printable;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.print.DocFlavor;
+import javax.print.PrintException;
+import javax.print.SimpleDoc;
+import javax.print.StreamPrintService;
+import javax.print.StreamPrintServiceFactory;
+import javax.print.attribute.HashPrintRequestAttributeSet;
+import javax.print.attribute.PrintRequestAttributeSet;
+import javax.print.attribute.standard.MediaSizeName;
+import javax.print.attribute.standard.Sides;
+
+import org.springframework.stereotype.Component;
+
+import online.fantao.tools.printservice.service.DocumentConverter;
+import online.fantao.tools.printservice.service.RenderOptions;
+
+/**
+ * 进程内文档转换器
+ * 使用 Java2D 将图片和纯文本排版为 A4 页面，输出 PWG 光栅或 PostScript（javax.print 流打印服务）
+ */
+@Component
+class Java2dDocumentConverter implements DocumentConverter {
+
+    static final String FORMAT_PWG = "pwg";
+    static final String FORMAT_PS = "ps";
+
+    private static final Set<String> IMAGE_TYPES = new HashSet<>(Arrays.asList("jpg", "jpeg", "png", "gif", "bmp"));
+    private static final String TEXT_TYPE = "txt";
+    private static final Set<String> FORMATS = new HashSet<>(Arrays.asList(FORMAT_PWG, FORMAT_PS));
+
+    /**
+     * A4 纸张尺寸（点）
+     */
+    private static final double PAGE_WIDTH = 595.28;
+    private static final double PAGE_HEIGHT = 841.89;
+
+    private static final double IMAGE_MARGIN = 18;
+    private static final double TEXT_MARGIN = 36;
+    private static final Font TEXT_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+    private static final int TAB_SIZE = 4;
+
+    private static final Charset GB18030 = Charset.forName("GB18030");
+    private static final String POSTSCRIPT_MIME_TYPE = "application/postscript";
+
+    @Override
+    public boolean supports(String sourceType, String format) {
+        return FORMATS.contains(format) && (IMAGE_TYPES.contains(sourceType) || TEXT_TYPE.equals(sourceType));
+    }
+
+    @Override
+    public void convert(Path source, String sourceType, RenderOptions options, Path target) throws IOException {
+        PageSource pages = TEXT_TYPE.equals(sourceType) ? TextPages.load(source) : ImagePage.load(source);
+        Sheets sheets = new Sheets(pages, options.getNumberUp());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            if (FORMAT_PWG.equals(options.getFormat())) {
+                writePwg(sheets, options, out);
+            } else {
+                writePostScript(sheets, options, out);
+            }
+        }
+    }
+
+    private static void writePwg(Sheets sheets, RenderOptions options, OutputStream out) throws IOException {
+        int dpi = options.getDpi();
+        int width = (int) Math.round(PAGE_WIDTH * dpi / 72);
+        int height = (int) Math.round(PAGE_HEIGHT * dpi / 72);
+        PwgRasterWriter writer = new PwgRasterWriter(out, sheets.getCount(), width);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < sheets.getCount(); i++) {
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.scale(dpi / 72.0, dpi / 72.0);
+                sheets.paint(g, i);
+            } finally {
+                g.dispose();
+            }
+            writer.writePage(pixels, width, height, dpi, options.isDuplex());
+        }
+    }
+
+    private static void writePostScript(Sheets sheets, RenderOptions options, OutputStream out) throws IOException {
+        DocFlavor flavor = DocFlavor.SERVICE_FORMATTED.PRINTABLE;
+        StreamPrintServiceFactory[] factories =
+                StreamPrintServiceFactory.lookupStreamPrintServiceFactories(flavor, POSTSCRIPT_MIME_TYPE);
+        if (factories.length == 0) {
+            throw new IOException("当前运行环境不支持输出 PostScript");
+        }
+        StreamPrintService service = factories[0].getPrintService(out);
+        PrintRequestAttributeSet attributes = new HashPrintRequestAttributeSet();
+        attributes.add(MediaSizeName.ISO_A4);
+        attributes.add(options.isDuplex() ? Sides.DUPLEX : Sides.ONE_SIDED);
+        Printable printable = (graphics, pageFormat, pageIndex) -> {
+            if (pageIndex >= sheets.getCount()) {
+                return Printable.NO_SUCH_PAGE;
+            }
+            sheets.paint((Graphics2D) graphics, pageIndex);
+            return Printable.PAGE_EXISTS;
+        };
+        try {
+            service.createPrintJob().print(new SimpleDoc(printable, flavor, null), attributes);
+        } catch (PrintException e) {
+            throw new IOException("生成 PostScript 失败: " + e.getMessage(), e);
+        } finally {
+            service.dispose();
+        }
+    }
+
+    private static void applyHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    }
+
+    /**
+     * 逻辑页面，坐标单位为点，原点为页面左上角
+     */
+    private interface PageSource {
+
+        int getPageCount();
+
+        void paint(Graphics2D g, int pageIndex);
+    }
+
+    /**
+     * 纸张，按 N-up 将多个逻辑页面缩放排列在一张 A4 纸上
+     */
+    private static final class Sheets {
+        private final PageSource pages;
+        private final int numberUp;
+
+        private Sheets(PageSource pages, int numberUp) {
+            this.pages = pages;
+            this.numberUp = numberUp;
+        }
+
+        int getCount() {
+            return (pages.getPageCount() + numberUp - 1) / numberUp;
+        }
+
+        void paint(Graphics2D g, int sheetIndex) {
+            applyHints(g);
+            for (int cell = 0; cell < numberUp; cell++) {
+                int pageIndex = sheetIndex * numberUp + cell;
+                if (pageIndex >= pages.getPageCount()) {
+                    break;
+                }
+                AffineTransform saved = g.getTransform();
+                g.transform(cellTransform(cell));
+                pages.paint(g, pageIndex);
+                g.setTransform(saved);
+            }
+        }
+
+        /**
+         * 逻辑页面到纸张中单元格的变换：2-up 上下排列并旋转 90 度，4-up 按 2x2 排列
+         */
+        private AffineTransform cellTransform(int cell) {
+            AffineTransform transform = new AffineTransform();
+            if (numberUp == 2) {
+                double scale = Math.min(PAGE_WIDTH / PAGE_HEIGHT, (PAGE_HEIGHT / 2) / PAGE_WIDTH);
+                double offsetX = (PAGE_WIDTH - PAGE_HEIGHT * scale) / 2;
+                double offsetY = cell * PAGE_HEIGHT / 2 + (PAGE_HEIGHT / 2 - PAGE_WIDTH * scale) / 2;
+                transform.translate(offsetX, offsetY + PAGE_WIDTH * scale);
+                transform.rotate(-Math.PI / 2);
+                transform.scale(scale, scale);
+            } else if (numberUp == 4) {
+                transform.translate((cell % 2) * PAGE_WIDTH / 2, (cell / 2) * PAGE_HEIGHT / 2);
+                transform.scale(0.5, 0.5);
+            }
+            return transform;
+        }
+    }
+
+    /**
+     * 图片页面，等比缩放后居中，横向图片旋转后放大
+     */
+    private static final class ImagePage implements PageSource {
+        private final BufferedImage image;
+
+        private ImagePage(BufferedImage image) {
+            this.image = image;
+        }
+
+        static ImagePage load(Path source) throws IOException {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                throw new IOException("无法读取图片: " + source.getFileName());
+            }
+            return new ImagePage(image);
+        }
+
+        @Override
+        public int getPageCount() {
+            return 1;
+        }
+
+        @Override
+        public void paint(Graphics2D g, int pageIndex) {
+            double areaWidth = PAGE_WIDTH - IMAGE_MARGIN * 2;
+            double areaHeight = PAGE_HEIGHT - IMAGE_MARGIN * 2;
+            double width = image.getWidth();
+            double height = image.getHeight();
+            boolean rotate = width > height;
+            double drawWidth = rotate ? height : width;
+            double drawHeight = rotate ? width : height;
+            double scale = Math.min(areaWidth / drawWidth, areaHeight / drawHeight);
+
+            AffineTransform transform = new AffineTransform();
+            transform.translate(IMAGE_MARGIN + (areaWidth - drawWidth * scale) / 2,
+                    IMAGE_MARGIN + (areaHeight - drawHeight * scale) / 2);
+            transform.scale(scale, scale);
+            if (rotate) {
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+            }
+            g.drawImage(image, transform, null);
+        }
+    }
+
+    /**
+     * 纯文本页面，等宽字体按页面宽度折行，换页符强制分页
+     */
+    private static final class TextPages implements PageSource {
+        private final List<List<String>> pages;
+        private final float lineHeight;
+        private final float ascent;
+
+        private TextPages(List<List<String>> pages, float lineHeight, float ascent) {
+            this.pages = pages;
+            this.lineHeight = lineHeight;
+            this.ascent = ascent;
+        }
+
+        static TextPages load(Path source) throws IOException {
+            String text = decode(Files.readAllBytes(source));
+
+            BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = scratch.createGraphics();
+            FontMetrics metrics;
+            try {
+                applyHints(g);
+                metrics = g.getFontMetrics(TEXT_FONT);
+            } finally {
+                g.dispose();
+            }
+            float lineHeight = metrics.getHeight();
+            double maxWidth = PAGE_WIDTH - TEXT_MARGIN * 2;
+            int linesPerPage = Math.max(1, (int) ((PAGE_HEIGHT - TEXT_MARGIN * 2) / lineHeight));
+
+            List<List<String>> pages = new ArrayList<>();
+            List<String> page = new ArrayList<>();
+            for (String rawLine : text.split("\n", -1)) {
+                String[] parts = rawLine.split("\f", -1);
+                for (int p = 0; p < parts.length; p++) {
+                    if (p > 0) {
+                        pages.add(page);
+                        page = new ArrayList<>();
+                    }
+                    for (String line : wrap(expandTabs(stripCarriageReturn(parts[p])), metrics, maxWidth)) {
+                        if (page.size() == linesPerPage) {
+                            pages.add(page);
+                            page = new ArrayList<>();
+                        }
+                        page.add(line);
+                    }
+                }
+            }
+            if (!page.isEmpty() || pages.isEmpty()) {
+                pages.add(page);
+            }
+            return new TextPages(pages, lineHeight, metrics.getAscent());
+        }
+
+        @Override
+        public int getPageCount() {
+            return pages.size();
+        }
+
+        @Override
+        public void paint(Graphics2D g, int pageIndex) {
+            g.setFont(TEXT_FONT);
+            g.setColor(Color.BLACK);
+            float y = (float) TEXT_MARGIN + ascent;
+            for (String line : pages.get(pageIndex)) {
+                g.drawString(line, (float) TEXT_MARGIN, y);
+                y += lineHeight;
+            }
+        }
+
+        /**
+         * 按 UTF-8 解码，失败时按 GB18030 解码，与上传时的文本校验一致
+         */
+        private static String decode(byte[] bytes) throws CharacterCodingException {
+            int offset = bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB
+                    && (bytes[2] & 0xFF) == 0xBF ? 3 : 0;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, bytes.length - offset);
+            try {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(buffer)
+                        .toString();
+            } catch (CharacterCodingException e) {
+                return GB18030.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(ByteBuffer.wrap(bytes))
+                        .toString();
+            }
+        }
+
+        private static String stripCarriageReturn(String line) {
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        private static String expandTabs(String line) {
+            if (line.indexOf('\t') < 0) {
+                return line;
+            }
+            StringBuilder builder = new StringBuilder(line.length() + TAB_SIZE);
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\t') {
+                    do {
+                        builder.append(' ');
+                    } while (builder.length() % TAB_SIZE != 0);
+                } else {
+                    builder.append(c);
+                }
+            }
+            return builder.toString();
+        }
+
+        private static List<String> wrap(String line, FontMetrics metrics, double maxWidth) {
+            List<String> lines = new ArrayList<>();
+            int start = 0;
+            double width = 0;
+            for (int i = 0; i < line.length(); i++) {
+                double charWidth = metrics.charWidth(line.charAt(i));
+                if (width + charWidth > maxWidth && i > start) {
+                    lines.add(line.substring(start, i));
+                    start = i;
+                    width = 0;
+                }
+                width += charWidth;
+            }
+            lines.add(line.substring(start));
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.PrintJournalConfig;
+import online.fantao.tools.printservice.service.RenderOptions;
+
+/**
+ * 打印任务日志
+ * 任务提交和结束事件追加写入内存映射的日志段文件，记录格式为 长度 + CRC32C + 内容；
+ * 提交和结束事件都等待刷盘后才返回，刷盘由单个线程执行，等待期间到达的记录在同一次刷盘中提交（组提交）。
+ * 启动时从最新的快照和之后的日志段重放出仍未结束的任务；定期把未结束的任务写入新快照，删除旧的日志段。
+ * 打印中的任务在重启后重新打印，保证任务不丢失，但可能重复打印
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class JobJournal {
+
+    private static final byte TYPE_SUBMITTED = 1;
+    private static final byte TYPE_FINISHED = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int SNAPSHOT_MAGIC = 0x504A534E;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^segment-(\\d{20})\\.log$");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("^snapshot-(\\d{20})\\.snap$");
+
+    private final PrintJournalConfig journalConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2,
+            new CustomizableThreadFactory("print-journal-"));
+
+    /**
+     * 保护当前日志段、写入位置和未结束任务表
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * 保护刷盘进度，提交方在 durable 条件上等待刷盘，刷盘线程在 pending 条件上等待新记录
+     */
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition pending = commitLock.newCondition();
+    private final Condition durable = commitLock.newCondition();
+
+    /**
+     * 未结束任务的提交记录，按提交顺序排列，压缩时写入快照
+     */
+    private final Map<String, byte[]> live = new LinkedHashMap<>();
+
+    /**
+     * 启动时重放出的未结束任务
+     */
+    private final List<PrintJob> recovered = new ArrayList<>();
+
+    private Path dir;
+    private Segment segment;
+
+    /**
+     * 已写入和已刷盘的日志序号（累计字节数），只增不减
+     */
+    private volatile long written;
+    private volatile long flushed;
+    private long writtenRecords;
+    private long flushedRecords;
+
+    /**
+     * 上次压缩后写入的记录数，没有新记录时跳过压缩
+     */
+    private long recordsSinceCompaction;
+
+    private volatile boolean running;
+    private Timer syncTimer;
+    private DistributionSummary batchSummary;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!Boolean.TRUE.equals(journalConfig.getEnabled())) {
+            return;
+        }
+        dir = Paths.get(journalConfig.getDir()).toAbsolutePath().normalize();
+        Files.createDirectories(dir);
+        syncTimer = meterRegistry.timer("print.journal.sync");
+        batchSummary = DistributionSummary.builder("print.journal.batch").register(meterRegistry);
+
+        recover();
+        running = true;
+        executor.execute(this::flushLoop);
+        long interval = Math.max(1000, journalConfig.getCompactInterval());
+        executor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        commitLock.lock();
+        try {
+            pending.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        executor.shutdownNow();
+        appendLock.lock();
+        try {
+            segment.buffer.force();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * 取出启动时重放出的未结束任务，按提交顺序排列，只能取一次
+     */
+    List<PrintJob> takeRecovered() {
+        List<PrintJob> jobs = new ArrayList<>(recovered);
+        recovered.clear();
+        return jobs;
+    }
+
+    /**
+     * 记录任务提交，返回时记录已经刷盘
+     */
+    void submitted(PrintJob job) {
+        if (!running) {
+            return;
+        }
+        byte[] payload = encodeSubmitted(job);
+        long position = append(job.getId(), payload, true);
+        awaitDurable(position);
+    }
+
+    /**
+     * 记录任务结束，返回时记录已经刷盘
+     * 任务在此之后才释放文件引用，重启后不会重放出引用已释放的任务
+     */
+    void finished(PrintJob job) {
+        if (!running) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TYPE_FINISHED);
+            out.writeUTF(job.getId());
+            out.writeUTF(job.getStatus());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        long position = append(job.getId(), bytes.toByteArray(), false);
+        awaitDurable(position);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param submitted 是否为提交记录，提交记录加入未结束任务表，其他记录从表中移除任务
+     * @return 记录结束位置的日志序号
+     */
+    private long append(String jobId, byte[] payload, boolean submitted) {
+        int length = HEADER_SIZE + payload.length;
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long position;
+        appendLock.lock();
+        try {
+            if (segment.position + length > segment.buffer.capacity()) {
+                roll();
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.put(segment.position + HEADER_SIZE, payload);
+            buffer.putInt(segment.position + 4, (int) crc.getValue());
+            buffer.putInt(segment.position, payload.length);
+            segment.position += length;
+            written += length;
+            writtenRecords++;
+            recordsSinceCompaction++;
+            position = written;
+            if (submitted) {
+                live.put(jobId, payload);
+            } else {
+                live.remove(jobId);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("写入任务日志失败", e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        commitLock.lock();
+        try {
+            pending.signal();
+        } finally {
+            commitLock.unlock();
+        }
+        return position;
+    }
+
+    private void awaitDurable(long position) {
+        if (flushed >= position) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (flushed < position) {
+                if (!running) {
+                    throw new BusinessException("任务日志已关闭");
+                }
+                durable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("等待任务日志刷盘时被中断");
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘线程，每次刷盘提交此前写入的所有记录
+     */
+    private void flushLoop() {
+        while (running) {
+            commitLock.lock();
+            try {
+                while (running && flushed >= written) {
+                    pending.await();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                commitLock.unlock();
+            }
+
+            Segment target;
+            int from;
+            int to;
+            long position;
+            long records;
+            appendLock.lock();
+            try {
+                target = segment;
+                from = target.flushed;
+                to = target.position;
+                position = written;
+                records = writtenRecords - flushedRecords;
+                flushedRecords = writtenRecords;
+            } finally {
+                appendLock.unlock();
+            }
+
+            long start = System.nanoTime();
+            if (to > from) {
+                target.buffer.force(from, to - from);
+            }
+            target.flushed = to;
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSummary.record(records);
+
+            commitLock.lock();
+            try {
+                flushed = position;
+                durable.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+        commitLock.lock();
+        try {
+            durable.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 切换到下一个日志段，调用方持有 appendLock
+     * 旧日志段在切换前整体刷盘，之后的刷盘只涉及新日志段
+     */
+    private void roll() throws IOException {
+        segment.buffer.force();
+        segment.flushed = segment.position;
+        written += segment.buffer.capacity() - segment.position;
+        segment = openSegment(segment.sequence + 1, true);
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("压缩任务日志失败", e);
+        }
+    }
+
+    /**
+     * 压缩：切换到新日志段，把此刻未结束的任务写入以新日志段序号命名的快照，
+     * 再删除更早的日志段和快照；重放时从快照开始，只读取不早于快照序号的日志段
+     */
+    void compact() throws IOException {
+        long snapshotSequence;
+        List<byte[]> payloads;
+        appendLock.lock();
+        try {
+            if (recordsSinceCompaction == 0) {
+                return;
+            }
+            recordsSinceCompaction = 0;
+            roll();
+            snapshotSequence = segment.sequence;
+            payloads = new ArrayList<>(live.values());
+        } finally {
+            appendLock.unlock();
+        }
+
+        Path snapshot = dir.resolve(String.format("snapshot-%020d.snap", snapshotSequence));
+        Path temp = dir.resolve(snapshot.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(SNAPSHOT_MAGIC).putInt(payloads.size()).flip();
+            writeFully(channel, header);
+            for (byte[] payload : payloads) {
+                writeFully(channel, frame(payload));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+
+        for (Map.Entry<Long, Path> entry : listFiles(SEGMENT_NAME).headMap(snapshotSequence).entrySet()) {
+            Files.deleteIfExists(entry.getValue());
+        }
+        for (Map.Entry<Long, Path> entry : listFiles(SNAPSHOT_NAME).headMap(snapshotSequence).entrySet()) {
+            Files.deleteIfExists(entry.getValue());
+        }
+        log.debug("任务日志已压缩，快照 {}，未结束任务 {} 个", snapshot.getFileName(), payloads.size());
+    }
+
+    /**
+     * 从最新的完整快照和之后的日志段重放出未结束的任务，并定位写入位置
+     */
+    private void recover() throws IOException {
+        TreeMap<Long, Path> snapshots = listFiles(SNAPSHOT_NAME);
+        long startSequence = 0;
+        for (Map.Entry<Long, Path> entry : snapshots.descendingMap().entrySet()) {
+            List<byte[]> payloads = readSnapshot(entry.getValue());
+            if (payloads != null) {
+                for (byte[] payload : payloads) {
+                    apply(payload);
+                }
+                startSequence = entry.getKey();
+                break;
+            }
+            log.warn("任务日志快照不完整，忽略: {}", entry.getValue());
+        }
+
+        TreeMap<Long, Path> segments = listFiles(SEGMENT_NAME);
+        for (Path stale : segments.headMap(startSequence).values()) {
+            Files.deleteIfExists(stale);
+        }
+        Segment last = null;
+        for (Map.Entry<Long, Path> entry : segments.tailMap(startSequence).entrySet()) {
+            Segment current = openSegment(entry.getKey(), false);
+            current.position = replay(current.buffer);
+            if (last != null && last.position < last.buffer.capacity()
+                    && last.buffer.getInt(last.position) != 0) {
+                log.warn("任务日志段 {} 在位置 {} 之后的记录已损坏", last.sequence, last.position);
+            }
+            last = current;
+        }
+
+        if (last == null) {
+            segment = openSegment(startSequence, true);
+        } else {
+            segment = last;
+            // 清空最后一个日志段有效记录之后的内容，崩溃时写了一半的记录不会在之后被误读
+            int capacity = segment.buffer.capacity();
+            int i = segment.position;
+            for (; i + Long.BYTES <= capacity; i += Long.BYTES) {
+                segment.buffer.putLong(i, 0L);
+            }
+            for (; i < capacity; i++) {
+                segment.buffer.put(i, (byte) 0);
+            }
+            segment.buffer.force();
+        }
+        segment.flushed = segment.position;
+        written = segment.sequence * (long) segment.buffer.capacity() + segment.position;
+        flushed = written;
+
+        for (byte[] payload : live.values()) {
+            recovered.add(decodeSubmitted(payload));
+        }
+        // 有历史日志时在第一次压缩周期清理旧日志段
+        recordsSinceCompaction = last == null ? 0 : 1;
+        if (!recovered.isEmpty()) {
+            log.info("从任务日志恢复了 {} 个未结束的打印任务", recovered.size());
+        }
+    }
+
+    /**
+     * 重放一个日志段
+     * @return 最后一条有效记录之后的位置
+     */
+    private int replay(MappedByteBuffer buffer) throws IOException {
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            apply(payload);
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            String jobId = in.readUTF();
+            if (type == TYPE_SUBMITTED) {
+                live.put(jobId, payload);
+            } else if (type == TYPE_FINISHED) {
+                live.remove(jobId);
+            }
+        }
+    }
+
+    /**
+     * 读取快照
+     * @return 快照中的提交记录，快照不完整时返回 null
+     */
+    private List<byte[]> readSnapshot(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != SNAPSHOT_MAGIC) {
+            return null;
+        }
+        int count = buffer.getInt();
+        List<byte[]> payloads = new ArrayList<>(Math.max(0, count));
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < HEADER_SIZE) {
+                return null;
+            }
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    private Segment openSegment(long sequence, boolean create) throws IOException {
+        Path file = dir.resolve(String.format("segment-%020d.log", sequence));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            if (create || raf.length() < journalConfig.getSegmentSize()) {
+                raf.setLength(Math.max(raf.length(), journalConfig.getSegmentSize()));
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            return new Segment(sequence, buffer);
+        }
+    }
+
+    private TreeMap<Long, Path> listFiles(Pattern pattern) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 刷新目录，确保快照的重命名在删除旧日志段之前落盘
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 部分平台不支持刷新目录
+            log.debug("刷新任务日志目录失败: {}", e.getMessage());
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] encodeSubmitted(PrintJob job) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TYPE_SUBMITTED);
+            out.writeUTF(job.getId());
+            out.writeUTF(job.getFileId());
+            out.writeUTF(job.getFile().toString());
+            writeNullableLong(out, job.getPrinterId());
+            writeNullableLong(out, job.getPoolId());
+            out.writeUTF(job.getOwner());
+            out.writeUTF(job.getPriority());
+            out.writeInt(job.getCopies());
+            out.writeLong(job.getSize());
+            out.writeLong(job.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            RenderOptions options = job.getRenderOptions();
+            out.writeBoolean(options != null);
+            if (options != null) {
+                out.writeUTF(options.getFormat());
+                out.writeInt(options.getDpi());
+                out.writeBoolean(options.isDuplex());
+                out.writeInt(options.getNumberUp());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PrintJob decodeSubmitted(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            in.readByte();
+            String id = in.readUTF();
+            String fileId = in.readUTF();
+            Path file = Paths.get(in.readUTF());
+            Long printerId = readNullableLong(in);
+            Long poolId = readNullableLong(in);
+            String owner = in.readUTF();
+            String priority = in.readUTF();
+            int copies = in.readInt();
+            long size = in.readLong();
+            LocalDateTime createTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+            RenderOptions options = in.readBoolean()
+                    ? new RenderOptions(in.readUTF(), in.readInt(), in.readBoolean(), in.readInt())
+                    : null;
+            return new PrintJob(id, fileId, file, printerId, poolId, owner, priority, copies, size, options, createTime);
+        }
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    /**
+     * 日志段
+     */
+    private static final class Segment {
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+        /**
+         * 写入位置，持有 appendLock 时访问
+         */
+        private int position;
+        /**
+         * 已刷盘的位置
+         */
+        private volatile int flushed;
+
+        private Segment(long sequence, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+    }
+}
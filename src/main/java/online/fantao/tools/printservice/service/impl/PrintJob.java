@@ -0,0 +1,255 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import online.fantao.tools.printservice.service.RenderOptions;
+import online.fantao.tools.printservice.vo.PrintJobVO;
+
+/**
+ * 打印任务
+ * 状态流转：QUEUED -> PRINTING -> COMPLETED/FAILED，排队中的任务可以被取消；
+ * 提交到打印机池的任务在发送失败时可以回到 QUEUED，转移到其他成员打印机
+ */
+final class PrintJob {
+
+    static final String QUEUED = "QUEUED";
+    static final String PRINTING = "PRINTING";
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+    static final String CANCELLED = "CANCELLED";
+
+    private final String id;
+    private final String fileId;
+    private final Path file;
+    private final Long poolId;
+    /**
+     * 提交者（用户或租户），同一优先级内按提交者公平调度
+     */
+    private final String owner;
+    /**
+     * 优先级：HIGH、NORMAL、LOW
+     */
+    private final String priority;
+    private final int copies;
+    /**
+     * 需要发送的字节数（文件大小乘以份数），用于估算完成时间
+     */
+    private final long size;
+    /**
+     * 渲染参数，为空时直接发送原文件
+     */
+    private final RenderOptions renderOptions;
+    private final LocalDateTime createTime;
+    private final AtomicReference<String> status = new AtomicReference<>(QUEUED);
+    /**
+     * 已失败或已离线的打印机，转移任务时不再选择
+     */
+    private final Set<Long> excludedPrinters = ConcurrentHashMap.newKeySet();
+
+    private volatile Long printerId;
+    private volatile long bytesSent;
+    private volatile long totalBytes;
+    private volatile String message;
+    private volatile LocalDateTime startTime;
+    private volatile LocalDateTime finishTime;
+
+    PrintJob(String id, String fileId, Path file, Long printerId, Long poolId, String owner, String priority,
+            int copies, long size, RenderOptions renderOptions, LocalDateTime createTime) {
+        this.id = id;
+        this.fileId = fileId;
+        this.file = file;
+        this.printerId = printerId;
+        this.poolId = poolId;
+        this.owner = owner;
+        this.priority = priority;
+        this.copies = copies;
+        this.size = size;
+        this.renderOptions = renderOptions;
+        this.createTime = createTime;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getFileId() {
+        return fileId;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    RenderOptions getRenderOptions() {
+        return renderOptions;
+    }
+
+    Long getPrinterId() {
+        return printerId;
+    }
+
+    Long getPoolId() {
+        return poolId;
+    }
+
+    String getOwner() {
+        return owner;
+    }
+
+    String getPriority() {
+        return priority;
+    }
+
+    int getCopies() {
+        return copies;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getBytesSent() {
+        return bytesSent;
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    Set<Long> getExcludedPrinters() {
+        return excludedPrinters;
+    }
+
+    /**
+     * 分配到打印机，只在任务不在任何打印机队列中时调用
+     */
+    void assign(Long printerId) {
+        this.printerId = printerId;
+    }
+
+    /**
+     * 排除打印机，之后转移任务时不再选择
+     */
+    void exclude(Long printerId) {
+        excludedPrinters.add(printerId);
+    }
+
+    String getStatus() {
+        return status.get();
+    }
+
+    boolean isFinished() {
+        return finishTime != null;
+    }
+
+    /**
+     * 开始打印
+     * @return 任务仍在排队时返回 true
+     */
+    boolean start() {
+        if (!status.compareAndSet(QUEUED, PRINTING)) {
+            return false;
+        }
+        startTime = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * 取消排队中的任务
+     * @return 是否取消成功
+     */
+    boolean cancel() {
+        if (!status.compareAndSet(QUEUED, CANCELLED)) {
+            return false;
+        }
+        finishTime = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * 发送失败后重新排队
+     * @return 任务仍在打印时返回 true
+     */
+    boolean requeue() {
+        if (!status.compareAndSet(PRINTING, QUEUED)) {
+            return false;
+        }
+        startTime = null;
+        bytesSent = 0;
+        totalBytes = 0;
+        return true;
+    }
+
+    void complete() {
+        finish(COMPLETED, null);
+    }
+
+    void fail(String message) {
+        finish(FAILED, message);
+    }
+
+    private void finish(String finalStatus, String finalMessage) {
+        message = finalMessage;
+        status.set(finalStatus);
+        finishTime = LocalDateTime.now();
+    }
+
+    void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    PrintJobVO toVO() {
+        PrintJobVO vo = new PrintJobVO();
+        vo.setJobId(id);
+        vo.setFileId(fileId);
+        vo.setPrinterId(printerId);
+        vo.setPoolId(poolId);
+        vo.setOwner(owner);
+        vo.setPriority(priority);
+        vo.setCopies(copies);
+        if (renderOptions != null) {
+            vo.setFormat(renderOptions.getFormat());
+            vo.setDpi(renderOptions.getDpi());
+            vo.setDuplex(renderOptions.isDuplex());
+            vo.setNumberUp(renderOptions.getNumberUp());
+        }
+        vo.setStatus(status.get());
+        vo.setStatusText(convertStatusText(vo.getStatus()));
+        vo.setBytesSent(bytesSent);
+        vo.setTotalBytes(totalBytes);
+        vo.setMessage(message);
+        vo.setCreateTime(createTime);
+        vo.setStartTime(startTime);
+        vo.setFinishTime(finishTime);
+        return vo;
+    }
+
+    private static String convertStatusText(String status) {
+        switch (status) {
+            case QUEUED:
+                return "排队中";
+            case PRINTING:
+                return "打印中";
+            case COMPLETED:
+                return "已完成";
+            case FAILED:
+                return "失败";
+            case CANCELLED:
+                return "已取消";
+            default:
+                return "未知";
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.bo.PrintJobBO;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.common.TooManyRequestsException;
+import online.fantao.tools.printservice.config.PrintJobConfig;
+import online.fantao.tools.printservice.config.PrintPoolConfig;
+import online.fantao.tools.printservice.config.PrintRenderConfig;
+import online.fantao.tools.printservice.convert.PrinterConverter;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.event.PrinterStatusChangedEvent;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.mapper.PrinterPoolMapper;
+import online.fantao.tools.printservice.mapper.PrinterPoolMemberMapper;
+import online.fantao.tools.printservice.service.FileStorageService;
+import online.fantao.tools.printservice.service.PrintJobService;
+import online.fantao.tools.printservice.service.RenderOptions;
+import online.fantao.tools.printservice.vo.PrintJobVO;
+import online.fantao.tools.printservice.vo.PrintQueueStatsVO;
+import online.fantao.tools.printservice.vo.PrinterLoadVO;
+
+/**
+ * 打印任务服务实现类
+ * 提交接口只负责入队，打印机 I/O 全部在对应打印机的工作线程中完成；
+ * 每台打印机的队列按优先级、小任务快速通道和提交者加权公平调度，见 {@link FairJobQueue}；
+ * 任务提交和结束写入 {@link JobJournal}，重启后恢复未结束的任务。
+ * 提交到打印机池的任务分配给预计最早完成的可用成员，预计完成时间由排队的任务数、字节数和实测发送速率估算；
+ * 成员离线、出错或连接失败时，尚未发送数据的任务转移到其他成员
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrintJobServiceImpl implements PrintJobService {
+
+    private static final String STATUS_OFFLINE = "OFFLINE";
+    private static final String STATUS_ERROR = "ERROR";
+    private static final String ANONYMOUS_OWNER = "anonymous";
+
+    private final PrinterMapper printerMapper;
+    private final PrinterPoolMapper printerPoolMapper;
+    private final PrinterPoolMemberMapper printerPoolMemberMapper;
+    private final PrinterStatusWriter printerStatusWriter;
+    private final FileStorageService fileStorageService;
+    private final PrintJobConfig printJobConfig;
+    private final RawPrintTransport rawPrintTransport;
+    private final ThreadFactoryProvider threadFactoryProvider;
+    private final RenderCache renderCache;
+    private final PrintRenderConfig renderConfig;
+    private final PrintPoolConfig poolConfig;
+    private final MeterRegistry meterRegistry;
+    private final JobJournal jobJournal;
+
+    private final Map<String, PrintJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, PrinterWorker> workers = new ConcurrentHashMap<>();
+
+    /**
+     * 已结束的任务，按结束顺序排列，用于限制内存中保留的任务数
+     */
+    private final ConcurrentLinkedQueue<PrintJob> finishedJobs = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 预计完成时间相同的打印机之间轮流选择的起点，避免空闲时总是选中第一台
+     */
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    /**
+     * 转移不可用打印机上排队的任务，状态事件在状态写入和 SNMP 轮询线程中发布，查询数据库的处理不在这些线程中执行
+     */
+    private ExecutorService failoverExecutor;
+
+    @PostConstruct
+    public void init() {
+        failoverExecutor = Executors.newSingleThreadExecutor(threadFactoryProvider.newThreadFactory("print-failover-"));
+    }
+
+    @Override
+    public PrintJobVO submitJob(PrintJobBO printJobBO) {
+        if ((printJobBO.getPrinterId() == null) == (printJobBO.getPoolId() == null)) {
+            throw new BusinessException("打印机ID和打印机池ID必须指定其中一个");
+        }
+        List<Printer> candidates = null;
+        if (printJobBO.getPoolId() != null) {
+            if (printerPoolMapper.selectById(printJobBO.getPoolId()) == null) {
+                throw new BusinessException("打印机池不存在");
+            }
+            candidates = availableMembers(printJobBO.getPoolId());
+            if (candidates.isEmpty()) {
+                throw new BusinessException("打印机池中没有可用的打印机");
+            }
+        } else if (printerMapper.selectById(printJobBO.getPrinterId()) == null) {
+            throw new BusinessException("打印机不存在");
+        }
+        Path file = fileStorageService.resolve(printJobBO.getFileId());
+        RenderOptions renderOptions = resolveRenderOptions(printJobBO);
+        int copies = printJobBO.getCopies() == null ? 1 : printJobBO.getCopies();
+        String owner = StringUtils.hasText(printJobBO.getOwner()) ? printJobBO.getOwner() : ANONYMOUS_OWNER;
+        String priority = StringUtils.hasText(printJobBO.getPriority()) ? printJobBO.getPriority() : FairJobQueue.PRIORITY_NORMAL;
+
+        PrintJob job = new PrintJob(UUID.randomUUID().toString(), printJobBO.getFileId(), file,
+                printJobBO.getPrinterId(), printJobBO.getPoolId(), owner, priority, copies, fileSize(file) * copies,
+                renderOptions, LocalDateTime.now());
+        // 任务结束前持有文件引用，文件的上传记录被删除后也不会被垃圾回收
+        fileStorageService.addReference(job.getFileId());
+        jobs.put(job.getId(), job);
+        // 刷盘后再入队，返回给调用方的任务在崩溃后一定可以恢复
+        try {
+            jobJournal.submitted(job);
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            fileStorageService.removeReference(job.getFileId());
+            throw e;
+        }
+
+        boolean queued = candidates != null
+                ? dispatch(job, candidates)
+                : workers.computeIfAbsent(job.getPrinterId(), this::createWorker).offer(job);
+        if (!queued) {
+            jobs.remove(job.getId());
+            jobJournal.finished(job);
+            fileStorageService.removeReference(job.getFileId());
+            throw new TooManyRequestsException("打印机队列已满，请稍后重试");
+        }
+        return job.toVO();
+    }
+
+    /**
+     * 启动完成后把任务日志中未结束的任务重新入队
+     * 打印机池的任务重新选择成员，没有可用成员时放回原打印机的队列
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverJobs() {
+        List<PrintJob> recovered = jobJournal.takeRecovered();
+        int failed = 0;
+        for (PrintJob job : recovered) {
+            jobs.put(job.getId(), job);
+            try {
+                // 文件引用只保存在内存中，重启后重新持有
+                fileStorageService.addReference(job.getFileId());
+            } catch (BusinessException e) {
+                job.fail("文件不存在");
+                retire(job);
+                failed++;
+                continue;
+            }
+            boolean queued = false;
+            if (job.getPoolId() != null) {
+                List<Printer> candidates = availableMembers(job.getPoolId());
+                queued = !candidates.isEmpty() && dispatch(job, candidates);
+            }
+            if (!queued && job.getPrinterId() == null) {
+                // 提交时记录的是打印机池，成员都不可用时放到第一个成员的队列，等待恢复
+                printerPoolMemberMapper.selectPrinterIds(job.getPoolId()).stream().findFirst().ifPresent(job::assign);
+            }
+            if (!queued && job.getPrinterId() != null) {
+                queued = workers.computeIfAbsent(job.getPrinterId(), this::createWorker).offer(job);
+            }
+            if (!queued) {
+                job.fail("恢复任务时打印机队列已满");
+                retire(job);
+                failed++;
+            }
+        }
+        if (!recovered.isEmpty()) {
+            log.info("恢复打印任务 {} 个，失败 {} 个", recovered.size(), failed);
+        }
+    }
+
+    @Override
+    public List<PrintQueueStatsVO> getQueueStats(Long printerId) {
+        return workers.values().stream()
+                .filter(worker -> printerId == null || printerId.equals(worker.getPrinterId()))
+                .sorted(Comparator.comparing(PrinterWorker::getPrinterId))
+                .flatMap(worker -> worker.stats().stream())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<PrinterLoadVO> getPoolLoad(Long poolId) {
+        if (printerPoolMapper.selectById(poolId) == null) {
+            throw new BusinessException("打印机池不存在");
+        }
+        List<Long> printerIds = printerPoolMemberMapper.selectPrinterIds(poolId);
+        if (printerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Printer> printers = new HashMap<>();
+        for (Printer printer : printerMapper.selectByIds(printerIds)) {
+            printerStatusWriter.overlay(printer);
+            printers.put(printer.getId(), printer);
+        }
+        List<PrinterLoadVO> loads = new ArrayList<>();
+        for (Long printerId : printerIds) {
+            Printer printer = printers.get(printerId);
+            if (printer == null) {
+                continue;
+            }
+            PrinterWorker worker = workers.get(printerId);
+            PrinterLoadVO load = new PrinterLoadVO();
+            load.setPrinterId(printerId);
+            load.setName(printer.getName());
+            load.setStatus(printer.getStatus());
+            load.setStatusText(PrinterConverter.statusText(printer.getStatus()));
+            load.setAvailable(isAvailable(printer));
+            load.setPendingJobs(worker == null ? 0 : worker.pendingJobs());
+            load.setPendingBytes(worker == null ? 0 : worker.pendingBytes());
+            load.setThroughput(worker == null ? poolConfig.getDefaultThroughput()
+                    : worker.throughput(poolConfig.getDefaultThroughput()));
+            load.setEstimatedWait(estimateWait(worker, 0));
+            loads.add(load);
+        }
+        return loads;
+    }
+
+    @Override
+    public PrintJobVO getJob(String jobId) {
+        return requireJob(jobId).toVO();
+    }
+
+    @Override
+    public List<PrintJobVO> listJobs(Long printerId) {
+        return jobs.values().stream()
+                .filter(job -> printerId == null || printerId.equals(job.getPrinterId()))
+                .map(PrintJob::toVO)
+                .sorted(Comparator.comparing(PrintJobVO::getCreateTime))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean cancelJob(String jobId) {
+        PrintJob job = requireJob(jobId);
+        if (!job.cancel()) {
+            return false;
+        }
+        PrinterWorker worker = workers.get(job.getPrinterId());
+        if (worker != null) {
+            worker.remove(job);
+        }
+        retire(job);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        failoverExecutor.shutdownNow();
+        workers.values().forEach(PrinterWorker::stop);
+    }
+
+    private PrinterWorker createWorker(Long printerId) {
+        FairJobQueue queue = new FairJobQueue(printerId, printJobConfig.getQueueCapacity(),
+                printJobConfig.getSmallJobSize(), printJobConfig.getFastLaneBurst(),
+                owner -> printJobConfig.getWeights().getOrDefault(owner, 1.0), meterRegistry);
+        PrinterWorker worker = new PrinterWorker(printerId, queue, this::process,
+                threadFactoryProvider.newThreadFactory("print-worker-"));
+        worker.start();
+        return worker;
+    }
+
+    /**
+     * 成员打印机离线、出错或被删除时，把排队中的打印机池任务转移到其他可用成员
+     * 没有其他可用成员时任务留在原队列，打印机恢复后继续打印
+     */
+    @EventListener
+    public void onStatusChanged(PrinterStatusChangedEvent event) {
+        if (!event.isRemoved() && !STATUS_OFFLINE.equals(event.getStatus()) && !STATUS_ERROR.equals(event.getStatus())) {
+            return;
+        }
+        if (!workers.containsKey(event.getPrinterId())) {
+            return;
+        }
+        try {
+            failoverExecutor.execute(() -> moveQueuedJobs(event.getPrinterId()));
+        } catch (RejectedExecutionException e) {
+            // 关闭过程中拒绝提交，未转移的任务保留在任务日志中，重启后重新分配
+            log.debug("服务关闭中，不再转移打印机 {} 的任务", event.getPrinterId());
+        }
+    }
+
+    /**
+     * 把不可用打印机上排队的打印机池任务转移到其他可用成员，在转移线程中执行
+     */
+    private void moveQueuedJobs(Long unavailablePrinterId) {
+        PrinterWorker worker = workers.get(unavailablePrinterId);
+        if (worker == null) {
+            return;
+        }
+        Map<Long, List<Printer>> membersByPool = new HashMap<>();
+        for (PrintJob job : worker.queuedJobs()) {
+            if (job.getPoolId() == null) {
+                continue;
+            }
+            job.exclude(unavailablePrinterId);
+            List<Printer> candidates = membersByPool.computeIfAbsent(job.getPoolId(), this::availableMembers).stream()
+                    .filter(printer -> !job.getExcludedPrinters().contains(printer.getId()))
+                    .collect(Collectors.toList());
+            if (candidates.isEmpty() || !worker.remove(job)) {
+                continue;
+            }
+            if (dispatch(job, candidates)) {
+                log.info("打印机 {} 不可用，任务 {} 转移到打印机 {}", unavailablePrinterId, job.getId(), job.getPrinterId());
+            } else if (!worker.offer(job)) {
+                job.fail("打印机池中没有可以接收任务的打印机");
+                retire(job);
+            }
+        }
+    }
+
+    /**
+     * 处理打印任务，在打印机工作线程中执行
+     */
+    private void process(PrintJob job) {
+        if (!job.start()) {
+            return;
+        }
+        Long printerId = job.getPrinterId();
+        try {
+            Printer printer = printerMapper.selectById(printerId);
+            if (printer == null) {
+                throw new BusinessException("打印机不存在");
+            }
+            Path file = job.getFile();
+            Path rendered = null;
+            if (job.getRenderOptions() != null) {
+                // 同一文件以相同参数重复打印时直接使用缓存的渲染结果，发送完成前不会被淘汰
+                rendered = renderCache.render(file, job.getFileId(), fileExtension(job.getFileId()), job.getRenderOptions());
+                file = rendered;
+            }
+            long startTime = System.nanoTime();
+            long sent;
+            try {
+                sent = rawPrintTransport.send(file, job.getCopies(), printer.getIpAddress(), printer.getPort(),
+                        (bytesSent, totalBytes) -> {
+                            job.setTotalBytes(totalBytes);
+                            job.setBytesSent(bytesSent);
+                        });
+            } catch (IOException e) {
+                // 打印机还没有收到数据时转移到其他成员，已发送部分数据的任务转移后可能重复打印，直接失败
+                if (job.getBytesSent() == 0 && failover(job, printerId)) {
+                    log.warn("打印机 {} 发送失败，任务 {} 转移到打印机 {}: {}", printer.getName(), job.getId(),
+                            job.getPrinterId(), e.getMessage());
+                    return;
+                }
+                throw e;
+            } finally {
+                if (rendered != null) {
+                    renderCache.release(rendered);
+                }
+            }
+            PrinterWorker worker = workers.get(printerId);
+            if (worker != null) {
+                worker.recordTransfer(sent, System.nanoTime() - startTime, poolConfig.getThroughputWeight());
+            }
+            job.complete();
+            log.info("打印任务完成: {}, 打印机: {}", job.getId(), printer.getName());
+        } catch (Exception e) {
+            log.error("打印任务失败: {}", job.getId(), e);
+            job.fail(e.getMessage());
+        }
+        retire(job);
+    }
+
+    /**
+     * 把发送失败的打印机池任务转移到其他可用成员
+     * @return 是否已转移
+     */
+    private boolean failover(PrintJob job, Long failedPrinterId) {
+        if (job.getPoolId() == null) {
+            return false;
+        }
+        job.exclude(failedPrinterId);
+        List<Printer> candidates = availableMembers(job.getPoolId()).stream()
+                .filter(printer -> !job.getExcludedPrinters().contains(printer.getId()))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty() || !job.requeue()) {
+            return false;
+        }
+        if (dispatch(job, candidates)) {
+            return true;
+        }
+        job.assign(failedPrinterId);
+        return false;
+    }
+
+    /**
+     * 按预计完成时间从早到晚尝试把任务放入成员打印机的队列
+     * @return 所有成员的队列都已满时返回 false
+     */
+    private boolean dispatch(PrintJob job, List<Printer> candidates) {
+        List<PrinterWorker> ordered = new ArrayList<>(candidates.size());
+        for (Printer printer : candidates) {
+            ordered.add(workers.computeIfAbsent(printer.getId(), this::createWorker));
+        }
+        // 先轮转再稳定排序，预计完成时间相同的打印机轮流排在前面
+        Collections.rotate(ordered, -Math.floorMod(rotation.getAndIncrement(), ordered.size()));
+        Map<PrinterWorker, Long> estimates = new HashMap<>();
+        for (PrinterWorker worker : ordered) {
+            estimates.put(worker, estimateWait(worker, job.getSize()));
+        }
+        ordered.sort(Comparator.comparing(estimates::get));
+
+        Long original = job.getPrinterId();
+        for (PrinterWorker worker : ordered) {
+            job.assign(worker.getPrinterId());
+            if (worker.offer(job)) {
+                return true;
+            }
+        }
+        job.assign(original);
+        return false;
+    }
+
+    /**
+     * 估算打印机完成当前所有任务以及新任务需要的时间（毫秒）
+     * @param worker 打印机工作线程，为空表示打印机空闲
+     * @param size 新任务的字节数，为 0 时只估算已有任务
+     */
+    private long estimateWait(PrinterWorker worker, long size) {
+        long overhead = poolConfig.getJobOverhead();
+        if (worker == null) {
+            return size > 0 ? overhead + size * 1000 / poolConfig.getDefaultThroughput() : 0;
+        }
+        int pendingJobs = worker.pendingJobs() + (size > 0 ? 1 : 0);
+        long throughput = Math.max(1, worker.throughput(poolConfig.getDefaultThroughput()));
+        return pendingJobs * overhead + (worker.pendingBytes() + size) * 1000 / throughput;
+    }
+
+    /**
+     * 查询打印机池中可以接收任务的成员，按加入顺序排列
+     */
+    private List<Printer> availableMembers(Long poolId) {
+        List<Long> printerIds = printerPoolMemberMapper.selectPrinterIds(poolId);
+        if (printerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Printer> printers = new HashMap<>();
+        for (Printer printer : printerMapper.selectByIds(printerIds)) {
+            printerStatusWriter.overlay(printer);
+            printers.put(printer.getId(), printer);
+        }
+        return printerIds.stream()
+                .map(printers::get)
+                .filter(printer -> printer != null && isAvailable(printer))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isAvailable(Printer printer) {
+        return !STATUS_OFFLINE.equals(printer.getStatus()) && !STATUS_ERROR.equals(printer.getStatus());
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 解析渲染参数，未指定目标格式时返回 null
+     */
+    private RenderOptions resolveRenderOptions(PrintJobBO printJobBO) {
+        if (!StringUtils.hasText(printJobBO.getFormat())) {
+            return null;
+        }
+        String sourceType = fileExtension(printJobBO.getFileId());
+        if (!renderCache.supports(sourceType, printJobBO.getFormat())) {
+            throw new BusinessException("不支持将 " + sourceType + " 文件转换为 " + printJobBO.getFormat());
+        }
+        int numberUp = printJobBO.getNumberUp() == null ? 1 : printJobBO.getNumberUp();
+        if (numberUp == 3) {
+            throw new BusinessException("每张纸打印的页数只能是1、2或4");
+        }
+        return new RenderOptions(printJobBO.getFormat(),
+                printJobBO.getDpi() == null ? renderConfig.getDefaultDpi() : printJobBO.getDpi(),
+                Boolean.TRUE.equals(printJobBO.getDuplex()), numberUp);
+    }
+
+    private static String fileExtension(String fileId) {
+        int index = fileId.lastIndexOf('.');
+        return index < 0 ? "" : fileId.substring(index + 1).toLowerCase();
+    }
+
+    private PrintJob requireJob(String jobId) {
+        PrintJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException("打印任务不存在");
+        }
+        return job;
+    }
+
+    /**
+     * 记录已结束的任务，超出保留数量时移除最早结束的任务
+     */
+    private void retire(PrintJob job) {
+        try {
+            // 结束记录刷盘后再释放文件引用，释放失败时文件只会晚一些被回收
+            jobJournal.finished(job);
+            fileStorageService.removeReference(job.getFileId());
+        } catch (RuntimeException e) {
+            log.warn("释放打印任务的文件引用失败: {}", job.getId(), e);
+        }
+        finishedJobs.add(job);
+        while (finishedJobs.size() > printJobConfig.getRetention()) {
+            PrintJob oldest = finishedJobs.poll();
+            if (oldest != null) {
+                jobs.remove(oldest.getId());
+            }
+        }
+    }
+}
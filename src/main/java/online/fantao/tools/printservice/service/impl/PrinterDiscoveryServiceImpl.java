@@ -0,0 +1,333 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrinterScanConfig;
+import online.fantao.tools.printservice.service.PrinterDiscoveryService;
+
+/**
+ * 网络打印机发现服务实现类
+ * 基于 NIO Selector 的非阻塞连接探测，同一时刻最多保持 concurrency 个进行中的连接
+ * 单个主机的探测耗时记录在 printer.probe 指标中（result 标签：reachable、unreachable、timeout）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrinterDiscoveryServiceImpl implements PrinterDiscoveryService {
+
+    /**
+     * 手动配置子网时允许的最小前缀长度（最多 65534 个主机）
+     */
+    private static final int MIN_CONFIGURED_PREFIX = 16;
+
+    private static final String RESULT_REACHABLE = "reachable";
+    private static final String RESULT_UNREACHABLE = "unreachable";
+    private static final String RESULT_TIMEOUT = "timeout";
+
+    private final PrinterScanConfig scanConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public List<String> resolveTargets() {
+        TreeSet<Long> hosts = new TreeSet<>();
+        List<String> subnets = scanConfig.getSubnets();
+        if (subnets != null && !subnets.isEmpty()) {
+            for (String cidr : subnets) {
+                addConfiguredSubnet(hosts, cidr);
+            }
+        } else {
+            addLocalSubnets(hosts);
+        }
+
+        List<String> targets = new ArrayList<>(hosts.size());
+        for (Long host : hosts) {
+            targets.add(toIp(host.intValue()));
+        }
+        return targets;
+    }
+
+    @Override
+    public List<String> discover() {
+        return discover(new ProbeListener() {
+        });
+    }
+
+    @Override
+    public List<String> discover(ProbeListener listener) {
+        List<String> targets = resolveTargets();
+        if (targets.isEmpty()) {
+            listener.onProgress(0, 0);
+            return Collections.emptyList();
+        }
+
+        long startTime = System.nanoTime();
+        boolean[] reachable = probe(targets, listener);
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            if (reachable[i]) {
+                result.add(targets.get(i));
+            }
+        }
+        log.debug("扫描完成，共探测 {} 个主机，发现 {} 个可达主机，耗时 {} ms",
+                targets.size(), result.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return result;
+    }
+
+    /**
+     * 并发探测目标主机的打印端口
+     *
+     * @param targets  目标主机列表
+     * @param listener 探测回调
+     * @return 与目标列表一一对应的可达标记
+     */
+    private boolean[] probe(List<String> targets, ProbeListener listener) {
+        int total = targets.size();
+        int port = scanConfig.getPort();
+        int concurrency = Math.max(1, scanConfig.getConcurrency());
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, scanConfig.getProbeTimeout()));
+
+        boolean[] reachable = new boolean[total];
+        int next = 0;
+        int inFlight = 0;
+        int probed = 0;
+
+        try (Selector selector = Selector.open()) {
+            while (next < total || inFlight > 0) {
+                // 补充新的探测连接，直到达到并发上限
+                while (next < total && inFlight < concurrency) {
+                    long startTime = System.nanoTime();
+                    Probe probe = new Probe(next++, startTime, startTime + timeoutNanos);
+                    Boolean connected = startConnect(selector, probe, targets.get(probe.index), port);
+                    if (connected == null) {
+                        inFlight++;
+                        continue;
+                    }
+                    recordProbe(probe, connected ? RESULT_REACHABLE : RESULT_UNREACHABLE);
+                    reachable[probe.index] = connected;
+                    probed = complete(listener, targets, probe.index, connected, probed, total);
+                }
+
+                // 等待连接完成，最长等待到最早的探测超时
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nearestDeadline(selector) - System.nanoTime())));
+
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    Probe probe = (Probe) key.attachment();
+                    boolean connected = finishConnect(key);
+                    inFlight--;
+                    recordProbe(probe, connected ? RESULT_REACHABLE : RESULT_UNREACHABLE);
+                    reachable[probe.index] = connected;
+                    probed = complete(listener, targets, probe.index, connected, probed, total);
+                }
+
+                // 关闭已超时的探测
+                long now = System.nanoTime();
+                for (SelectionKey key : selector.keys()) {
+                    Probe probe = (Probe) key.attachment();
+                    if (key.isValid() && now - probe.deadline >= 0) {
+                        close(key);
+                        inFlight--;
+                        recordProbe(probe, RESULT_TIMEOUT);
+                        probed = complete(listener, targets, probe.index, false, probed, total);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("打印端口探测失败", e);
+        }
+        return reachable;
+    }
+
+    /**
+     * 发起非阻塞连接
+     *
+     * @return 连接已立即建立返回 true，立即失败返回 false，仍在进行中返回 null
+     */
+    private Boolean startConnect(Selector selector, Probe probe, String host, int port) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(host, port))) {
+                channel.close();
+                return true;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            return null;
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 忽略关闭异常
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 完成连接并关闭通道
+     *
+     * @return 是否连接成功
+     */
+    private boolean finishConnect(SelectionKey key) {
+        try {
+            return ((SocketChannel) key.channel()).finishConnect();
+        } catch (IOException e) {
+            return false;
+        } finally {
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // 忽略关闭异常
+        }
+    }
+
+    private int complete(ProbeListener listener, List<String> targets, int index, boolean connected, int probed, int total) {
+        if (connected) {
+            listener.onReachable(targets.get(index));
+        }
+        listener.onProgress(++probed, total);
+        return probed;
+    }
+
+    private void recordProbe(Probe probe, String result) {
+        meterRegistry.timer("printer.probe", "result", result)
+                .record(System.nanoTime() - probe.startTime, TimeUnit.NANOSECONDS);
+    }
+
+    private long nearestDeadline(Selector selector) {
+        long nearest = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                long deadline = ((Probe) key.attachment()).deadline;
+                if (deadline - nearest < 0) {
+                    nearest = deadline;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 添加配置的子网
+     *
+     * @param hosts 主机集合
+     * @param cidr  CIDR格式的子网
+     */
+    private void addConfiguredSubnet(TreeSet<Long> hosts, String cidr) {
+        try {
+            String[] parts = cidr.trim().split("/");
+            InetAddress address = InetAddress.getByName(parts[0]);
+            if (!(address instanceof Inet4Address)) {
+                log.warn("仅支持IPv4子网，已忽略: {}", cidr);
+                return;
+            }
+            int prefix = parts.length > 1 ? Integer.parseInt(parts[1]) : 32;
+            if (prefix < MIN_CONFIGURED_PREFIX || prefix > 32) {
+                log.warn("子网前缀长度必须在 {}-32 之间，已忽略: {}", MIN_CONFIGURED_PREFIX, cidr);
+                return;
+            }
+            addSubnet(hosts, toInt(address), prefix);
+        } catch (UnknownHostException | NumberFormatException e) {
+            log.warn("子网格式不正确，已忽略: {}", cidr);
+        }
+    }
+
+    /**
+     * 根据本机网卡推导需要扫描的子网
+     *
+     * @param hosts 主机集合
+     */
+    private void addLocalSubnets(TreeSet<Long> hosts) {
+        try {
+            for (NetworkInterface ni : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                try {
+                    if (!ni.isUp() || ni.isLoopback() || ni.isVirtual()) {
+                        continue;
+                    }
+                } catch (Exception e) {
+                    continue;
+                }
+                for (InterfaceAddress interfaceAddress : ni.getInterfaceAddresses()) {
+                    if (interfaceAddress.getAddress() instanceof Inet4Address) {
+                        int prefix = Math.max(interfaceAddress.getNetworkPrefixLength(), scanConfig.getMinPrefixLength());
+                        addSubnet(hosts, toInt(interfaceAddress.getAddress()), Math.min(prefix, 32));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("获取本机网络接口失败", e);
+        }
+    }
+
+    private void addSubnet(TreeSet<Long> hosts, int address, int prefix) {
+        int mask = prefix == 0 ? 0 : -1 << (32 - prefix);
+        long network = Integer.toUnsignedLong(address & mask);
+        long size = 1L << (32 - prefix);
+        if (size <= 2) {
+            for (long i = 0; i < size; i++) {
+                hosts.add(network + i);
+            }
+            return;
+        }
+        // 跳过网络地址和广播地址
+        for (long i = 1; i < size - 1; i++) {
+            hosts.add(network + i);
+        }
+    }
+
+    private static int toInt(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+
+    private static String toIp(int address) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    /**
+     * 进行中的探测
+     */
+    private static final class Probe {
+        private final int index;
+        private final long startTime;
+        private final long deadline;
+
+        private Probe(int index, long startTime, long deadline) {
+            this.index = index;
+            this.startTime = startTime;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrinterEventConfig;
+import online.fantao.tools.printservice.convert.PrinterConverter;
+import online.fantao.tools.printservice.event.PrinterChangedEvent;
+import online.fantao.tools.printservice.event.PrinterStatusChangedEvent;
+import online.fantao.tools.printservice.service.PrinterEventService;
+import online.fantao.tools.printservice.service.PrinterService;
+import online.fantao.tools.printservice.vo.PrinterSnapshotVO;
+import online.fantao.tools.printservice.vo.PrinterStatusEventVO;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 打印机状态推送服务实现类
+ * 打印机的新增、修改和状态变化按序号写入环形缓冲区，所有订阅者的发送都在同一个推送线程中执行，
+ * 发布方（状态写入、SNMP 回调）不会被慢客户端阻塞
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrinterEventServiceImpl implements PrinterEventService {
+
+    private static final String EVENT_SNAPSHOT = "snapshot";
+    private static final String EVENT_UPSERT = "upsert";
+    private static final String EVENT_STATUS = "status";
+    private static final String EVENT_REMOVED = "removed";
+
+    private final PrinterService printerService;
+    private final PrinterEventConfig eventConfig;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("printer-events-"));
+
+    /**
+     * 每台打印机最近一次推送的状态，用于过滤未变化的更新
+     */
+    private final Map<Long, PrinterStatusEventVO> latest = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅者列表，只在推送线程中访问
+     */
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    private PrinterStatusEventVO[] buffer;
+
+    /**
+     * 最新事件的序号
+     * 以启动时间作为初始值，重启前的序号一定早于缓冲区中的事件，客户端会重新收到快照
+     */
+    private long sequence = System.currentTimeMillis();
+
+    @PostConstruct
+    public void start() {
+        buffer = new PrinterStatusEventVO[Math.max(1, eventConfig.getBufferSize())];
+        long interval = Math.max(1, eventConfig.getHeartbeatInterval());
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(Long since) {
+        SseEmitter emitter = new SseEmitter(eventConfig.getTimeout());
+        Subscriber subscriber = new Subscriber(emitter);
+
+        long from;
+        PrinterSnapshotVO snapshot = null;
+        synchronized (this) {
+            from = sequence;
+        }
+        if (since == null || !isBuffered(since)) {
+            // 先记录序号再读取快照，之后发生的变化会在快照之后补发，重复的变化不影响结果
+            snapshot = new PrinterSnapshotVO();
+            snapshot.setSequence(from);
+            snapshot.setPrinters(printerService.getPrinterList());
+        } else {
+            from = since;
+        }
+
+        PrinterSnapshotVO initial = snapshot;
+        long replayFrom = from;
+        emitter.onCompletion(() -> dispatcher.execute(() -> subscribers.remove(subscriber)));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitter.complete());
+        dispatcher.execute(() -> {
+            try {
+                if (initial != null) {
+                    emitter.send(SseEmitter.event().id(String.valueOf(initial.getSequence())).name(EVENT_SNAPSHOT).data(initial));
+                }
+                subscriber.lastSequence = replayFrom;
+                for (PrinterStatusEventVO event : eventsAfter(replayFrom)) {
+                    send(subscriber, event);
+                }
+                subscribers.add(subscriber);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * 接收状态变更，状态和最后在线时间都未变化时忽略
+     */
+    @EventListener
+    public void onStatusChanged(PrinterStatusChangedEvent changed) {
+        PrinterStatusEventVO event = new PrinterStatusEventVO();
+        event.setPrinterId(changed.getPrinterId());
+        event.setRemoved(changed.isRemoved());
+        event.setEventTime(LocalDateTime.now());
+        if (changed.isRemoved()) {
+            // 启动后没有状态变化的打印机不在 latest 中，但可能在客户端的快照里，删除事件总是推送
+            latest.remove(changed.getPrinterId());
+        } else {
+            PrinterStatusEventVO previous = latest.get(changed.getPrinterId());
+            event.setStatus(changed.getStatus());
+            event.setStatusText(PrinterConverter.statusText(changed.getStatus()));
+            event.setLastOnlineTime(changed.getLastOnlineTime() != null || previous == null
+                    ? changed.getLastOnlineTime() : previous.getLastOnlineTime());
+            if (previous != null && Objects.equals(previous.getStatus(), event.getStatus())
+                    && Objects.equals(previous.getLastOnlineTime(), event.getLastOnlineTime())) {
+                return;
+            }
+            latest.put(changed.getPrinterId(), event);
+        }
+        publish(event);
+    }
+
+    /**
+     * 新增或修改打印机提交后推送完整的打印机信息
+     * 删除时打印机已不存在，由状态变更中的删除事件推送
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrinterChanged(PrinterChangedEvent changed) {
+        PrinterVO printer = printerService.getPrinterDetail(changed.getPrinterId());
+        if (printer == null) {
+            return;
+        }
+        PrinterStatusEventVO event = new PrinterStatusEventVO();
+        event.setPrinterId(changed.getPrinterId());
+        event.setRemoved(false);
+        event.setEventTime(LocalDateTime.now());
+        event.setStatus(printer.getStatus());
+        event.setStatusText(printer.getStatusText());
+        event.setLastOnlineTime(printer.getLastOnlineTime());
+        event.setPrinter(printer);
+        // 修改可能改变状态，之后的状态变化总是推送
+        latest.remove(changed.getPrinterId());
+        publish(event);
+    }
+
+    /**
+     * 分配序号并写入缓冲区
+     * 在锁内提交给推送线程，推送顺序与序号一致，订阅者不会因为乱序跳过较小序号的事件
+     */
+    private void publish(PrinterStatusEventVO event) {
+        synchronized (this) {
+            event.setSequence(++sequence);
+            buffer[(int) (sequence % buffer.length)] = event;
+            dispatcher.execute(() -> broadcast(event));
+        }
+    }
+
+    private void broadcast(PrinterStatusEventVO event) {
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            try {
+                send(subscriber, event);
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * 发送事件，已补发过的事件不再重复发送
+     */
+    private void send(Subscriber subscriber, PrinterStatusEventVO event) throws IOException {
+        if (event.getSequence() <= subscriber.lastSequence) {
+            return;
+        }
+        subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.getSequence()))
+                .name(eventName(event))
+                .data(event));
+        subscriber.lastSequence = event.getSequence();
+    }
+
+    private static String eventName(PrinterStatusEventVO event) {
+        if (event.getRemoved()) {
+            return EVENT_REMOVED;
+        }
+        return event.getPrinter() != null ? EVENT_UPSERT : EVENT_STATUS;
+    }
+
+    /**
+     * 检查指定序号之后的事件是否都还在缓冲区中
+     */
+    private synchronized boolean isBuffered(long since) {
+        return since <= sequence && sequence - since <= buffer.length;
+    }
+
+    private synchronized List<PrinterStatusEventVO> eventsAfter(long since) {
+        List<PrinterStatusEventVO> events = new ArrayList<>();
+        long start = Math.max(since + 1, sequence - buffer.length + 1);
+        for (long i = start; i <= sequence; i++) {
+            PrinterStatusEventVO event = buffer[(int) (i % buffer.length)];
+            if (event != null && event.getSequence() == i) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * 订阅者
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSequence;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.PrinterInventoryConfig;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 系统打印机清单缓存
+ * 过期后先返回旧结果并在后台刷新，同一时刻最多只有一次扫描在执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrinterInventoryCache {
+
+    private final SystemPrinterScanner systemPrinterScanner;
+    private final PrinterInventoryConfig inventoryConfig;
+
+    private final ThreadFactoryProvider threadFactoryProvider;
+
+    private ExecutorService refreshExecutor;
+
+    /**
+     * 最近一次扫描结果
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * 正在进行的刷新任务
+     */
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshing = new AtomicReference<>();
+
+    /**
+     * 获取系统打印机列表
+     *
+     * @param forceRefresh 是否强制重新扫描
+     * @return 打印机列表
+     */
+    public List<PrinterVO> get(boolean forceRefresh) {
+        Snapshot current = snapshot.get();
+        if (forceRefresh || current == null) {
+            return await(refresh());
+        }
+
+        long age = System.currentTimeMillis() - current.loadedAt;
+        if (age < inventoryConfig.getTtl()) {
+            return current.printers;
+        }
+        if (age < inventoryConfig.getTtl() + inventoryConfig.getMaxStale()) {
+            // 先返回旧结果，后台刷新
+            refresh();
+            return current.printers;
+        }
+        return await(refresh());
+    }
+
+    /**
+     * 使用外部扫描结果更新缓存
+     *
+     * @param printers 打印机列表
+     */
+    public void put(List<PrinterVO> printers) {
+        snapshot.set(new Snapshot(printers, System.currentTimeMillis()));
+    }
+
+    /**
+     * 触发一次刷新，已有刷新在进行时复用该刷新
+     *
+     * @return 刷新任务
+     */
+    public CompletableFuture<Snapshot> refresh() {
+        CompletableFuture<Snapshot> running = refreshing.get();
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<Snapshot> task = new CompletableFuture<>();
+        if (!refreshing.compareAndSet(null, task)) {
+            return refreshing.get();
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                Snapshot loaded = new Snapshot(systemPrinterScanner.scan(), System.currentTimeMillis());
+                snapshot.set(loaded);
+                task.complete(loaded);
+            } catch (Throwable e) {
+                log.error("刷新系统打印机列表失败", e);
+                task.completeExceptionally(e);
+            } finally {
+                refreshing.compareAndSet(task, null);
+            }
+        });
+        return task;
+    }
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = Executors.newSingleThreadExecutor(threadFactoryProvider.newThreadFactory("printer-inventory-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (Boolean.TRUE.equals(inventoryConfig.getWarmUp())) {
+            refresh();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private List<PrinterVO> await(CompletableFuture<Snapshot> task) {
+        try {
+            return task.get().printers;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("扫描打印机被中断", e);
+        } catch (ExecutionException e) {
+            throw new BusinessException("扫描打印机失败", e.getCause());
+        }
+    }
+
+    /**
+     * 扫描结果快照
+     */
+    public static final class Snapshot {
+        private final List<PrinterVO> printers;
+        private final long loadedAt;
+
+        private Snapshot(List<PrinterVO> printers, long loadedAt) {
+            this.printers = Collections.unmodifiableList(printers);
+            this.loadedAt = loadedAt;
+        }
+
+        public List<PrinterVO> getPrinters() {
+            return printers;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
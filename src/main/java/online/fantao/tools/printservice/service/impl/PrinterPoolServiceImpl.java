@@ -0,0 +1,167 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.bo.PrinterPoolBO;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.convert.PrinterConverter;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.entity.PrinterPool;
+import online.fantao.tools.printservice.entity.PrinterPoolMember;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.mapper.PrinterPoolMapper;
+import online.fantao.tools.printservice.mapper.PrinterPoolMemberMapper;
+import online.fantao.tools.printservice.service.PrinterPoolService;
+import online.fantao.tools.printservice.vo.PrinterPoolVO;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 打印机池服务实现类
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrinterPoolServiceImpl implements PrinterPoolService {
+
+    private final PrinterPoolMapper printerPoolMapper;
+    private final PrinterPoolMemberMapper printerPoolMemberMapper;
+    private final PrinterMapper printerMapper;
+    private final PrinterStatusWriter printerStatusWriter;
+    private final PrinterConverter printerConverter;
+
+    @Override
+    @Transactional
+    public PrinterPoolVO addPool(PrinterPoolBO poolBO) {
+        Set<Long> printerIds = checkPool(poolBO, null);
+        PrinterPool pool = new PrinterPool();
+        pool.setName(poolBO.getName());
+        pool.setDescription(poolBO.getDescription());
+        printerPoolMapper.insert(pool);
+        insertMembers(pool.getId(), printerIds);
+        return getPool(pool.getId());
+    }
+
+    @Override
+    @Transactional
+    public PrinterPoolVO updatePool(PrinterPoolBO poolBO) {
+        if (poolBO.getId() == null) {
+            throw new BusinessException("打印机池ID不能为空");
+        }
+        if (printerPoolMapper.selectById(poolBO.getId()) == null) {
+            throw new BusinessException("打印机池不存在");
+        }
+        Set<Long> printerIds = checkPool(poolBO, poolBO.getId());
+        PrinterPool pool = new PrinterPool();
+        pool.setId(poolBO.getId());
+        pool.setName(poolBO.getName());
+        pool.setDescription(poolBO.getDescription());
+        printerPoolMapper.updateById(pool);
+        printerPoolMemberMapper.delete(new LambdaQueryWrapper<PrinterPoolMember>()
+                .eq(PrinterPoolMember::getPoolId, poolBO.getId()));
+        insertMembers(poolBO.getId(), printerIds);
+        return getPool(poolBO.getId());
+    }
+
+    @Override
+    @Transactional
+    public boolean deletePool(Long id) {
+        if (printerPoolMapper.deleteById(id) <= 0) {
+            return false;
+        }
+        printerPoolMemberMapper.delete(new LambdaQueryWrapper<PrinterPoolMember>()
+                .eq(PrinterPoolMember::getPoolId, id));
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PrinterPoolVO getPool(Long id) {
+        PrinterPool pool = printerPoolMapper.selectById(id);
+        if (pool == null) {
+            throw new BusinessException("打印机池不存在");
+        }
+        return toVO(pool);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PrinterPoolVO> listPools() {
+        return printerPoolMapper.selectList(null).stream()
+                .map(this::toVO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 校验名称和成员打印机
+     *
+     * @param excludeId 更新时排除自身
+     * @return 去重后的成员打印机ID
+     */
+    private Set<Long> checkPool(PrinterPoolBO poolBO, Long excludeId) {
+        Long sameName = printerPoolMapper.selectCount(new LambdaQueryWrapper<PrinterPool>()
+                .eq(PrinterPool::getName, poolBO.getName())
+                .ne(excludeId != null, PrinterPool::getId, excludeId));
+        if (sameName > 0) {
+            throw new BusinessException("打印机池名称已存在");
+        }
+        Set<Long> printerIds = new LinkedHashSet<>(poolBO.getPrinterIds());
+        printerIds.remove(null);
+        if (printerIds.isEmpty()) {
+            throw new BusinessException("打印机池至少需要一台打印机");
+        }
+        Set<Long> existing = printerMapper.selectByIds(printerIds).stream()
+                .map(Printer::getId)
+                .collect(Collectors.toSet());
+        List<Long> missing = printerIds.stream().filter(id -> !existing.contains(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new BusinessException("打印机不存在: " + missing);
+        }
+        return printerIds;
+    }
+
+    private void insertMembers(Long poolId, Set<Long> printerIds) {
+        for (Long printerId : printerIds) {
+            PrinterPoolMember member = new PrinterPoolMember();
+            member.setPoolId(poolId);
+            member.setPrinterId(printerId);
+            printerPoolMemberMapper.insert(member);
+        }
+    }
+
+    private PrinterPoolVO toVO(PrinterPool pool) {
+        List<Long> printerIds = printerPoolMemberMapper.selectPrinterIds(pool.getId());
+        List<PrinterVO> members = new ArrayList<>();
+        if (!printerIds.isEmpty()) {
+            Map<Long, Printer> printers = printerMapper.selectByIds(printerIds).stream()
+                    .collect(Collectors.toMap(Printer::getId, Function.identity()));
+            for (Long printerId : printerIds) {
+                Printer printer = printers.get(printerId);
+                if (printer != null) {
+                    printerStatusWriter.overlay(printer);
+                    members.add(printerConverter.toVO(printer));
+                }
+            }
+        }
+        PrinterPoolVO vo = new PrinterPoolVO();
+        vo.setId(pool.getId());
+        vo.setName(pool.getName());
+        vo.setDescription(pool.getDescription());
+        vo.setMembers(members);
+        vo.setCreateTime(pool.getCreateTime());
+        vo.setUpdateTime(pool.getUpdateTime());
+        return vo;
+    }
+}
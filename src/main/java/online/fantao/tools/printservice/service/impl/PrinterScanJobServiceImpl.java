@@ -0,0 +1,302 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.common.Result;
+import online.fantao.tools.printservice.config.PrinterScanConfig;
+import online.fantao.tools.printservice.service.PrinterScanJobService;
+import online.fantao.tools.printservice.vo.PrinterVO;
+import online.fantao.tools.printservice.vo.ScanJobVO;
+
+/**
+ * 打印机异步扫描任务服务实现类
+ * 扫描在后台线程执行，结果通过 SSE 实时推送，晚订阅的客户端会先收到已有结果。
+ * 扫描回调在探测线程中执行，只记录结果并把推送放入任务的事件队列，由推送线程按顺序发送，
+ * 慢客户端不会拖慢探测
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrinterScanJobServiceImpl implements PrinterScanJobService {
+
+    private static final String EVENT_PRINTER = "printer";
+    private static final String EVENT_PROGRESS = "progress";
+    private static final String EVENT_COMPLETE = "complete";
+    private static final String EVENT_ERROR = "error";
+
+    private final SystemPrinterScanner systemPrinterScanner;
+    private final PrinterInventoryCache printerInventoryCache;
+    private final PrinterScanConfig scanConfig;
+    private final ThreadFactoryProvider threadFactoryProvider;
+
+    private final Map<String, ScanJob> jobs = new ConcurrentHashMap<>();
+
+    private ExecutorService scanExecutor;
+    private ExecutorService eventExecutor;
+
+    @PostConstruct
+    public void init() {
+        scanExecutor = Executors.newFixedThreadPool(Math.max(1, scanConfig.getMaxConcurrentJobs()),
+                threadFactoryProvider.newThreadFactory("printer-scan-job-"));
+        eventExecutor = Executors.newCachedThreadPool(threadFactoryProvider.newThreadFactory("printer-scan-events-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanExecutor.shutdownNow();
+        eventExecutor.shutdownNow();
+    }
+
+    @Override
+    public ScanJobVO createJob() {
+        evictExpiredJobs();
+
+        ScanJob job = new ScanJob(UUID.randomUUID().toString(), eventExecutor);
+        jobs.put(job.id, job);
+        scanExecutor.execute(() -> run(job));
+        return job.toVO();
+    }
+
+    @Override
+    public ScanJobVO getJob(String jobId) {
+        return requireJob(jobId).toVO();
+    }
+
+    @Override
+    public SseEmitter subscribe(String jobId) {
+        SseEmitter emitter = new SseEmitter(scanConfig.getEventTimeout());
+        ScanJob job = jobs.get(jobId);
+        if (job == null) {
+            // 事件流无法返回 JSON 错误响应，改为推送 error 事件
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_ERROR).data(Result.error(404, "扫描任务不存在")));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+        emitter.onCompletion(() -> job.removeEmitter(emitter));
+        emitter.onTimeout(() -> job.removeEmitter(emitter));
+        emitter.onError(e -> job.removeEmitter(emitter));
+        job.lock.lock();
+        try {
+            // 在锁内复制已有结果，之后的结果都排在补发之后推送
+            List<PrinterVO> printers = new ArrayList<>(job.printers);
+            ScanJobVO progress = job.toVO();
+            boolean finished = job.isFinished();
+            job.enqueue(() -> {
+                try {
+                    // 先补发已有结果
+                    for (PrinterVO printer : printers) {
+                        emitter.send(SseEmitter.event().name(EVENT_PRINTER).data(printer));
+                    }
+                    emitter.send(SseEmitter.event().name(EVENT_PROGRESS).data(progress));
+                    if (finished) {
+                        emitter.send(SseEmitter.event().name(EVENT_COMPLETE).data(progress));
+                        emitter.complete();
+                        return;
+                    }
+                    job.emitters.add(emitter);
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } finally {
+            job.lock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * 执行扫描任务
+     */
+    private void run(ScanJob job) {
+        job.status = "RUNNING";
+        try {
+            List<PrinterVO> printers = systemPrinterScanner.scan(new SystemPrinterScanner.ScanListener() {
+                private long lastProgressTime;
+
+                @Override
+                public void onPrinter(PrinterVO printer) {
+                    job.lock.lock();
+                    try {
+                        job.printers.add(printer);
+                        job.found = job.printers.size();
+                        job.broadcast(EVENT_PRINTER, printer);
+                    } finally {
+                        job.lock.unlock();
+                    }
+                }
+
+                @Override
+                public void onProgress(int probed, int total) {
+                    job.probed = probed;
+                    job.total = total;
+                    long now = System.currentTimeMillis();
+                    if (probed < total && now - lastProgressTime < scanConfig.getProgressInterval()) {
+                        return;
+                    }
+                    lastProgressTime = now;
+                    job.lock.lock();
+                    try {
+                        job.broadcast(EVENT_PROGRESS, job.toVO());
+                    } finally {
+                        job.lock.unlock();
+                    }
+                }
+            });
+            printerInventoryCache.put(printers);
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            log.error("扫描任务执行失败: {}", job.id, e);
+            job.message = e.getMessage();
+            job.status = "FAILED";
+        }
+
+        job.lock.lock();
+        try {
+            job.finishTime = LocalDateTime.now();
+            job.broadcast(EVENT_COMPLETE, job.toVO());
+            job.enqueue(() -> {
+                for (SseEmitter emitter : job.emitters) {
+                    emitter.complete();
+                }
+                job.emitters.clear();
+            });
+        } finally {
+            job.lock.unlock();
+        }
+    }
+
+    private ScanJob requireJob(String jobId) {
+        ScanJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException("扫描任务不存在");
+        }
+        return job;
+    }
+
+    /**
+     * 清理过期的已结束任务
+     */
+    private void evictExpiredJobs() {
+        LocalDateTime expireTime = LocalDateTime.now().minus(Duration.ofMillis(scanConfig.getJobRetention()));
+        jobs.values().removeIf(job -> job.isFinished() && job.finishTime.isBefore(expireTime));
+    }
+
+    /**
+     * 扫描任务
+     */
+    private static final class ScanJob {
+        private final String id;
+        private final LocalDateTime createTime = LocalDateTime.now();
+        private final List<PrinterVO> printers = new ArrayList<>();
+        /**
+         * 订阅者列表，只在事件队列的推送任务中访问
+         */
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        /**
+         * 保护已有结果，并保证推送入队的顺序与结果记录的顺序一致，持有期间不执行 I/O
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * 待执行的推送任务，同一时间最多一个线程按顺序执行
+         */
+        private final ConcurrentLinkedQueue<Runnable> events = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Executor eventExecutor;
+        private volatile String status = "QUEUED";
+        private volatile int probed;
+        private volatile int total;
+        private volatile int found;
+        private volatile String message;
+        private volatile LocalDateTime finishTime;
+
+        private ScanJob(String id, Executor eventExecutor) {
+            this.id = id;
+            this.eventExecutor = eventExecutor;
+        }
+
+        private boolean isFinished() {
+            return finishTime != null;
+        }
+
+        /**
+         * 向所有订阅者推送事件，调用方需持有任务锁
+         */
+        private void broadcast(String name, Object data) {
+            enqueue(() -> emitters.removeIf(emitter -> {
+                try {
+                    emitter.send(SseEmitter.event().name(name).data(data));
+                    return false;
+                } catch (IOException | IllegalStateException e) {
+                    return true;
+                }
+            }));
+        }
+
+        private void removeEmitter(SseEmitter emitter) {
+            enqueue(() -> emitters.remove(emitter));
+        }
+
+        /**
+         * 推送任务入队，没有线程在执行时提交到推送线程池
+         */
+        private void enqueue(Runnable event) {
+            events.add(event);
+            if (draining.compareAndSet(false, true)) {
+                eventExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Runnable event;
+                while ((event = events.poll()) != null) {
+                    try {
+                        event.run();
+                    } catch (RuntimeException e) {
+                        log.warn("推送扫描事件失败: {}", id, e);
+                    }
+                }
+                draining.set(false);
+                // 释放标记后入队的任务由这里或入队方提交的新任务执行
+            } while (!events.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private ScanJobVO toVO() {
+            ScanJobVO vo = new ScanJobVO();
+            vo.setJobId(id);
+            vo.setStatus(status);
+            vo.setProbed(probed);
+            vo.setRemaining(Math.max(0, total - probed));
+            vo.setFound(found);
+            vo.setMessage(message);
+            vo.setCreateTime(createTime);
+            vo.setFinishTime(finishTime);
+            return vo;
+        }
+    }
+}
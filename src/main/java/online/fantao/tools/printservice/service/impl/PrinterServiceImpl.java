@@ -1,35 +1,40 @@
 package online.fantao.tools.printservice.service.impl;
 
-import java.net.InetAddress;
-import java.net.NetworkInterface;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.print.DocFlavor;
-import javax.print.PrintService;
-import javax.print.PrintServiceLookup;
-import javax.print.attribute.Attribute;
-import javax.print.attribute.standard.PrinterURI;
-import javax.print.attribute.standard.PrinterIsAcceptingJobs;
-import javax.print.attribute.standard.PrinterState;
-import javax.print.attribute.standard.PrinterStateReasons;
-
-import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import online.fantao.tools.printservice.bo.PrinterBO;
+import online.fantao.tools.printservice.bo.PrinterQueryBO;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.convert.PrinterConverter;
 import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.entity.PrinterPoolMember;
+import online.fantao.tools.printservice.event.PrinterChangedEvent;
+import online.fantao.tools.printservice.event.PrinterStatusChangedEvent;
 import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.mapper.PrinterPoolMemberMapper;
 import online.fantao.tools.printservice.service.PrinterService;
+import online.fantao.tools.printservice.vo.PrinterPageRecordVO;
+import online.fantao.tools.printservice.vo.PrinterPageVO;
 import online.fantao.tools.printservice.vo.PrinterVO;
 
 /**
@@ -42,255 +47,260 @@ import online.fantao.tools.printservice.vo.PrinterVO;
 public class PrinterServiceImpl implements PrinterService {
 
     private final PrinterMapper printerMapper;
+    private final PrinterPoolMemberMapper printerPoolMemberMapper;
+    private final PrinterInventoryCache printerInventoryCache;
+    private final PrinterStatusWriter printerStatusWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PrinterConverter printerConverter;
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_MODEL = "model";
+    private static final String FIELD_IP_ADDRESS = "ipAddress";
+    private static final String FIELD_PORT = "port";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_STATUS_TEXT = "statusText";
+    private static final String FIELD_LAST_ONLINE_TIME = "lastOnlineTime";
+    private static final String FIELD_LAST_ONLINE_TIME_TEXT = "lastOnlineTimeText";
 
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * 可返回的字段及对应的数据库列，ID 用于翻页，总是查询
+     */
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+            FIELD_ID, "id",
+            FIELD_NAME, "name",
+            FIELD_MODEL, "model",
+            FIELD_IP_ADDRESS, "ip_address",
+            FIELD_PORT, "port",
+            FIELD_STATUS, "status",
+            FIELD_STATUS_TEXT, "status",
+            FIELD_LAST_ONLINE_TIME, "last_online_time",
+            FIELD_LAST_ONLINE_TIME_TEXT, "last_online_time");
 
-    // 定义常用的文档类型
-    private static final DocFlavor[] DOC_FLAVORS = {
-            DocFlavor.SERVICE_FORMATTED.PAGEABLE,
-            DocFlavor.SERVICE_FORMATTED.PRINTABLE,
-            DocFlavor.BYTE_ARRAY.AUTOSENSE,
-            DocFlavor.INPUT_STREAM.AUTOSENSE,
-            DocFlavor.URL.AUTOSENSE
-    };
+    /**
+     * 打印机数据版本号，与启动时间一起组成版本标识
+     */
+    private final AtomicLong version = new AtomicLong();
+    private final String versionEpoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * 最近一次状态事件对应的状态，用于判断状态事件是否改变了数据
+     */
+    private final Map<Long, String> knownStatus = new ConcurrentHashMap<>();
 
     @Override
     @Transactional
     public boolean addPrinter(PrinterBO printerBO) {
-        Printer printer = convertToEntity(printerBO);
-        return printerMapper.insert(printer) > 0;
+        Printer printer = printerConverter.toEntity(printerBO);
+        increaseVersionAfterCommit();
+        if (printerMapper.insert(printer) <= 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new PrinterChangedEvent(printer.getId()));
+        return true;
     }
 
     @Override
     @Transactional
     public boolean updatePrinter(PrinterBO printerBO) {
-        Printer printer = convertToEntity(printerBO);
-        return printerMapper.updateById(printer) > 0;
-
+        Printer printer = printerConverter.toEntity(printerBO);
+        increaseVersionAfterCommit();
+        if (printerMapper.updateById(printer) <= 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new PrinterChangedEvent(printer.getId()));
+        return true;
     }
 
     @Override
     @Transactional
     public boolean deletePrinter(Long id) {
-        return printerMapper.deleteById(id) > 0;
+        if (printerMapper.deleteById(id) <= 0) {
+            return false;
+        }
+        printerPoolMemberMapper.delete(new LambdaQueryWrapper<PrinterPoolMember>()
+                .eq(PrinterPoolMember::getPrinterId, id));
+        increaseVersionAfterCommit();
+        eventPublisher.publishEvent(new PrinterChangedEvent(id));
+        eventPublisher.publishEvent(PrinterStatusChangedEvent.removed(id));
+        return true;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PrinterVO getPrinterDetail(Long id) {
         Printer printer = printerMapper.selectById(id);
-        return convertToVO(printer);
+        printerStatusWriter.overlay(printer);
+        return printerConverter.toVO(printer);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PrinterVO> getPrinterList() {
         List<Printer> printers = printerMapper.selectList(null);
-        return printers.stream()
-                .map(this::convertToVO)
-                .collect(Collectors.toList());
-    }
-
-    @Override
-    @Transactional
-    public boolean updatePrinterStatus(Long id, String status) {
-        Printer printer = new Printer();
-        printer.setId(id);
-        printer.setStatus(status);
-        return printerMapper.updateById(printer) > 0;
+        printers.forEach(printerStatusWriter::overlay);
+        return printerConverter.toVOList(printers);
     }
 
     @Override
-    public List<PrinterVO> getSystemPrinters() {
-        List<PrinterVO> printers = new ArrayList<>();
-        try {
-            // 获取所有打印机服务
-            PrintService[] printServices = PrintServiceLookup.lookupPrintServices(null, null);
-            PrintService defaultPrintService = PrintServiceLookup.lookupDefaultPrintService();
-
-            // 获取所有网络接口信息
-            List<NetworkInterface> interfaces = Collections.list(NetworkInterface.getNetworkInterfaces());
-            List<String> localIps = interfaces.stream()
-                .filter(ni -> {
-                    try {
-                        return ni.isUp() && !ni.isLoopback() && !ni.isVirtual();
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .flatMap(ni -> Collections.list(ni.getInetAddresses()).stream())
-                .filter(addr -> addr instanceof java.net.Inet4Address)
-                .map(addr -> addr.getHostAddress())
-                .collect(Collectors.toList());
-
-            for (PrintService printService : printServices) {
-                PrinterVO printerVO = new PrinterVO();
-                printerVO.setName(printService.getName());
-
-                // 设置是否为默认打印机
-                printerVO.setIsDefault(printService.equals(defaultPrintService));
-
-                // 设置打印机属性
-                Map<String, String> attributes = new HashMap<>();
-                for (Attribute attr : printService.getAttributes().toArray()) {
-                    attributes.put(attr.getCategory().getName(), attr.toString());
-                }
-                printerVO.setAttributes(attributes);
-
-                // 判断打印机状态
-                boolean isOnline = false;
-                try {
-                    // 检查打印机是否接受任务
-                    PrinterIsAcceptingJobs acceptingJobs = printService.getAttribute(PrinterIsAcceptingJobs.class);
-                    if (acceptingJobs != null) {
-                        isOnline = acceptingJobs.getValue() == PrinterIsAcceptingJobs.ACCEPTING_JOBS.getValue();
-                    }
-
-                    // 检查打印机状态
-                    PrinterState printerState = printService.getAttribute(PrinterState.class);
-                    if (printerState != null) {
-                        // 如果打印机状态不是空闲，则设置为离线
-                        if (printerState.getValue() != PrinterState.IDLE.getValue()) {
-                            isOnline = false;
-                        }
-                    }
-
-                    // 检查打印机状态原因
-                    PrinterStateReasons stateReasons = printService.getAttribute(PrinterStateReasons.class);
-                    if (stateReasons != null && !stateReasons.isEmpty()) {
-                        // 如果有错误状态，则设置为离线
-                        isOnline = false;
-                    }
-                } catch (Exception e) {
-                    log.warn("获取打印机状态失败: {}", e.getMessage());
-                }
-                printerVO.setStatus(isOnline ? "ONLINE" : "OFFLINE");
+    @Transactional(readOnly = true)
+    public PrinterPageVO getPrinterPage(PrinterQueryBO query) {
+        Set<String> fields = resolveFields(query.getFields());
+        QueryWrapper<Printer> wrapper = new QueryWrapper<>();
+        if (fields != null) {
+            wrapper.select(fields.stream().map(FIELD_COLUMNS::get).distinct().toArray(String[]::new));
+        }
 
-                // 设置最后在线时间
-                if (isOnline) {
-                    printerVO.setLastOnlineTime(LocalDateTime.now());
-                }
+        // 过滤条件均为等值或范围比较，可以使用 idx_printer_status、idx_printer_model、idx_printer_ip_port；
+        // 按状态或型号过滤时索引内已按 rowid 有序，游标条件直接在索引上定位
+        LambdaQueryWrapper<Printer> lambda = wrapper.lambda()
+                .eq(StringUtils.hasText(query.getStatus()), Printer::getStatus, query.getStatus())
+                .eq(StringUtils.hasText(query.getModel()), Printer::getModel, query.getModel())
+                .gt(query.getCursor() != null, Printer::getId, query.getCursor())
+                .orderByAsc(Printer::getId);
+        if (StringUtils.hasText(query.getIpPrefix())) {
+            // LIKE 前缀匹配在 SQLite 默认配置下不使用索引，改写为等价的范围查询
+            String prefix = query.getIpPrefix();
+            String upperBound = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+            lambda.ge(Printer::getIpAddress, prefix).lt(Printer::getIpAddress, upperBound);
+        }
 
-                // 设置状态文本
-                printerVO.setStatusText(convertStatusText(printerVO.getStatus()));
+        // 多查询一条判断是否还有下一页，不执行 COUNT
+        int size = query.getSize();
+        List<Printer> printers = printerMapper.selectList(new Page<>(1, size + 1, false), lambda);
+        boolean hasMore = printers.size() > size;
+        if (hasMore) {
+            printers = printers.subList(0, size);
+        }
+        printers.forEach(printerStatusWriter::overlay);
 
-                // 设置最后在线时间文本
-                if (printerVO.getLastOnlineTime() != null) {
-                    printerVO.setLastOnlineTimeText(printerVO.getLastOnlineTime().format(DATE_TIME_FORMATTER));
-                }
+        List<PrinterPageRecordVO> records = printerConverter.toPageRecordList(printers);
+        if (fields != null) {
+            records.forEach(vo -> project(vo, fields));
+        }
 
-                // 如果是真实打印机，尝试获取IP和端口
-                if (!printerVO.getName().contains("PDF") && !printerVO.getName().contains("Microsoft")) {
-                    // 首先尝试从打印机URI获取
-                    Attribute uriAttr = printService.getAttribute(PrinterURI.class);
-                    if (uriAttr != null) {
-                        String uri = uriAttr.toString();
-                        if (uri.startsWith("socket://")) {
-                            String ipPort = uri.substring(9);
-                            String[] parts = ipPort.split(":");
-                            if (parts.length == 2) {
-                                printerVO.setIpAddress(parts[0]);
-                                printerVO.setPort(Integer.parseInt(parts[1]));
-                            }
-                        }
-                    }
+        PrinterPageVO page = new PrinterPageVO();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        page.setNextCursor(hasMore ? printers.get(printers.size() - 1).getId() : null);
+        return page;
+    }
 
-                    // 如果无法从URI获取，尝试从本地网络扫描
-                    if (printerVO.getIpAddress() == null) {
-                        for (String localIp : localIps) {
-                            String ipPrefix = localIp.substring(0, localIp.lastIndexOf(".") + 1);
-                            for (int i = 1; i < 255; i++) {
-                                String ip = ipPrefix + i;
-                                if (isPrinterReachable(ip, 9100)) {
-                                    printerVO.setIpAddress(ip);
-                                    printerVO.setPort(9100);
-                                    break;
-                                }
-                            }
-                            if (printerVO.getIpAddress() != null) {
-                                break;
-                            }
-                        }
-                    }
-                }
+    @Override
+    public String getPrinterVersion() {
+        return versionEpoch + "-" + version.get();
+    }
 
-                printers.add(printerVO);
-            }
-        } catch (Exception e) {
-            log.error("获取系统打印机列表失败", e);
+    /**
+     * 状态变化在提交给写线程时已对查询可见，状态有变化时直接更新版本
+     * 只有最后在线时间变化时不更新版本，避免在线设备的每次轮询都使列表缓存失效
+     * 删除打印机时版本已在事务提交后更新
+     */
+    @EventListener
+    public void onStatusChanged(PrinterStatusChangedEvent event) {
+        if (event.isRemoved()) {
+            knownStatus.remove(event.getPrinterId());
+            return;
+        }
+        String previous = knownStatus.put(event.getPrinterId(), event.getStatus());
+        if (!event.getStatus().equals(previous)) {
+            version.incrementAndGet();
         }
-        return printers;
     }
 
     /**
-     * 检查打印机是否可达
-     * 
-     * @param ip   IP地址
-     * @param port 端口号
-     * @return 是否可达
+     * 打印机变更提交后忘记已知状态，数据库中的状态可能已被修改
      */
-    private boolean isPrinterReachable(String ip, int port) {
-        try (java.net.Socket socket = new java.net.Socket()) {
-            socket.connect(new java.net.InetSocketAddress(ip, port), 1000);
-            return true;
-        } catch (Exception e) {
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrinterChanged(PrinterChangedEvent event) {
+        knownStatus.remove(event.getPrinterId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean updatePrinterStatus(Long id, String status) {
+        // 只读事务中检查，不占用唯一的写连接
+        if (!printerMapper.exists(new LambdaQueryWrapper<Printer>().eq(Printer::getId, id))) {
             return false;
         }
+        // 状态由写线程合并后批量写入数据库
+        printerStatusWriter.submit(id, status);
+        return true;
+    }
+
+    @Override
+    public List<PrinterVO> getSystemPrinters(boolean refresh) {
+        return printerInventoryCache.get(refresh);
     }
 
     /**
-     * 将BO对象转换为实体对象
-     * 
-     * @param bo 业务对象
-     * @return 实体对象
+     * 事务提交后再更新版本
+     * 提交前更新的话，并发的查询可能以新版本号缓存到旧数据
      */
-    private Printer convertToEntity(PrinterBO bo) {
-        if (bo == null) {
-            return null;
+    private void increaseVersionAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
         }
-        Printer entity = new Printer();
-        BeanUtils.copyProperties(bo, entity);
-        return entity;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
     }
 
     /**
-     * 将实体对象转换为VO对象
-     * 
-     * @param entity 实体对象
-     * @return 视图对象
+     * 解析需要返回的字段
+     *
+     * @return 字段集合，未指定时返回 null
      */
-    private PrinterVO convertToVO(Printer entity) {
-        if (entity == null) {
+    private static Set<String> resolveFields(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
             return null;
         }
-        PrinterVO vo = new PrinterVO();
-        BeanUtils.copyProperties(entity, vo);
-
-        // 设置状态文本
-        vo.setStatusText(convertStatusText(entity.getStatus()));
-
-        // 设置最后在线时间文本
-        if (entity.getLastOnlineTime() != null) {
-            vo.setLastOnlineTimeText(entity.getLastOnlineTime().format(DATE_TIME_FORMATTER));
+        Set<String> fields = new HashSet<>();
+        fields.add(FIELD_ID);
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!FIELD_COLUMNS.containsKey(name)) {
+                throw new BusinessException("不支持的字段: " + name);
+            }
+            fields.add(name);
         }
-
-        return vo;
+        return fields;
     }
 
     /**
-     * 转换状态文本
-     * 
-     * @param status 状态代码
-     * @return 状态文本
+     * 清空未请求的字段，序列化时不输出空字段
      */
-    private String convertStatusText(String status) {
-        switch (status) {
-            case "ONLINE":
-                return "在线";
-            case "OFFLINE":
-                return "离线";
-            case "ERROR":
-                return "错误";
-            default:
-                return "未知";
+    private static void project(PrinterVO vo, Set<String> fields) {
+        if (!fields.contains(FIELD_NAME)) {
+            vo.setName(null);
+        }
+        if (!fields.contains(FIELD_MODEL)) {
+            vo.setModel(null);
+        }
+        if (!fields.contains(FIELD_IP_ADDRESS)) {
+            vo.setIpAddress(null);
+        }
+        if (!fields.contains(FIELD_PORT)) {
+            vo.setPort(null);
+        }
+        if (!fields.contains(FIELD_STATUS)) {
+            vo.setStatus(null);
+        }
+        if (!fields.contains(FIELD_STATUS_TEXT)) {
+            vo.setStatusText(null);
+        }
+        if (!fields.contains(FIELD_LAST_ONLINE_TIME)) {
+            vo.setLastOnlineTime(null);
+        }
+        if (!fields.contains(FIELD_LAST_ONLINE_TIME_TEXT)) {
+            vo.setLastOnlineTimeText(null);
         }
     }
-}
\ No newline at end of file
+}
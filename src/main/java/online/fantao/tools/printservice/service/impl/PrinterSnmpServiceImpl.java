@@ -0,0 +1,396 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.snmp4j.CommunityTarget;
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.event.ResponseListener;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.GenericAddress;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.Variable;
+import org.snmp4j.smi.VariableBinding;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrinterSnmpConfig;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.event.PrinterChangedEvent;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.service.PrinterSnmpService;
+import online.fantao.tools.printservice.vo.PrinterSnmpVO;
+
+/**
+ * 打印机 SNMP 状态服务实现类
+ * 所有设备共用一个 UDP 传输通道异步发送请求，每台设备每次只发送一个 GETBULK 请求，
+ * 状态稳定的设备逐步放宽轮询间隔，状态变化或异常的设备按最短间隔轮询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrinterSnmpServiceImpl implements PrinterSnmpService {
+
+    /**
+     * 检查是否有设备到达轮询时间的间隔（毫秒）
+     */
+    private static final long TICK_INTERVAL = 1000L;
+
+    // Host-Resources-MIB，作为 GETBULK 的非重复项只取第一行
+    private static final OID HR_DEVICE_STATUS = new OID("1.3.6.1.2.1.25.3.2.1.5");
+    private static final OID HR_PRINTER_STATUS = new OID("1.3.6.1.2.1.25.3.5.1.1");
+    private static final OID HR_PRINTER_DETECTED_ERROR_STATE = new OID("1.3.6.1.2.1.25.3.5.1.2");
+
+    // Printer-MIB，作为 GETBULK 的重复项取每个耗材、纸盒的值
+    private static final OID PRT_MARKER_SUPPLIES_MAX_CAPACITY = new OID("1.3.6.1.2.1.43.11.1.1.8");
+    private static final OID PRT_MARKER_SUPPLIES_LEVEL = new OID("1.3.6.1.2.1.43.11.1.1.9");
+    private static final OID PRT_INPUT_MAX_CAPACITY = new OID("1.3.6.1.2.1.43.8.2.1.9");
+    private static final OID PRT_INPUT_CURRENT_LEVEL = new OID("1.3.6.1.2.1.43.8.2.1.10");
+    private static final OID PRT_MARKER_LIFE_COUNT = new OID("1.3.6.1.2.1.43.10.2.1.4");
+
+    private static final OID[] SCALAR_COLUMNS = {
+            HR_DEVICE_STATUS, HR_PRINTER_STATUS, HR_PRINTER_DETECTED_ERROR_STATE
+    };
+    private static final OID[] TABLE_COLUMNS = {
+            PRT_MARKER_SUPPLIES_MAX_CAPACITY, PRT_MARKER_SUPPLIES_LEVEL,
+            PRT_INPUT_MAX_CAPACITY, PRT_INPUT_CURRENT_LEVEL, PRT_MARKER_LIFE_COUNT
+    };
+
+    /**
+     * hrPrinterDetectedErrorState 各位的含义（高位在前）
+     */
+    private static final String[] ERROR_STATE_NAMES = {
+            "lowPaper", "noPaper", "lowToner", "noToner", "doorOpen", "jammed", "offline", "serviceRequested",
+            "inputTrayMissing", "outputTrayMissing", "markerSupplyMissing", "outputNearFull", "outputFull",
+            "inputTrayEmpty", "overduePreventMaint"
+    };
+
+    /**
+     * 导致无法打印的错误位：noPaper、noToner、doorOpen、jammed、offline、serviceRequested
+     */
+    private static final Set<String> FATAL_ERROR_STATES = Set.of(
+            "noPaper", "noToner", "doorOpen", "jammed", "offline", "serviceRequested");
+
+    /**
+     * hrDeviceStatus 为 down(5) 时设备不可用
+     */
+    private static final int DEVICE_STATUS_DOWN = 5;
+
+    private static final String STATUS_ONLINE = "ONLINE";
+    private static final String STATUS_OFFLINE = "OFFLINE";
+    private static final String STATUS_ERROR = "ERROR";
+
+    private final PrinterMapper printerMapper;
+    private final PrinterStatusWriter printerStatusWriter;
+    private final PrinterSnmpConfig snmpConfig;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 每台打印机的轮询状态
+     */
+    private final Map<Long, PollState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 打印机列表缓存，打印机变更后重新查询
+     */
+    private volatile List<Printer> printers;
+    private final AtomicBoolean printersStale = new AtomicBoolean(true);
+
+    private final ResponseListener responseListener = new ResponseListener() {
+        @Override
+        public <A extends Address> void onResponse(ResponseEvent<A> event) {
+            // 收到响应或超时后取消请求，停止重传
+            ((Snmp) event.getSource()).cancel(event.getRequest(), this);
+            complete((PollState) event.getUserObject(), event.getResponse());
+        }
+    };
+
+    private Snmp snmp;
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!Boolean.TRUE.equals(snmpConfig.getEnabled())) {
+            return;
+        }
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        snmp = new Snmp(new DefaultUdpTransportMapping());
+        snmp.listen();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (snmp != null) {
+            snmp.close();
+        }
+    }
+
+    @Override
+    public PrinterSnmpVO getSnapshot(Long printerId) {
+        PollState state = states.get(printerId);
+        return state == null ? null : state.snapshot;
+    }
+
+    @Override
+    public List<PrinterSnmpVO> listSnapshots() {
+        List<PrinterSnmpVO> snapshots = new ArrayList<>();
+        for (PollState state : states.values()) {
+            if (state.snapshot != null) {
+                snapshots.add(state.snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * 向到达轮询时间的打印机发送请求
+     */
+    @Scheduled(fixedDelay = TICK_INTERVAL)
+    public void poll() {
+        if (snmp == null) {
+            return;
+        }
+        List<Printer> printers = loadPrinters();
+        if (printers == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Set<Long> printerIds = new HashSet<>();
+        for (Printer printer : printers) {
+            printerIds.add(printer.getId());
+            PollState state = states.computeIfAbsent(printer.getId(), PollState::new);
+            state.ipAddress = printer.getIpAddress();
+            if (state.inFlight || now < state.nextPollTime) {
+                continue;
+            }
+            send(state);
+        }
+        // 移除已删除的打印机
+        states.keySet().retainAll(printerIds);
+    }
+
+    /**
+     * 打印机变更提交后使缓存失效，下次轮询时重新查询
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrinterChanged(PrinterChangedEvent event) {
+        printersStale.set(true);
+    }
+
+    /**
+     * 获取打印机列表，只在启动后和打印机变更后查询数据库
+     */
+    private List<Printer> loadPrinters() {
+        if (printersStale.getAndSet(false)) {
+            try {
+                printers = readOnlyTransactionTemplate.execute(status -> printerMapper.selectList(null));
+            } catch (RuntimeException e) {
+                printersStale.set(true);
+                throw e;
+            }
+        }
+        return printers;
+    }
+
+    private void send(PollState state) {
+        PDU pdu = new PDU();
+        pdu.setType(PDU.GETBULK);
+        pdu.setNonRepeaters(SCALAR_COLUMNS.length);
+        pdu.setMaxRepetitions(snmpConfig.getMaxRepetitions());
+        for (OID column : SCALAR_COLUMNS) {
+            pdu.add(new VariableBinding(column));
+        }
+        for (OID column : TABLE_COLUMNS) {
+            pdu.add(new VariableBinding(column));
+        }
+
+        state.inFlight = true;
+        try {
+            CommunityTarget<Address> target = new CommunityTarget<>(
+                    GenericAddress.parse("udp:" + state.ipAddress + "/" + snmpConfig.getPort()),
+                    new OctetString(snmpConfig.getCommunity()));
+            target.setVersion(SnmpConstants.version2c);
+            target.setTimeout(snmpConfig.getTimeout());
+            target.setRetries(snmpConfig.getRetries());
+            snmp.send(pdu, target, state, responseListener);
+        } catch (IOException | RuntimeException e) {
+            log.warn("发送 SNMP 请求失败: {}", state.ipAddress, e);
+            complete(state, null);
+        }
+    }
+
+    /**
+     * 处理响应，更新打印机状态并计算下次轮询时间
+     *
+     * @param state    轮询状态
+     * @param response 响应，超时时为 null
+     */
+    private void complete(PollState state, PDU response) {
+        try {
+            PrinterSnmpVO snapshot = parse(response);
+            snapshot.setPrinterId(state.printerId);
+            snapshot.setIpAddress(state.ipAddress);
+
+            PrinterSnmpVO previous = state.snapshot;
+            boolean statusChanged = previous == null || !previous.getStatus().equals(snapshot.getStatus());
+            boolean changed = statusChanged || !previous.getErrorStates().equals(snapshot.getErrorStates());
+            long minInterval = snmpConfig.getMinInterval();
+            if (changed || STATUS_ERROR.equals(snapshot.getStatus())) {
+                state.interval = minInterval;
+            } else {
+                // 状态未变化的设备（包括持续离线的设备）逐步放宽轮询间隔
+                state.interval = Math.min(Math.max(state.interval, minInterval) * 2, snmpConfig.getMaxInterval());
+            }
+            snapshot.setPollInterval(state.interval);
+            state.snapshot = snapshot;
+            state.nextPollTime = System.currentTimeMillis() + state.interval;
+
+            // 状态变化时才提交并发布状态事件；持续在线的设备按较长的间隔只刷新数据库中的最后在线时间
+            long now = System.currentTimeMillis();
+            if (statusChanged) {
+                printerStatusWriter.submit(state.printerId, snapshot.getStatus());
+                state.onlineRefreshTime = now;
+            } else if (STATUS_ONLINE.equals(snapshot.getStatus())
+                    && now - state.onlineRefreshTime >= snmpConfig.getOnlineRefreshInterval()) {
+                printerStatusWriter.touchOnline(state.printerId);
+                state.onlineRefreshTime = now;
+            }
+        } catch (RuntimeException e) {
+            log.warn("处理 SNMP 响应失败: {}", state.ipAddress, e);
+            state.nextPollTime = System.currentTimeMillis() + snmpConfig.getMinInterval();
+        } finally {
+            state.inFlight = false;
+        }
+    }
+
+    private PrinterSnmpVO parse(PDU response) {
+        PrinterSnmpVO snapshot = new PrinterSnmpVO();
+        snapshot.setPollTime(LocalDateTime.now());
+        snapshot.setErrorStates(Collections.emptyList());
+        snapshot.setTonerLevels(Collections.emptyList());
+        snapshot.setPaperLevels(Collections.emptyList());
+        if (response == null || response.getErrorStatus() != PDU.noError) {
+            snapshot.setReachable(false);
+            snapshot.setStatus(STATUS_OFFLINE);
+            return snapshot;
+        }
+        snapshot.setReachable(true);
+
+        Map<OID, Integer> supplyCapacities = new LinkedHashMap<>();
+        Map<OID, Integer> supplyLevels = new LinkedHashMap<>();
+        Map<OID, Integer> inputCapacities = new LinkedHashMap<>();
+        Map<OID, Integer> inputLevels = new LinkedHashMap<>();
+        long pageCount = 0;
+        boolean hasPageCount = false;
+
+        for (VariableBinding binding : response.getVariableBindings()) {
+            if (binding.isException()) {
+                continue;
+            }
+            OID oid = binding.getOid();
+            Variable variable = binding.getVariable();
+            if (oid.startsWith(HR_DEVICE_STATUS) && snapshot.getDeviceStatus() == null) {
+                snapshot.setDeviceStatus(variable.toInt());
+            } else if (oid.startsWith(HR_PRINTER_STATUS) && snapshot.getPrinterStatus() == null) {
+                snapshot.setPrinterStatus(variable.toInt());
+            } else if (oid.startsWith(HR_PRINTER_DETECTED_ERROR_STATE) && variable instanceof OctetString) {
+                snapshot.setErrorStates(decodeErrorStates(((OctetString) variable).getValue()));
+            } else if (oid.startsWith(PRT_MARKER_SUPPLIES_MAX_CAPACITY)) {
+                supplyCapacities.put(suffix(oid, PRT_MARKER_SUPPLIES_MAX_CAPACITY), variable.toInt());
+            } else if (oid.startsWith(PRT_MARKER_SUPPLIES_LEVEL)) {
+                supplyLevels.put(suffix(oid, PRT_MARKER_SUPPLIES_LEVEL), variable.toInt());
+            } else if (oid.startsWith(PRT_INPUT_MAX_CAPACITY)) {
+                inputCapacities.put(suffix(oid, PRT_INPUT_MAX_CAPACITY), variable.toInt());
+            } else if (oid.startsWith(PRT_INPUT_CURRENT_LEVEL)) {
+                inputLevels.put(suffix(oid, PRT_INPUT_CURRENT_LEVEL), variable.toInt());
+            } else if (oid.startsWith(PRT_MARKER_LIFE_COUNT)) {
+                pageCount += variable.toLong();
+                hasPageCount = true;
+            }
+        }
+        snapshot.setTonerLevels(toPercents(supplyLevels, supplyCapacities));
+        snapshot.setPaperLevels(toPercents(inputLevels, inputCapacities));
+        snapshot.setPageCount(hasPageCount ? pageCount : null);
+
+        boolean fatal = snapshot.getErrorStates().stream().anyMatch(FATAL_ERROR_STATES::contains);
+        Integer deviceStatus = snapshot.getDeviceStatus();
+        snapshot.setStatus(fatal || (deviceStatus != null && deviceStatus == DEVICE_STATUS_DOWN)
+                ? STATUS_ERROR : STATUS_ONLINE);
+        return snapshot;
+    }
+
+    /**
+     * 解析 hrPrinterDetectedErrorState（BITS 类型，第一个字节的最高位为第 0 位）
+     */
+    private List<String> decodeErrorStates(byte[] bits) {
+        List<String> errorStates = new ArrayList<>();
+        for (int i = 0; i < ERROR_STATE_NAMES.length && i / 8 < bits.length; i++) {
+            if ((bits[i / 8] & (0x80 >>> (i % 8))) != 0) {
+                errorStates.add(ERROR_STATE_NAMES[i]);
+            }
+        }
+        return errorStates;
+    }
+
+    /**
+     * 将当前值换算为百分比
+     * 容量未知时保留 Printer-MIB 定义的负数：-2 表示未知，-3 表示还有剩余
+     */
+    private List<Integer> toPercents(Map<OID, Integer> levels, Map<OID, Integer> capacities) {
+        List<Integer> percents = new ArrayList<>(levels.size());
+        for (Map.Entry<OID, Integer> entry : levels.entrySet()) {
+            int level = entry.getValue();
+            Integer capacity = capacities.get(entry.getKey());
+            if (level >= 0 && capacity != null && capacity > 0) {
+                percents.add((int) Math.min(100, level * 100L / capacity));
+            } else {
+                percents.add(level);
+            }
+        }
+        return percents;
+    }
+
+    private OID suffix(OID oid, OID column) {
+        return new OID(oid.getValue(), column.size(), oid.size() - column.size());
+    }
+
+    /**
+     * 单台打印机的轮询状态
+     */
+    private static final class PollState {
+        private final Long printerId;
+        private volatile String ipAddress;
+        private volatile boolean inFlight;
+        private volatile long nextPollTime;
+        private volatile long interval;
+        private volatile PrinterSnmpVO snapshot;
+        private volatile long onlineRefreshTime;
+
+        private PollState(Long printerId) {
+            this.printerId = printerId;
+        }
+    }
+}
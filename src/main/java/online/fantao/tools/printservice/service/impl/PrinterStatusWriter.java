@@ -0,0 +1,181 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrinterStatusConfig;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.event.PrinterStatusChangedEvent;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+
+/**
+ * 打印机状态延迟写入
+ * 状态更新先按打印机合并在内存中（后到的覆盖先到的），由单个写线程定期在一个事务内批量写入，
+ * 查询时通过 {@link #overlay(Printer)} 叠加尚未写入的状态；只刷新最后在线时间的更新不发布事件，也不叠加到查询结果
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrinterStatusWriter {
+
+    private static final String STATUS_ONLINE = "ONLINE";
+
+    private final PrinterMapper printerMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final PrinterStatusConfig statusConfig;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("printer-status-writer-"));
+
+    /**
+     * 尚未写入数据库的状态，按打印机ID合并
+     */
+    private final Map<Long, PendingStatus> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 尚未写入数据库的最后在线时间，按打印机ID合并
+     */
+    private final Map<Long, LocalDateTime> pendingOnlineTimes = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已经提交了一次提前写入，避免重复提交
+     */
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @PostConstruct
+    public void start() {
+        long interval = Math.max(1, statusConfig.getFlushInterval());
+        writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交状态更新
+     *
+     * @param id     打印机ID
+     * @param status 状态
+     */
+    public void submit(Long id, String status) {
+        PendingStatus pendingStatus = new PendingStatus(status, LocalDateTime.now());
+        pending.put(id, pendingStatus);
+        eventPublisher.publishEvent(PrinterStatusChangedEvent.updated(id, status,
+                STATUS_ONLINE.equals(status) ? pendingStatus.updateTime : null));
+        if (pending.size() >= statusConfig.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::flush);
+            } catch (RuntimeException e) {
+                // 关闭过程中拒绝提交，剩余的状态由关闭时的写入处理
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * 刷新在线设备的最后在线时间
+     * 状态没有变化，只写入数据库，不发布状态事件，刷新频率由调用方控制
+     *
+     * @param id 打印机ID
+     */
+    public void touchOnline(Long id) {
+        pendingOnlineTimes.put(id, LocalDateTime.now());
+    }
+
+    /**
+     * 将尚未写入的状态叠加到查询结果上
+     *
+     * @param printer 数据库中的打印机
+     */
+    public void overlay(Printer printer) {
+        if (printer == null || pending.isEmpty()) {
+            return;
+        }
+        PendingStatus status = pending.get(printer.getId());
+        if (status != null) {
+            status.applyTo(printer);
+        }
+    }
+
+    /**
+     * 将合并后的状态在一个事务内写入数据库
+     * 写入成功后才从待写入集合中移除，期间查询仍能看到这些状态；写入期间再次更新的打印机保留到下一批
+     */
+    void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty() && pendingOnlineTimes.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, PendingStatus>> batch = new ArrayList<>(pending.entrySet());
+        List<Map.Entry<Long, LocalDateTime>> onlineTimes = new ArrayList<>(pendingOnlineTimes.entrySet());
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                // 先写最后在线时间，同一批次中的状态更新随后覆盖
+                for (Map.Entry<Long, LocalDateTime> entry : onlineTimes) {
+                    Printer printer = new Printer();
+                    printer.setId(entry.getKey());
+                    printer.setLastOnlineTime(entry.getValue());
+                    printerMapper.updateById(printer);
+                }
+                for (Map.Entry<Long, PendingStatus> entry : batch) {
+                    Printer printer = new Printer();
+                    printer.setId(entry.getKey());
+                    entry.getValue().applyTo(printer);
+                    printerMapper.updateById(printer);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("批量写入打印机状态失败，{} 条状态将在下次重试", batch.size() + onlineTimes.size(), e);
+            return;
+        }
+        for (Map.Entry<Long, PendingStatus> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Long, LocalDateTime> entry : onlineTimes) {
+            pendingOnlineTimes.remove(entry.getKey(), entry.getValue());
+        }
+        log.debug("批量写入打印机状态: {} 条，最后在线时间: {} 条", batch.size(), onlineTimes.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * 待写入的状态
+     */
+    private static final class PendingStatus {
+        private final String status;
+        private final LocalDateTime updateTime;
+
+        private PendingStatus(String status, LocalDateTime updateTime) {
+            this.status = status;
+            this.updateTime = updateTime;
+        }
+
+        private void applyTo(Printer printer) {
+            printer.setStatus(status);
+            printer.setUpdateTime(updateTime);
+            if (STATUS_ONLINE.equals(status)) {
+                printer.setLastOnlineTime(updateTime);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.vo.PrintQueueStatsVO;
+
+/**
+ * 打印机工作线程
+ * 每台打印机一个线程，按 {@link FairJobQueue} 的调度顺序逐个处理任务；发送过程是阻塞 I/O，虚拟线程模式下使用虚拟线程。
+ * 同时记录排队的字节数和实测的发送速率，供打印机池调度估算完成时间
+ */
+@Slf4j
+final class PrinterWorker implements Runnable {
+
+    /**
+     * 发送时间短于该值的任务不计入发送速率，小任务全部进入发送缓冲区，测得的速率没有意义
+     */
+    private static final long MIN_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Long printerId;
+    private final FairJobQueue queue;
+    private final Consumer<PrintJob> processor;
+    private final Thread thread;
+
+    private volatile PrintJob current;
+
+    /**
+     * 发送速率的指数加权平均（字节/秒），尚无测量数据时为 0
+     */
+    private volatile double throughput;
+
+    PrinterWorker(Long printerId, FairJobQueue queue, Consumer<PrintJob> processor, ThreadFactory threadFactory) {
+        this.printerId = printerId;
+        this.queue = queue;
+        this.processor = processor;
+        this.thread = threadFactory.newThread(this);
+        this.thread.setName("print-worker-" + printerId);
+    }
+
+    Long getPrinterId() {
+        return printerId;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * 任务入队
+     * @return 队列已满时返回 false
+     */
+    boolean offer(PrintJob job) {
+        return queue.offer(job);
+    }
+
+    boolean remove(PrintJob job) {
+        return queue.remove(job);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * 队列中任务的快照
+     */
+    List<PrintJob> queuedJobs() {
+        return queue.jobs();
+    }
+
+    /**
+     * 按优先级和通道统计的排队和等待情况
+     */
+    List<PrintQueueStatsVO> stats() {
+        return queue.stats(printerId);
+    }
+
+    /**
+     * 排队和正在打印的任务数
+     */
+    int pendingJobs() {
+        return queue.size() + (current != null ? 1 : 0);
+    }
+
+    /**
+     * 排队和正在打印的任务尚未发送的字节数
+     */
+    long pendingBytes() {
+        long bytes = queue.queuedBytes();
+        PrintJob job = current;
+        if (job != null) {
+            bytes += job.getTotalBytes() > 0 ? job.getTotalBytes() - job.getBytesSent() : job.getSize();
+        }
+        return Math.max(0, bytes);
+    }
+
+    /**
+     * 实测的发送速率（字节/秒）
+     * @param defaultThroughput 尚无测量数据时返回的速率
+     */
+    long throughput(long defaultThroughput) {
+        double measured = throughput;
+        return measured > 0 ? (long) measured : defaultThroughput;
+    }
+
+    /**
+     * 记录一次发送
+     * 打印机接收缓冲区写满后靠 TCP 流控限速，较大任务的发送速率接近打印机实际处理数据的速度
+     *
+     * @param bytes  发送的字节数
+     * @param nanos  发送耗时
+     * @param weight 新测量值的权重
+     */
+    void recordTransfer(long bytes, long nanos, double weight) {
+        if (nanos < MIN_SAMPLE_NANOS || bytes <= 0) {
+            return;
+        }
+        double sample = bytes * 1e9 / nanos;
+        double previous = throughput;
+        throughput = previous > 0 ? previous + weight * (sample - previous) : sample;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            PrintJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            current = job;
+            try {
+                processor.accept(job);
+            } catch (Exception e) {
+                log.error("打印机 {} 处理任务 {} 时发生错误", printerId, job.getId(), e);
+            } finally {
+                current = null;
+            }
+        }
+    }
+}
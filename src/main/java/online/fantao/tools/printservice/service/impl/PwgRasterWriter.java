@@ -0,0 +1,142 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * PWG 光栅（PWG 5102.4）输出
+ * 每页写入 1796 字节的页头和按行压缩的 8 位灰度数据
+ */
+final class PwgRasterWriter {
+
+    private static final byte[] SYNC_WORD = {'R', 'a', 'S', '2'};
+    private static final int HEADER_LENGTH = 1796;
+
+    private static final int COLOR_SPACE_SGRAY = 18;
+
+    /**
+     * 一个控制字节最多表示的像素数
+     */
+    private static final int MAX_RUN = 128;
+
+    /**
+     * 一个行重复字节最多表示的行数
+     */
+    private static final int MAX_LINE_REPEAT = 256;
+
+    private final OutputStream out;
+    private final int totalPages;
+    private final byte[] encodeBuffer;
+
+    /**
+     * @param out 输出流，调用方负责关闭
+     * @param totalPages 总页数，写入每页的页头
+     * @param maxWidth 最大行宽（像素）
+     */
+    PwgRasterWriter(OutputStream out, int totalPages, int maxWidth) throws IOException {
+        this.out = out;
+        this.totalPages = totalPages;
+        // 单个像素和两个相同像素交替出现时，压缩后最多为原长度的 4/3，按 2 倍分配
+        this.encodeBuffer = new byte[maxWidth * 2 + 2];
+        out.write(SYNC_WORD);
+    }
+
+    /**
+     * 写入一页
+     *
+     * @param pixels 8 位灰度像素，按行排列
+     * @param width 宽度（像素）
+     * @param height 高度（像素）
+     * @param dpi 分辨率
+     * @param duplex 是否双面
+     */
+    void writePage(byte[] pixels, int width, int height, int dpi, boolean duplex) throws IOException {
+        out.write(header(width, height, dpi, duplex));
+        int y = 0;
+        while (y < height) {
+            int repeat = 1;
+            while (repeat < MAX_LINE_REPEAT && y + repeat < height && sameLine(pixels, width, y, y + repeat)) {
+                repeat++;
+            }
+            out.write(repeat - 1);
+            int length = encodeLine(pixels, y * width, width);
+            out.write(encodeBuffer, 0, length);
+            y += repeat;
+        }
+    }
+
+    private byte[] header(int width, int height, int dpi, boolean duplex) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        putString(header, 0, "PwgRaster");
+        header.putInt(272, duplex ? 1 : 0);
+        header.putInt(276, dpi);
+        header.putInt(280, dpi);
+        // 页面尺寸以点（1/72 英寸）为单位
+        header.putInt(352, Math.round(width * 72f / dpi));
+        header.putInt(356, Math.round(height * 72f / dpi));
+        header.putInt(372, width);
+        header.putInt(376, height);
+        header.putInt(384, 8);
+        header.putInt(388, 8);
+        header.putInt(392, width);
+        header.putInt(400, COLOR_SPACE_SGRAY);
+        header.putInt(420, 1);
+        // TotalPageCount、CrossFeedTransform、FeedTransform
+        header.putInt(452, totalPages);
+        header.putInt(456, 1);
+        header.putInt(460, 1);
+        putString(header, 1732, "iso_a4_210x297mm");
+        return header.array();
+    }
+
+    private static void putString(ByteBuffer buffer, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        buffer.put(offset, bytes, 0, Math.min(bytes.length, 63));
+    }
+
+    private static boolean sameLine(byte[] pixels, int width, int a, int b) {
+        return Arrays.equals(pixels, a * width, a * width + width, pixels, b * width, b * width + width);
+    }
+
+    /**
+     * 压缩一行：0-127 表示下一个像素重复 n+1 次，129-255 表示后面 257-n 个像素原样输出
+     *
+     * @return 压缩后的字节数
+     */
+    private int encodeLine(byte[] pixels, int start, int width) {
+        int end = start + width;
+        int length = 0;
+        int i = start;
+        while (i < end) {
+            int run = 1;
+            while (run < MAX_RUN && i + run < end && pixels[i + run] == pixels[i]) {
+                run++;
+            }
+            if (run > 1 || i + 1 == end) {
+                encodeBuffer[length++] = (byte) (run - 1);
+                encodeBuffer[length++] = pixels[i];
+                i += run;
+                continue;
+            }
+            // 收集不重复的像素，遇到连续两个相同像素时停止
+            int literalStart = i;
+            int count = 0;
+            while (count < MAX_RUN && i < end && (i + 1 == end || pixels[i] != pixels[i + 1])) {
+                i++;
+                count++;
+            }
+            if (count == 1) {
+                encodeBuffer[length++] = 0;
+                encodeBuffer[length++] = pixels[literalStart];
+                continue;
+            }
+            encodeBuffer[length++] = (byte) (257 - count);
+            System.arraycopy(pixels, literalStart, encodeBuffer, length, count);
+            length += count;
+        }
+        return length;
+    }
+}
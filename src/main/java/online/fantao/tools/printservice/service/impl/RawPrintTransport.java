@@ -0,0 +1,112 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import online.fantao.tools.printservice.config.PrintTransportConfig;
+
+/**
+ * RAW/JetDirect（9100端口）打印传输
+ * 使用 FileChannel.transferTo 直接将文件写入 Socket，数据不经过 JVM 堆
+ */
+@Component
+@RequiredArgsConstructor
+public class RawPrintTransport {
+
+    /**
+     * 发送进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * 发送进度
+         * @param bytesSent 已发送字节数
+         * @param totalBytes 总字节数
+         */
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    private final PrintTransportConfig transportConfig;
+
+    /**
+     * 将文件发送到打印机
+     *
+     * @param file     文件路径
+     * @param copies   份数，每份重复发送一次文件
+     * @param host     打印机地址
+     * @param port     打印机端口
+     * @param listener 进度回调
+     * @return 发送的总字节数
+     */
+    public long send(Path file, int copies, String host, int port, ProgressListener listener) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+                SocketChannel socketChannel = SocketChannel.open();
+                Selector selector = Selector.open()) {
+            if (transportConfig.getSendBufferSize() > 0) {
+                socketChannel.setOption(StandardSocketOptions.SO_SNDBUF, transportConfig.getSendBufferSize());
+            }
+            socketChannel.configureBlocking(false);
+            SelectionKey key = socketChannel.register(selector, 0);
+            connect(socketChannel, key, selector, new InetSocketAddress(host, port));
+
+            long fileSize = fileChannel.size();
+            long totalBytes = fileSize * copies;
+            long chunkSize = Math.max(1, transportConfig.getTransferChunkSize());
+            long sent = 0;
+            listener.onProgress(0, totalBytes);
+
+            key.interestOps(SelectionKey.OP_WRITE);
+            for (int i = 0; i < copies; i++) {
+                long position = 0;
+                while (position < fileSize) {
+                    long transferred = fileChannel.transferTo(position, Math.min(chunkSize, fileSize - position), socketChannel);
+                    if (transferred > 0) {
+                        position += transferred;
+                        sent += transferred;
+                        listener.onProgress(sent, totalBytes);
+                    } else {
+                        // 发送缓冲区已满，等待打印机接收数据
+                        await(selector, transportConfig.getWriteTimeout(), "向打印机发送数据超时");
+                    }
+                }
+            }
+            socketChannel.shutdownOutput();
+            return sent;
+        }
+    }
+
+    private void connect(SocketChannel socketChannel, SelectionKey key, Selector selector, InetSocketAddress address)
+            throws IOException {
+        if (socketChannel.connect(address)) {
+            return;
+        }
+        key.interestOps(SelectionKey.OP_CONNECT);
+        long deadline = System.currentTimeMillis() + transportConfig.getConnectTimeout();
+        while (!socketChannel.finishConnect()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new SocketTimeoutException("连接打印机超时");
+            }
+            await(selector, remaining, "连接打印机超时");
+        }
+    }
+
+    private void await(Selector selector, long timeout, String timeoutMessage) throws IOException {
+        selector.selectedKeys().clear();
+        if (selector.select(Math.max(1, timeout)) == 0) {
+            throw new SocketTimeoutException(timeoutMessage);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrintRenderConfig;
+import online.fantao.tools.printservice.service.DocumentConverter;
+import online.fantao.tools.printservice.service.RenderOptions;
+
+/**
+ * 渲染结果缓存
+ * 以文件内容哈希 + 目标格式 + 渲染参数为键保存在磁盘上，超过容量时淘汰最近最少使用的结果；
+ * 相同文件以相同参数重复打印时直接发送缓存结果，同一个键同时只渲染一次。
+ * {@link #render} 返回的结果在调用 {@link #release} 之前不会被淘汰
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RenderCache {
+
+    private static final String TEMP_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 按内容去重存储的文件ID为 SHA-256 + 扩展名，可以直接作为内容哈希
+     */
+    private static final Pattern CONTENT_FILE_ID = Pattern.compile("^[0-9a-f]{64}\\.[0-9a-z]+$");
+
+    private final PrintRenderConfig renderConfig;
+    private final List<DocumentConverter> documentConverters;
+    private final MeterRegistry meterRegistry;
+
+    private final List<DocumentConverter> converters = new ArrayList<>();
+
+    /**
+     * 缓存条目及大小，按访问顺序排列，最先的为最近最少使用
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock entriesLock = new ReentrantLock();
+
+    /**
+     * 正在使用的条目及使用次数，由 entriesLock 保护
+     */
+    private final Map<String, Integer> pins = new HashMap<>();
+    private final AtomicLong totalSize = new AtomicLong();
+
+    /**
+     * 正在渲染的键
+     */
+    private final Map<String, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    private Path cacheDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (PrintRenderConfig.Command command : renderConfig.getCommands()) {
+            converters.add(new CommandDocumentConverter(command, renderConfig.getCommandTimeout()));
+        }
+        converters.addAll(documentConverters);
+
+        cacheDir = Paths.get(renderConfig.getCacheDir()).toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+        loadEntries();
+        meterRegistry.gauge("print.render.cache.size", totalSize);
+    }
+
+    /**
+     * 检查是否支持转换
+     *
+     * @param sourceType 源文件扩展名
+     * @param format 目标格式
+     */
+    public boolean supports(String sourceType, String format) {
+        return findConverter(sourceType, format) != null;
+    }
+
+    /**
+     * 获取渲染结果，缓存中没有时渲染并加入缓存
+     * 返回的文件在使用完后需要调用 {@link #release} 释放
+     *
+     * @param source 源文件
+     * @param fileId 文件ID
+     * @param sourceType 源文件扩展名
+     * @param options 渲染参数
+     * @return 渲染结果文件
+     */
+    public Path render(Path source, String fileId, String sourceType, RenderOptions options) throws IOException {
+        DocumentConverter converter = findConverter(sourceType, options.getFormat());
+        if (converter == null) {
+            throw new IOException("不支持将 " + sourceType + " 转换为 " + options.getFormat());
+        }
+        String key = contentHash(source, fileId) + "-" + options.toKey() + "." + options.getFormat();
+
+        while (true) {
+            Path cached = lookup(key);
+            if (cached != null) {
+                meterRegistry.counter("print.render.cache", "result", "hit").increment();
+                return cached;
+            }
+
+            CompletableFuture<Path> task = new CompletableFuture<>();
+            CompletableFuture<Path> existing = rendering.putIfAbsent(key, task);
+            if (existing == null) {
+                return renderOnce(converter, source, sourceType, options, key, task);
+            }
+            // 其他线程渲染完成后重新查找，由查找固定结果；期间结果已被淘汰时重新渲染
+            await(existing);
+        }
+    }
+
+    /**
+     * 释放 {@link #render} 返回的结果，不再使用的结果可以被淘汰
+     *
+     * @param rendered 渲染结果文件
+     */
+    public void release(Path rendered) {
+        String key = rendered.getFileName().toString();
+        entriesLock.lock();
+        try {
+            unpin(key);
+            evict();
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    private Path renderOnce(DocumentConverter converter, Path source, String sourceType, RenderOptions options,
+            String key, CompletableFuture<Path> task) throws IOException {
+        try {
+            // 查找缓存与登记渲染之间，其他线程可能刚好完成了渲染
+            Path result = lookup(key);
+            if (result == null) {
+                meterRegistry.counter("print.render.cache", "result", "miss").increment();
+                result = renderToCache(converter, source, sourceType, options, key);
+            }
+            task.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            task.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key);
+        }
+    }
+
+    private Path renderToCache(DocumentConverter converter, Path source, String sourceType, RenderOptions options,
+            String key) throws IOException {
+        Path target = cacheDir.resolve(key);
+        Path tempFile = cacheDir.resolve(key + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            converter.convert(source, sourceType, options, tempFile);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+            sample.stop(meterRegistry.timer("print.render", "format", options.getFormat()));
+        }
+
+        long size = Files.size(target);
+        entriesLock.lock();
+        try {
+            Long previous = entries.put(key, size);
+            totalSize.addAndGet(size - (previous == null ? 0 : previous));
+            pin(key);
+            evict();
+        } finally {
+            entriesLock.unlock();
+        }
+        log.info("渲染完成: {}, 大小: {} 字节", key, size);
+        return target;
+    }
+
+    /**
+     * 查找缓存，命中时固定条目并更新访问时间，文件的修改时间用于重启后恢复访问顺序
+     */
+    private Path lookup(String key) {
+        entriesLock.lock();
+        try {
+            if (entries.get(key) == null) {
+                return null;
+            }
+            pin(key);
+        } finally {
+            entriesLock.unlock();
+        }
+        Path file = cacheDir.resolve(key);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        } catch (IOException e) {
+            // 文件已被外部删除，重新渲染
+            release(file);
+            removeEntry(key);
+            return null;
+        }
+    }
+
+    /**
+     * 淘汰最近最少使用的条目直到不超过容量，正在使用的条目不淘汰，调用方需持有锁
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize.get() > renderConfig.getMaxCacheSize() && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (pins.containsKey(eldest.getKey())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                // 文件可能正在发送（Windows 下无法删除），保留到下次淘汰
+                log.warn("删除渲染缓存失败: {}", eldest.getKey(), e);
+                continue;
+            }
+            totalSize.addAndGet(-eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 增加条目的使用次数，调用方需持有锁
+     */
+    private void pin(String key) {
+        pins.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * 减少条目的使用次数，调用方需持有锁
+     */
+    private void unpin(String key) {
+        pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void removeEntry(String key) {
+        entriesLock.lock();
+        try {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalSize.addAndGet(-size);
+            }
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    /**
+     * 启动时按修改时间恢复缓存条目，并清理中断渲染留下的临时文件
+     */
+    private void loadEntries() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Map<Path, FileTime> modifiedTimes = new LinkedHashMap<>();
+        for (Path file : files) {
+            modifiedTimes.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(modifiedTimes::get));
+
+        entriesLock.lock();
+        try {
+            for (Path file : files) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                totalSize.addAndGet(size);
+            }
+            evict();
+        } finally {
+            entriesLock.unlock();
+        }
+        log.info("渲染缓存: {} 个文件，共 {} 字节", entries.size(), totalSize.get());
+    }
+
+    private DocumentConverter findConverter(String sourceType, String format) {
+        for (DocumentConverter converter : converters) {
+            if (converter.supports(sourceType, format)) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private static String contentHash(Path source, String fileId) throws IOException {
+        if (CONTENT_FILE_ID.matcher(fileId).matches()) {
+            return fileId.substring(0, 64);
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Path await(CompletableFuture<Path> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待渲染结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+}
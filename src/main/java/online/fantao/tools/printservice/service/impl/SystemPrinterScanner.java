@@ -0,0 +1,219 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.print.PrintService;
+import javax.print.PrintServiceLookup;
+import javax.print.attribute.Attribute;
+import javax.print.attribute.standard.PrinterURI;
+import javax.print.attribute.standard.PrinterIsAcceptingJobs;
+import javax.print.attribute.standard.PrinterState;
+import javax.print.attribute.standard.PrinterStateReasons;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import online.fantao.tools.printservice.config.PrinterScanConfig;
+import online.fantao.tools.printservice.convert.PrinterConverter;
+import online.fantao.tools.printservice.service.PrinterDiscoveryService;
+import online.fantao.tools.printservice.vo.PrinterVO;
+
+/**
+ * 系统打印机扫描器
+ * 读取本机已安装的打印服务，并通过子网探测补全网络地址
+ * 各阶段耗时记录在 printer.scan 指标中（phase 标签：lookup、attributes、discovery、total）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SystemPrinterScanner {
+
+    private final PrinterDiscoveryService printerDiscoveryService;
+    private final PrinterScanConfig printerScanConfig;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 扫描回调
+     * 回调在扫描线程中执行
+     */
+    public interface ScanListener extends PrinterDiscoveryService.ProbeListener {
+
+        /**
+         * 打印机信息已确定
+         * @param printer 打印机信息
+         */
+        default void onPrinter(PrinterVO printer) {
+        }
+    }
+
+    /**
+     * 扫描系统中已安装的打印机，并为缺少地址的打印机探测网络地址
+     *
+     * @return 打印机列表
+     */
+    public List<PrinterVO> scan() {
+        return scan(new ScanListener() {
+        });
+    }
+
+    /**
+     * 扫描系统中已安装的打印机，并为缺少地址的打印机探测网络地址
+     * 不需要探测地址的打印机会立即通过回调返回；其余打印机在探测到第一个可达主机时返回，
+     * 没有可达主机时在子网探测完成后返回
+     *
+     * @param listener 扫描回调
+     * @return 打印机列表
+     */
+    public List<PrinterVO> scan(ScanListener listener) {
+        List<PrinterVO> printers = new ArrayList<>();
+        Timer.Sample scanSample = Timer.start(meterRegistry);
+        try {
+            // 获取所有打印机服务
+            Timer.Sample lookupSample = Timer.start(meterRegistry);
+            PrintService[] printServices = PrintServiceLookup.lookupPrintServices(null, null);
+            PrintService defaultPrintService = PrintServiceLookup.lookupDefaultPrintService();
+            lookupSample.stop(phaseTimer("lookup"));
+
+            // 需要通过子网探测补全地址的打印机
+            List<PrinterVO> unresolved = new ArrayList<>();
+
+            for (PrintService printService : printServices) {
+                Timer.Sample attributesSample = Timer.start(meterRegistry);
+                PrinterVO printerVO = new PrinterVO();
+                printerVO.setName(printService.getName());
+
+                // 设置是否为默认打印机
+                printerVO.setIsDefault(printService.equals(defaultPrintService));
+
+                // 设置打印机属性
+                Map<String, String> attributes = new HashMap<>();
+                for (Attribute attr : printService.getAttributes().toArray()) {
+                    attributes.put(attr.getCategory().getName(), attr.toString());
+                }
+                printerVO.setAttributes(attributes);
+
+                // 判断打印机状态
+                boolean isOnline = false;
+                try {
+                    // 检查打印机是否接受任务
+                    PrinterIsAcceptingJobs acceptingJobs = printService.getAttribute(PrinterIsAcceptingJobs.class);
+                    if (acceptingJobs != null) {
+                        isOnline = acceptingJobs.getValue() == PrinterIsAcceptingJobs.ACCEPTING_JOBS.getValue();
+                    }
+
+                    // 检查打印机状态
+                    PrinterState printerState = printService.getAttribute(PrinterState.class);
+                    if (printerState != null) {
+                        // 如果打印机状态不是空闲，则设置为离线
+                        if (printerState.getValue() != PrinterState.IDLE.getValue()) {
+                            isOnline = false;
+                        }
+                    }
+
+                    // 检查打印机状态原因
+                    PrinterStateReasons stateReasons = printService.getAttribute(PrinterStateReasons.class);
+                    if (stateReasons != null && !stateReasons.isEmpty()) {
+                        // 如果有错误状态，则设置为离线
+                        isOnline = false;
+                    }
+                } catch (Exception e) {
+                    log.warn("获取打印机状态失败: {}", e.getMessage());
+                }
+                printerVO.setStatus(isOnline ? "ONLINE" : "OFFLINE");
+
+                // 设置最后在线时间
+                if (isOnline) {
+                    printerVO.setLastOnlineTime(LocalDateTime.now());
+                }
+
+                // 设置状态文本
+                printerVO.setStatusText(PrinterConverter.statusText(printerVO.getStatus()));
+
+                // 设置最后在线时间文本
+                if (printerVO.getLastOnlineTime() != null) {
+                    printerVO.setLastOnlineTimeText(PrinterConverter.dateTimeText(printerVO.getLastOnlineTime()));
+                }
+
+                // 如果是真实打印机，尝试获取IP和端口
+                if (!printerVO.getName().contains("PDF") && !printerVO.getName().contains("Microsoft")) {
+                    // 首先尝试从打印机URI获取
+                    Attribute uriAttr = printService.getAttribute(PrinterURI.class);
+                    if (uriAttr != null) {
+                        String uri = uriAttr.toString();
+                        if (uri.startsWith("socket://")) {
+                            String ipPort = uri.substring(9);
+                            String[] parts = ipPort.split(":");
+                            if (parts.length == 2) {
+                                printerVO.setIpAddress(parts[0]);
+                                printerVO.setPort(Integer.parseInt(parts[1]));
+                            }
+                        }
+                    }
+
+                    // 如果无法从URI获取，稍后从本地网络扫描
+                    if (printerVO.getIpAddress() == null) {
+                        unresolved.add(printerVO);
+                    }
+                }
+
+                attributesSample.stop(phaseTimer("attributes"));
+                printers.add(printerVO);
+                if (unresolved.isEmpty() || unresolved.get(unresolved.size() - 1) != printerVO) {
+                    listener.onPrinter(printerVO);
+                }
+            }
+
+            // 每次扫描只探测一次子网，第一个可达主机由所有缺少地址的打印机共享
+            if (!unresolved.isEmpty()) {
+                Timer.Sample discoverySample = Timer.start(meterRegistry);
+                printerDiscoveryService.discover(new PrinterDiscoveryService.ProbeListener() {
+                    @Override
+                    public void onReachable(String host) {
+                        if (!unresolved.isEmpty()) {
+                            resolve(unresolved, host, listener);
+                        }
+                        listener.onReachable(host);
+                    }
+
+                    @Override
+                    public void onProgress(int probed, int total) {
+                        listener.onProgress(probed, total);
+                    }
+                });
+                discoverySample.stop(phaseTimer("discovery"));
+                resolve(unresolved, null, listener);
+            }
+        } finally {
+            scanSample.stop(phaseTimer("total"));
+        }
+        return printers;
+    }
+
+    /**
+     * 为缺少地址的打印机设置探测到的地址并通过回调返回
+     *
+     * @param unresolved 缺少地址的打印机，返回后清空
+     * @param host       可达主机IP地址，为 null 时不设置地址
+     */
+    private void resolve(List<PrinterVO> unresolved, String host, ScanListener listener) {
+        for (PrinterVO printerVO : unresolved) {
+            if (host != null) {
+                printerVO.setIpAddress(host);
+                printerVO.setPort(printerScanConfig.getPort());
+            }
+            listener.onPrinter(printerVO);
+        }
+        unresolved.clear();
+    }
+
+    private Timer phaseTimer(String phase) {
+        return meterRegistry.timer("printer.scan", "phase", phase);
+    }
+}
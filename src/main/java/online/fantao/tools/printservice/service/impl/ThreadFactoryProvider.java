@@ -0,0 +1,44 @@
+package online.fantao.tools.printservice.service.impl;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 执行阻塞 I/O 的线程工厂
+ * 开启 spring.threads.virtual.enabled（virtual 配置）时创建虚拟线程，需要 Java 21；
+ * 否则创建普通的守护线程
+ */
+@Slf4j
+@Component
+class ThreadFactoryProvider {
+
+    private final boolean virtual;
+
+    ThreadFactoryProvider(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("虚拟线程需要 Java 21 及以上版本，当前版本: " + Runtime.version());
+        }
+        this.virtual = virtual;
+        log.info("阻塞 I/O 使用{}线程", virtual ? "虚拟" : "平台");
+    }
+
+    /**
+     * 创建线程工厂
+     *
+     * @param threadNamePrefix 线程名前缀
+     */
+    ThreadFactory newThreadFactory(String threadNamePrefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
@@ -0,0 +1,55 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * 打印任务视图对象
+ */
+@Data
+public class PrintJobVO {
+    private String jobId;
+    private String fileId;
+    /**
+     * 当前分配的打印机ID，提交到打印机池的任务转移后会改变
+     */
+    private Long printerId;
+    /**
+     * 打印机池ID，直接提交到打印机的任务为空
+     */
+    private Long poolId;
+    /**
+     * 提交者（用户或租户）
+     */
+    private String owner;
+    /**
+     * 优先级：HIGH、NORMAL、LOW
+     */
+    private String priority;
+    private Integer copies;
+    /**
+     * 渲染的目标格式，为空表示直接发送原文件
+     */
+    private String format;
+    private Integer dpi;
+    private Boolean duplex;
+    private Integer numberUp;
+    /**
+     * 任务状态：QUEUED、PRINTING、COMPLETED、FAILED、CANCELLED
+     */
+    private String status;
+    private String statusText;
+    /**
+     * 已发送字节数
+     */
+    private Long bytesSent;
+    /**
+     * 需要发送的总字节数
+     */
+    private Long totalBytes;
+    private String message;
+    private LocalDateTime createTime;
+    private LocalDateTime startTime;
+    private LocalDateTime finishTime;
+}
@@ -0,0 +1,36 @@
+package online.fantao.tools.printservice.vo;
+
+import lombok.Data;
+
+/**
+ * 打印队列统计视图对象
+ * 按打印机、优先级和通道统计
+ */
+@Data
+public class PrintQueueStatsVO {
+    private Long printerId;
+    /**
+     * 优先级：HIGH、NORMAL、LOW
+     */
+    private String priority;
+    /**
+     * 通道：fast（小任务快速通道）、normal（普通通道）
+     */
+    private String lane;
+    /**
+     * 排队中的任务数
+     */
+    private Integer queued;
+    /**
+     * 已调度的任务数
+     */
+    private Long dispatched;
+    /**
+     * 已调度任务的平均排队时间（毫秒）
+     */
+    private Long averageWait;
+    /**
+     * 已调度任务的最长排队时间（毫秒）
+     */
+    private Long maxWait;
+}
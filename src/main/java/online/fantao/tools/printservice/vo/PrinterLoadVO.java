@@ -0,0 +1,35 @@
+package online.fantao.tools.printservice.vo;
+
+import lombok.Data;
+
+/**
+ * 打印机负载视图对象
+ * 调度器根据预计完成时间在打印机池中选择打印机
+ */
+@Data
+public class PrinterLoadVO {
+    private Long printerId;
+    private String name;
+    private String status;
+    private String statusText;
+    /**
+     * 是否可以接收新任务，离线或错误状态的打印机不参与调度
+     */
+    private Boolean available;
+    /**
+     * 排队和正在打印的任务数
+     */
+    private Integer pendingJobs;
+    /**
+     * 排队和正在打印的任务尚未发送的字节数
+     */
+    private Long pendingBytes;
+    /**
+     * 实测的发送速率（字节/秒），尚无测量数据时为默认值
+     */
+    private Long throughput;
+    /**
+     * 预计完成当前所有任务需要的时间（毫秒）
+     */
+    private Long estimatedWait;
+}
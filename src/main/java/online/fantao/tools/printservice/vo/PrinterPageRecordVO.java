@@ -0,0 +1,11 @@
+package online.fantao.tools.printservice.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 分页查询返回的打印机
+ * 只返回请求的字段时，未请求的字段为空，序列化时不输出
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PrinterPageRecordVO extends PrinterVO {
+}
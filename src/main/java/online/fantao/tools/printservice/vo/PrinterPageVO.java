@@ -0,0 +1,15 @@
+package online.fantao.tools.printservice.vo;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PrinterPageVO {
+    private List<PrinterPageRecordVO> records;
+    /**
+     * 下一页的游标，没有更多数据时为空
+     */
+    private Long nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,22 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 打印机池视图对象
+ */
+@Data
+public class PrinterPoolVO {
+    private Long id;
+    private String name;
+    private String description;
+    /**
+     * 成员打印机，按加入顺序排列
+     */
+    private List<PrinterVO> members;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,11 @@
+package online.fantao.tools.printservice.vo;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PrinterSnapshotVO {
+    private Long sequence;
+    private List<PrinterVO> printers;
+}
@@ -0,0 +1,22 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PrinterSnmpVO {
+    private Long printerId;
+    private String ipAddress;
+    private Boolean reachable;
+    private String status;
+    private Integer deviceStatus;
+    private Integer printerStatus;
+    private List<String> errorStates;
+    private List<Integer> tonerLevels;
+    private List<Integer> paperLevels;
+    private Long pageCount;
+    private Long pollInterval;
+    private LocalDateTime pollTime;
+}
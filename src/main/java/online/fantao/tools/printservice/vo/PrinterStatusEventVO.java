@@ -0,0 +1,20 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class PrinterStatusEventVO {
+    private Long sequence;
+    private Long printerId;
+    private String status;
+    private String statusText;
+    private LocalDateTime lastOnlineTime;
+    private Boolean removed;
+    private LocalDateTime eventTime;
+    /**
+     * 新增或修改打印机时的完整信息，状态变化和删除事件中为空
+     */
+    private PrinterVO printer;
+}
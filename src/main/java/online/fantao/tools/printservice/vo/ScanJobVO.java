@@ -0,0 +1,44 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * 打印机扫描任务视图对象
+ */
+@Data
+public class ScanJobVO {
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 任务状态：QUEUED、RUNNING、COMPLETED、FAILED
+     */
+    private String status;
+
+    /**
+     * 已探测主机数
+     */
+    private Integer probed;
+
+    /**
+     * 剩余待探测主机数
+     */
+    private Integer remaining;
+
+    /**
+     * 已发现的打印机数
+     */
+    private Integer found;
+
+    /**
+     * 错误信息
+     */
+    private String message;
+
+    private LocalDateTime createTime;
+    private LocalDateTime finishTime;
+}
@@ -0,0 +1,29 @@
+package online.fantao.tools.printservice.vo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 分片上传会话视图对象
+ */
+@Data
+public class UploadSessionVO {
+    private String uploadId;
+    private String filename;
+    private Long totalSize;
+    /**
+     * 已接收的字节数
+     */
+    private Long receivedBytes;
+    /**
+     * 已接收的字节区间，每项为 [start, end)
+     */
+    private List<long[]> ranges;
+    /**
+     * 上传完成后的文件ID
+     */
+    private String fileId;
+    private LocalDateTime createTime;
+}
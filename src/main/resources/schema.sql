@@ -14,4 +14,53 @@ CREATE TABLE IF NOT EXISTS printer (
 
 -- 创建索引
 CREATE INDEX IF NOT EXISTS idx_printer_ip_port ON printer(ip_address, port);
-CREATE INDEX IF NOT EXISTS idx_printer_status ON printer(status); 
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_printer_status ON printer(status);
+CREATE INDEX IF NOT EXISTS idx_printer_model ON printer(model);
+
+-- 创建文件存储表（按内容哈希去重）
+CREATE TABLE IF NOT EXISTS file_blob (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    file_id VARCHAR(80) NOT NULL,
+    hash VARCHAR(64) NOT NULL,
+    extension VARCHAR(10) NOT NULL,
+    size INTEGER NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_file_blob_file_id ON file_blob(file_id);
+CREATE INDEX IF NOT EXISTS idx_file_blob_ref_count ON file_blob(ref_count);
+CREATE INDEX IF NOT EXISTS idx_file_blob_size ON file_blob(size);
+
+-- 创建文件句柄表（每次上传一条记录，释放时按句柄减少引用计数）
+CREATE TABLE IF NOT EXISTS file_handle (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    handle VARCHAR(80) NOT NULL,
+    file_id VARCHAR(80) NOT NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    deleted INTEGER DEFAULT 0
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_file_handle_handle ON file_handle(handle);
+CREATE INDEX IF NOT EXISTS idx_file_handle_file_id ON file_handle(file_id);
+
+-- 创建打印机池表
+CREATE TABLE IF NOT EXISTS printer_pool (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(200),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 创建打印机池成员表
+CREATE TABLE IF NOT EXISTS printer_pool_member (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    pool_id INTEGER NOT NULL,
+    printer_id INTEGER NOT NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_printer_pool_member ON printer_pool_member(pool_id, printer_id);
+CREATE INDEX IF NOT EXISTS idx_printer_pool_member_printer ON printer_pool_member(printer_id);
@@ -0,0 +1,79 @@
+package online.fantao.tools.printservice.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import online.fantao.tools.printservice.config.PrinterStatusConfig;
+import online.fantao.tools.printservice.convert.PrinterConverterImpl;
+import online.fantao.tools.printservice.entity.Printer;
+import online.fantao.tools.printservice.event.PrinterStatusChangedEvent;
+import online.fantao.tools.printservice.mapper.PrinterMapper;
+import online.fantao.tools.printservice.service.impl.PrinterServiceImpl;
+import online.fantao.tools.printservice.service.impl.PrinterStatusWriter;
+
+class PrinterControllerTest {
+
+    private static final Long PRINTER_ID = 1L;
+
+    private PrinterStatusWriter printerStatusWriter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Printer printer = new Printer();
+        printer.setId(PRINTER_ID);
+        printer.setName("printer");
+        printer.setStatus("OFFLINE");
+        printer.setLastOnlineTime(LocalDateTime.now().minusDays(1));
+        PrinterMapper printerMapper = mock(PrinterMapper.class);
+        when(printerMapper.selectList(any())).thenAnswer(invocation -> List.of(copy(printer)));
+
+        // 状态事件直接交给打印机服务，与 Spring 的同步事件分发一致
+        PrinterServiceImpl[] printerService = new PrinterServiceImpl[1];
+        printerStatusWriter = new PrinterStatusWriter(printerMapper, null, new PrinterStatusConfig(),
+                event -> printerService[0].onStatusChanged((PrinterStatusChangedEvent) event));
+        printerService[0] = new PrinterServiceImpl(printerMapper, null, null, printerStatusWriter, null,
+                new PrinterConverterImpl());
+        mockMvc = MockMvcBuilders.standaloneSetup(new PrinterController(printerService[0], null, null, null)).build();
+    }
+
+    @Test
+    void repeatedOnlinePollsKeepEtag() throws Exception {
+        printerStatusWriter.submit(PRINTER_ID, "ONLINE");
+        String etag = mockMvc.perform(get("/api/printer/list"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // 每次轮询都带有新的最后在线时间
+        Thread.sleep(5);
+        printerStatusWriter.submit(PRINTER_ID, "ONLINE");
+        printerStatusWriter.submit(PRINTER_ID, "ONLINE");
+        mockMvc.perform(get("/api/printer/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        printerStatusWriter.submit(PRINTER_ID, "OFFLINE");
+        mockMvc.perform(get("/api/printer/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private static Printer copy(Printer printer) {
+        Printer copy = new Printer();
+        copy.setId(printer.getId());
+        copy.setName(printer.getName());
+        copy.setStatus(printer.getStatus());
+        copy.setLastOnlineTime(printer.getLastOnlineTime());
+        return copy;
+    }
+}
@@ -0,0 +1,130 @@
+package online.fantao.tools.printservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import online.fantao.tools.printservice.bo.UploadSessionBO;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.service.FileStorageService;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+import online.fantao.tools.printservice.vo.UploadSessionVO;
+
+class ChunkedUploadServiceImplTest {
+
+    private static final String CONTENT = "chunked upload content!\n";
+    private static final String FILE_ID = "stored.txt";
+
+    @TempDir
+    Path dir;
+
+    private ChunkedUploadServiceImpl uploads;
+
+    /**
+     * 交给文件存储服务保存时会话文件的内容
+     */
+    private String stored;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileUploadConfig config = new FileUploadConfig();
+        config.setUploadDir(dir.toString());
+        config.setMaxFileSize(10L);
+        FileStorageService fileStorageService = mock(FileStorageService.class);
+        when(fileStorageService.storeFile(any(), eq("txt"))).thenAnswer(invocation -> {
+            stored = Files.readString(invocation.getArgument(0), StandardCharsets.UTF_8);
+            return FILE_ID;
+        });
+        FileTypeCheckerFactory fileTypeCheckerFactory = new FileTypeCheckerFactory();
+        uploads = new ChunkedUploadServiceImpl(config, fileTypeCheckerFactory,
+                new FileUploadMetrics(new SimpleMeterRegistry(), fileTypeCheckerFactory), fileStorageService);
+    }
+
+    @Test
+    void assemblesChunksReceivedOutOfOrder() throws IOException {
+        String uploadId = initiate();
+        write(uploadId, 16, 24);
+        write(uploadId, 8, 16);
+        UploadSessionVO session = write(uploadId, 0, 8);
+        assertThat(session.getRanges()).hasSize(1);
+        assertThat(session.getRanges().get(0)).containsExactly(0, CONTENT.length());
+
+        assertThat(uploads.complete(uploadId).getFileId()).isEqualTo(FILE_ID);
+        assertThat(stored).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void mergesOverlappingChunks() throws IOException {
+        String uploadId = initiate();
+        write(uploadId, 0, 10);
+        UploadSessionVO session = write(uploadId, 14, 24);
+        assertThat(session.getRanges()).hasSize(2);
+
+        // 重传覆盖已接收的两段并补上中间的空缺
+        session = write(uploadId, 6, 18);
+        assertThat(session.getRanges()).hasSize(1);
+        assertThat(session.getReceivedBytes()).isEqualTo(CONTENT.length());
+
+        uploads.complete(uploadId);
+        assertThat(stored).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void rejectsCompletionWithGap() throws IOException {
+        String uploadId = initiate();
+        write(uploadId, 0, 8);
+        write(uploadId, 12, 24);
+
+        assertThatThrownBy(() -> uploads.complete(uploadId)).isInstanceOf(BusinessException.class);
+        // 补齐后仍可以完成
+        write(uploadId, 8, 12);
+        uploads.complete(uploadId);
+        assertThat(stored).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void deletesOrphanedSessionFiles() throws IOException {
+        String uploadId = initiate();
+        Path live = dir.resolve(".uploads").resolve(uploadId + ".part");
+        // 重启前遗留的会话文件
+        Path orphan = dir.resolve(".uploads").resolve("orphan.part");
+        Files.createFile(orphan);
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+        Path recent = Files.createFile(dir.resolve(".uploads").resolve("recent.part"));
+
+        uploads.evictExpiredSessions();
+        assertThat(orphan).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(live).exists();
+    }
+
+    private String initiate() {
+        UploadSessionBO bo = new UploadSessionBO();
+        bo.setFilename("report.txt");
+        bo.setTotalSize((long) CONTENT.length());
+        return uploads.initiate(bo).getUploadId();
+    }
+
+    private UploadSessionVO write(String uploadId, int start, int end) throws IOException {
+        byte[] chunk = Arrays.copyOfRange(CONTENT.getBytes(StandardCharsets.UTF_8), start, end);
+        return uploads.writeChunk(uploadId, start, new ByteArrayInputStream(chunk));
+    }
+}
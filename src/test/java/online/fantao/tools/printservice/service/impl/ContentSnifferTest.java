@@ -0,0 +1,100 @@
+package online.fantao.tools.printservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+class ContentSnifferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContentSniffer contentSniffer;
+
+    @BeforeEach
+    void setUp() {
+        contentSniffer = new ContentSniffer(new FileTypeCheckerFactory(), new FileUploadConfig());
+    }
+
+    @Test
+    void acceptsTextStartingWithBinarySignature() throws IOException {
+        assertThat(contentSniffer.matches(text("BMI report\n身高 175 体重 70\n"), "txt")).isTrue();
+        assertThat(contentSniffer.matches(text("GIF89a is the animated variant\n"), "txt")).isTrue();
+        assertThat(contentSniffer.matches(text("%PDF-1.7 is described in ISO 32000\n"), "txt")).isTrue();
+        assertThat(contentSniffer.matches(text("PK\u0003\u0004 opens every zip archive\n"), "txt")).isFalse();
+        assertThat(contentSniffer.matches(text("PKWARE wrote the zip format\n"), "txt")).isTrue();
+    }
+
+    @Test
+    void rejectsBinaryDeclaredAsText() throws IOException {
+        byte[] bitmap = new byte[64];
+        bitmap[0] = 'B';
+        bitmap[1] = 'M';
+        bitmap[10] = 0x36;
+        Path file = write("image.txt", bitmap);
+
+        assertThat(contentSniffer.matches(file, "txt")).isFalse();
+        assertThat(contentSniffer.matches(file, "bmp")).isTrue();
+    }
+
+    @Test
+    void textDoesNotPassAsBinaryFormat() throws IOException {
+        assertThat(contentSniffer.matches(text("BMI report\n"), "bmp")).isTrue();
+        assertThat(contentSniffer.matches(text("plain text\n"), "pdf")).isFalse();
+    }
+
+    @Test
+    void distinguishesOfficeOpenXmlDocuments() throws IOException {
+        Path docx = zip("document.docx", "word/document.xml");
+        Path xlsx = zip("book.xlsx", "xl/workbook.xml");
+
+        assertThat(contentSniffer.matches(docx, "docx")).isTrue();
+        assertThat(contentSniffer.matches(docx, "xlsx")).isFalse();
+        assertThat(contentSniffer.matches(xlsx, "xlsx")).isTrue();
+        assertThat(contentSniffer.matches(xlsx, "txt")).isFalse();
+    }
+
+    @Test
+    void fallsBackToTextWhenContainerCannotBeRecognized() throws IOException {
+        Path file = text("PK is not always a zip header\n");
+
+        assertThat(contentSniffer.matches(file, "docx")).isFalse();
+        assertThat(contentSniffer.matches(file, "txt")).isTrue();
+    }
+
+    private Path text(String content) throws IOException {
+        return write("file.txt", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        Path file = Files.createTempFile(tempDir, null, name);
+        Files.write(file, content);
+        return file;
+    }
+
+    private Path zip(String name, String entry) throws IOException {
+        Path file = Files.createTempFile(tempDir, null, name);
+        try (OutputStream out = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry(entry));
+            zip.write("<root/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,127 @@
+package online.fantao.tools.printservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FairJobQueueTest {
+
+    private static final Long PRINTER_ID = 7L;
+    private static final long SMALL_JOB_SIZE = 100;
+    private static final long LARGE_JOB_SIZE = 1000;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void dispatchesHigherPriorityFirst() throws InterruptedException {
+        FairJobQueue queue = queue(10, 4, Map.of());
+        queue.offer(job("low", "a", FairJobQueue.PRIORITY_LOW, LARGE_JOB_SIZE));
+        queue.offer(job("normal", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("high", "a", FairJobQueue.PRIORITY_HIGH, LARGE_JOB_SIZE));
+        queue.offer(job("small-low", "a", FairJobQueue.PRIORITY_LOW, SMALL_JOB_SIZE));
+
+        assertThat(takeAll(queue)).containsExactly("high", "normal", "small-low", "low");
+    }
+
+    @Test
+    void smallJobsSkipAheadButYieldAfterBurst() throws InterruptedException {
+        FairJobQueue queue = queue(10, 2, Map.of());
+        queue.offer(job("large-1", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("large-2", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("small-1", "a", FairJobQueue.PRIORITY_NORMAL, SMALL_JOB_SIZE));
+        queue.offer(job("small-2", "a", FairJobQueue.PRIORITY_NORMAL, SMALL_JOB_SIZE));
+        queue.offer(job("small-3", "a", FairJobQueue.PRIORITY_NORMAL, SMALL_JOB_SIZE));
+
+        assertThat(takeAll(queue)).containsExactly("small-1", "small-2", "large-1", "small-3", "large-2");
+    }
+
+    @Test
+    void alternatesBetweenOwnersWithEqualWeight() throws InterruptedException {
+        FairJobQueue queue = queue(10, 4, Map.of());
+        queue.offer(job("a-1", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("a-2", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("a-3", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("b-1", "b", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("b-2", "b", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+
+        assertThat(takeAll(queue)).containsExactly("a-1", "b-1", "a-2", "b-2", "a-3");
+    }
+
+    @Test
+    void sharesByOwnerWeight() throws InterruptedException {
+        FairJobQueue queue = queue(10, 4, Map.of("a", 2.0));
+        for (int i = 1; i <= 4; i++) {
+            queue.offer(job("a-" + i, "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        }
+        queue.offer(job("b-1", "b", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+        queue.offer(job("b-2", "b", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE));
+
+        assertThat(takeAll(queue)).containsExactly("a-1", "a-2", "b-1", "a-3", "a-4", "b-2");
+    }
+
+    @Test
+    void rejectsWhenFullAndSkipsRemovedJobs() throws InterruptedException {
+        FairJobQueue queue = queue(2, 4, Map.of());
+        PrintJob first = job("first", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE);
+        assertThat(queue.offer(first)).isTrue();
+        assertThat(queue.offer(job("second", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE))).isTrue();
+        assertThat(queue.offer(job("third", "a", FairJobQueue.PRIORITY_NORMAL, LARGE_JOB_SIZE))).isFalse();
+
+        assertThat(queue.remove(first)).isTrue();
+        assertThat(queue.remove(first)).isFalse();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.queuedBytes()).isEqualTo(LARGE_JOB_SIZE);
+        assertThat(takeAll(queue)).containsExactly("second");
+    }
+
+    @Test
+    void recordsWaitTimeByPrinter() throws InterruptedException {
+        FairJobQueue queue = queue(10, 4, Map.of());
+        queue.offer(job("high", "a", FairJobQueue.PRIORITY_HIGH, SMALL_JOB_SIZE));
+        takeAll(queue);
+
+        assertThat(meterRegistry.find("print.job.wait").tag("printer", PRINTER_ID.toString()).timers()).hasSize(6);
+        Timer timer = meterRegistry.find("print.job.wait")
+                .tags("printer", PRINTER_ID.toString(), "priority", FairJobQueue.PRIORITY_HIGH,
+                        "lane", FairJobQueue.LANE_FAST)
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    private FairJobQueue queue(int capacity, int fastLaneBurst, Map<String, Double> weights) {
+        return new FairJobQueue(PRINTER_ID, capacity, SMALL_JOB_SIZE, fastLaneBurst,
+                owner -> weights.getOrDefault(owner, 1.0), meterRegistry);
+    }
+
+    /**
+     * 取出队列中的全部任务，队列为空时 take 会阻塞，按 size 控制次数
+     */
+    private static List<String> takeAll(FairJobQueue queue) throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        while (queue.size() > 0) {
+            ids.add(queue.take().getId());
+        }
+        return ids;
+    }
+
+    private static PrintJob job(String id, String owner, String priority, long size) {
+        return new PrintJob(id, "file.pdf", Path.of("file.pdf"), PRINTER_ID, null, owner, priority, 1, size, null,
+                LocalDateTime.now());
+    }
+}
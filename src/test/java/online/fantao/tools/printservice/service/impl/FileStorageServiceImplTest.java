@@ -0,0 +1,202 @@
+package online.fantao.tools.printservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import online.fantao.tools.printservice.common.BusinessException;
+import online.fantao.tools.printservice.config.FileUploadConfig;
+import online.fantao.tools.printservice.mapper.FileBlobMapper;
+import online.fantao.tools.printservice.mapper.FileHandleMapper;
+import online.fantao.tools.printservice.service.FileTypeCheckerFactory;
+
+class FileStorageServiceImplTest {
+
+    private static final String CONTENT = "quarterly report\nline two\n";
+
+    @TempDir
+    Path dir;
+
+    private FileUploadConfig config;
+    private JdbcTemplate jdbcTemplate;
+    private FileStorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dir.resolve("test.db"));
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setGlobalConfig(new GlobalConfig().setBanner(false));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        sqlSessionFactory.getConfiguration().addMapper(FileBlobMapper.class);
+        sqlSessionFactory.getConfiguration().addMapper(FileHandleMapper.class);
+        SqlSessionTemplate sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+
+        config = new FileUploadConfig();
+        config.setUploadDir(dir.resolve("uploads").toString());
+        config.setMaxFileSize(10L);
+        config.setStorageMode("content");
+        FileTypeCheckerFactory fileTypeCheckerFactory = new FileTypeCheckerFactory();
+        storage = new FileStorageServiceImpl(config, fileTypeCheckerFactory,
+                new ContentSniffer(fileTypeCheckerFactory, config), sqlSession.getMapper(FileBlobMapper.class),
+                sqlSession.getMapper(FileHandleMapper.class),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                new FileUploadMetrics(new SimpleMeterRegistry(), fileTypeCheckerFactory));
+    }
+
+    @Test
+    void releasesEachUploadHandleOnce() throws IOException {
+        String first = store(CONTENT);
+        String second = store(CONTENT);
+        assertThat(first).isNotEqualTo(second);
+        assertThat(storedFiles()).hasSize(1);
+
+        // 同一句柄重复释放不会减少其他上传的引用
+        assertThat(storage.release(first)).isTrue();
+        assertThat(storage.release(first)).isFalse();
+        expireGracePeriod();
+        storage.collectGarbage();
+        assertThat(read(storage.resolve(second))).isEqualTo(CONTENT);
+        assertThatThrownBy(() -> storage.resolve(first)).isInstanceOf(BusinessException.class);
+
+        assertThat(storage.release(second)).isTrue();
+        expireGracePeriod();
+        storage.collectGarbage();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void refusesReleaseByContentHash() throws IOException {
+        String handle = store(CONTENT);
+        String hashId = storage.resolve(handle).getFileName().toString();
+
+        assertThatThrownBy(() -> storage.release(hashId)).isInstanceOf(BusinessException.class);
+        assertThat(storedFiles()).hasSize(1);
+    }
+
+    @Test
+    void keepsUnreferencedFileDuringGracePeriod() throws IOException {
+        String handle = store(CONTENT);
+        storage.release(handle);
+
+        storage.collectGarbage();
+        assertThat(storedFiles()).hasSize(1);
+
+        expireGracePeriod();
+        storage.collectGarbage();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void keepsFileReferencedByJobAfterRelease() throws IOException {
+        String handle = store(CONTENT);
+        storage.addReference(handle);
+        storage.release(handle);
+        expireGracePeriod();
+
+        storage.collectGarbage();
+        assertThat(storedFiles()).hasSize(1);
+        // 已释放的句柄不能再提交新任务
+        assertThatThrownBy(() -> storage.resolve(handle)).isInstanceOf(BusinessException.class);
+
+        storage.removeReference(handle);
+        storage.collectGarbage();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void refusesDeletingUuidFileReferencedByJob() throws IOException {
+        config.setStorageMode("uuid");
+        String fileId = store(CONTENT);
+        storage.addReference(fileId);
+
+        assertThatThrownBy(() -> storage.release(fileId)).isInstanceOf(BusinessException.class);
+        assertThat(storage.resolve(fileId)).exists();
+
+        storage.removeReference(fileId);
+        assertThat(storage.release(fileId)).isTrue();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void reusesOnlyByteIdenticalContent() throws IOException {
+        String original = store(CONTENT);
+        String sameSize = CONTENT.substring(0, CONTENT.length() - 2) + "!\n";
+
+        // 大小相同、声明的哈希指向已有文件，但内容不同时保存为新文件
+        String different = storage.store(stream(sameSize), "report.txt", sameSize.length(), sha256(CONTENT));
+        assertThat(storedFiles()).hasSize(2);
+        assertThat(read(storage.resolve(different))).isEqualTo(sameSize);
+        assertThat(storage.resolve(different).getFileName().toString()).isEqualTo(sha256(sameSize) + ".txt");
+
+        String duplicate = store(CONTENT);
+        assertThat(storedFiles()).hasSize(2);
+        assertThat(storage.resolve(duplicate)).isEqualTo(storage.resolve(original));
+    }
+
+    private String store(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return storage.store(new ByteArrayInputStream(bytes), "report.txt", bytes.length, null);
+    }
+
+    /**
+     * 把文件记录的更新时间提前到保留时间之前
+     */
+    private void expireGracePeriod() {
+        jdbcTemplate.update("UPDATE file_blob SET update_time = datetime('now', '-2 hours')");
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> stream = Files.list(dir.resolve("uploads"))) {
+            return stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
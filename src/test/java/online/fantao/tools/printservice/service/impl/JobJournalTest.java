@@ -0,0 +1,199 @@
+package online.fantao.tools.printservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import online.fantao.tools.printservice.config.PrintJournalConfig;
+
+class JobJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private JobJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void replaysUnfinishedJobs() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.submitted(job("job-2"));
+        journal.finished(job("job-1"));
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-2");
+    }
+
+    @Test
+    void ignoresTornTailRecord() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.submitted(job("job-2"));
+        journal.shutdown();
+
+        // 崩溃时只写入了记录头和部分内容
+        Path segment = onlyFile("segment-");
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = validEnd(bytes);
+        ByteBuffer.wrap(bytes).putInt(end, 200).putInt(end + 4, 0x12345678);
+        bytes[end + 8] = 1;
+        bytes[end + 9] = 42;
+        Files.write(segment, bytes);
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-1", "job-2");
+        // 损坏的尾部已清空，之后追加的记录可以正常重放
+        journal.submitted(job("job-3"));
+        assertThat(recoveredIds(reopen())).containsExactly("job-1", "job-2", "job-3");
+    }
+
+    @Test
+    void ignoresTailRecordWithBadChecksum() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.submitted(job("job-2"));
+        journal.finished(job("job-1"));
+        journal.shutdown();
+
+        // 最后一条记录（job-1 的结束记录）的内容损坏，提交记录仍然有效
+        Path segment = onlyFile("segment-");
+        byte[] bytes = Files.readAllBytes(segment);
+        int last = lastRecordStart(bytes);
+        bytes[last + 8 + 3] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-1", "job-2");
+        journal.finished(job("job-1"));
+        assertThat(recoveredIds(reopen())).containsExactly("job-2");
+    }
+
+    @Test
+    void recoversFromSnapshotWhenOldSegmentsWereNotDeleted() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.submitted(job("job-2"));
+        journal.finished(job("job-1"));
+        Path oldSegment = onlyFile("segment-");
+        byte[] oldContent = Files.readAllBytes(oldSegment);
+
+        journal.compact();
+        journal.submitted(job("job-3"));
+        journal.shutdown();
+        // 模拟快照写入后、删除旧日志段前崩溃
+        assertThat(oldSegment).doesNotExist();
+        Files.write(oldSegment, oldContent);
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-2", "job-3");
+        assertThat(oldSegment).doesNotExist();
+    }
+
+    @Test
+    void ignoresIncompleteSnapshot() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.compact();
+        journal.submitted(job("job-2"));
+        journal.shutdown();
+
+        // 更新的快照只写了一半，回退到上一个完整快照和之后的日志段
+        byte[] header = ByteBuffer.allocate(8).putInt(0x504A534E).putInt(3).array();
+        Files.write(dir.resolve(String.format("snapshot-%020d.snap", 99)), header);
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-1", "job-2");
+    }
+
+    @Test
+    void compactionDoesNotResurrectFinishedJobs() throws IOException {
+        reopen();
+        journal.submitted(job("job-1"));
+        journal.submitted(job("job-2"));
+        journal.compact();
+        journal.finished(job("job-1"));
+
+        assertThat(recoveredIds(reopen())).containsExactly("job-2");
+
+        journal.finished(job("job-2"));
+        journal.compact();
+        assertThat(recoveredIds(reopen())).isEmpty();
+        assertThat(files("snapshot-")).hasSize(1);
+    }
+
+    /**
+     * 关闭当前日志并重新打开，返回重放出的任务
+     */
+    private List<PrintJob> reopen() throws IOException {
+        if (journal != null) {
+            journal.shutdown();
+        }
+        PrintJournalConfig config = new PrintJournalConfig();
+        config.setDir(dir.toString());
+        config.setSegmentSize(SEGMENT_SIZE);
+        config.setCompactInterval(3600000L);
+        journal = new JobJournal(config, new SimpleMeterRegistry());
+        journal.init();
+        return journal.takeRecovered();
+    }
+
+    private Path onlyFile(String prefix) throws IOException {
+        List<Path> files = files(prefix);
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> recoveredIds(List<PrintJob> jobs) {
+        return jobs.stream().map(PrintJob::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * 最后一条记录的起始位置
+     */
+    private static int lastRecordStart(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = 0;
+        int last = 0;
+        while (buffer.getInt(position) > 0) {
+            last = position;
+            position += 8 + buffer.getInt(position);
+        }
+        return last;
+    }
+
+    /**
+     * 有效记录之后的位置
+     */
+    private static int validEnd(byte[] bytes) {
+        int last = lastRecordStart(bytes);
+        return last + 8 + ByteBuffer.wrap(bytes).getInt(last);
+    }
+
+    private static PrintJob job(String id) {
+        return new PrintJob(id, "file.pdf", Path.of("uploads", "file.pdf"), 1L, null, "anonymous",
+                FairJobQueue.PRIORITY_NORMAL, 1, 1024, null, LocalDateTime.now());
+    }
+}